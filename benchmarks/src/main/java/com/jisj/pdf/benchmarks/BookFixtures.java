@@ -0,0 +1,92 @@
+package com.jisj.pdf.benchmarks;
+
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.jisj.pdf.PDFBook;
+import com.jisj.pdf.PDFException;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import com.jisj.pdf.xmp.WorkStruct;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Generated benchmark books
+ */
+public class BookFixtures {
+    private BookFixtures() {
+    }
+
+    /**
+     * Creates the book file with text pages and book XMP schema
+     *
+     * @param dir   target directory
+     * @param pages pages count
+     * @param works works count in the book schema
+     * @return path to the created file
+     * @throws IOException file writing error
+     */
+    public static Path create(Path dir, int pages, int works) throws IOException {
+        Path file = dir.resolve("book-" + pages + "p-" + works + "w.pdf");
+        if (Files.exists(file)) return file;
+        Files.createDirectories(dir);
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN);
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.setFont(font, 10);
+                    content.beginText();
+                    content.newLineAtOffset(40, 750);
+                    for (int line = 0; line < 60; line++) {
+                        content.showText("Page " + p + " line " + line + ": Lorem ipsum dolor sit amet, consectetur adipiscing elit");
+                        content.newLineAtOffset(0, -12);
+                    }
+                    content.endText();
+                }
+            }
+            PDFBook book = new PDFBook(document);
+            book.setMetadata(newSchema(works).getMetadata());
+            book.saveAs(file);
+        } catch (PDFException e) {
+            throw new IOException(e);
+        }
+        return file;
+    }
+
+    /**
+     * Creates the book schema with the specified works count
+     *
+     * @param works works count
+     * @return book schema
+     */
+    public static BookXMPSchema newSchema(int works) {
+        BookXMPSchema bs = new BookXMPSchema(XMPMetaFactory.create());
+        bs.setTitle("Benchmark book", "en");
+        bs.setGUID(UUID.randomUUID());
+        bs.setDateCreated(LocalDate.of(2025, 11, 1));
+        bs.addGenre("music");
+        bs.addGenre("music_sheets");
+        bs.addAuthor("А.А. Составитель", "ru", UUID.randomUUID());
+        bs.setSheets("Any", "piano", "", "");
+        bs.setPreferredShelf("S1");
+        for (int i = 0; i < works; i++) {
+            WorkStruct w = bs.addWork();
+            w.setTitle("Work #" + i, "en");
+            w.setGUID(UUID.randomUUID());
+            w.addGenre("music_barocca");
+            w.setDateCreated(LocalDate.of(1720, 1, 1));
+            w.addAuthor("J.S. Bach", UUID.randomUUID());
+            w.setSheets("F-dur", "piano", "BWV " + i, "");
+        }
+        return bs;
+    }
+}
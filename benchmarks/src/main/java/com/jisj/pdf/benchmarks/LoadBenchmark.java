@@ -0,0 +1,43 @@
+package com.jisj.pdf.benchmarks;
+
+import com.jisj.pdf.PDFFactory;
+import com.jisj.pdf.PDFMetadata;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF loading benchmarks over the file size
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"1", "100", "1000"})
+    public int pages;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = BookFixtures.create(Path.of("target/fixtures"), pages, 10);
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        try (PDDocument document = PDFFactory.read(file)) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    @Benchmark
+    public PDFMetadata readMetadataOnly() throws IOException {
+        return PDFFactory.readMetadataOnly(file);
+    }
+}
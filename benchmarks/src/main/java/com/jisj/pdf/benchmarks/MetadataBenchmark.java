@@ -0,0 +1,193 @@
+package com.jisj.pdf.benchmarks;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.jisj.pdf.PDFBook;
+import com.jisj.pdf.PDFException;
+import com.jisj.pdf.PDFFactory;
+import com.jisj.pdf.xmp.AuthorStruct;
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookRecordDecoder;
+import com.jisj.pdf.xmp.BookRecordReader;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import com.jisj.pdf.xmp.WorkStruct;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metadata parsing, schema access and saving benchmarks over the XMP complexity
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataBenchmark {
+    @Param({"1", "100", "5000"})
+    public int works;
+
+    private PDDocument document;
+    private PDFBook book;
+    private XMPMeta metadata;
+    private byte[] packet;
+    private BookRecord record;
+    private PDFBook recordBook;
+    private Path target;
+
+    @Setup
+    public void setUp() throws IOException, PDFException {
+        Path file = BookFixtures.create(Path.of("target/fixtures"), 10, works);
+        target = Files.createTempFile("benchmark", ".pdf");
+        document = PDFFactory.read(file);
+        book = PDFFactory.readPDF(file);
+        metadata = book.getMetadata();
+        packet = PDFFactory.readMetadataOnly(file).xmp();
+        record = BookRecordDecoder.decode(metadata);
+        recordBook = PDFFactory.readPDF(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        book.close();
+        recordBook.close();
+        document.close();
+        Files.deleteIfExists(target);
+    }
+
+    /**
+     * Metadata stream parsing: a new wrapper has no cached metadata
+     * <p>The wrapper holds nothing but the shared document, which is closed by {@link #tearDown()}</p>
+     */
+    @Benchmark
+    public XMPMeta getMetadata() throws PDFException {
+        return new PDFBook(document).getMetadata();
+    }
+
+    @Benchmark
+    public List<WorkStruct> getWorks() throws PDFException {
+        return book.getBookXMPSchema().getWorks();
+    }
+
+    @Benchmark
+    public int getWorkAuthors() throws PDFException {
+        int count = 0;
+        for (WorkStruct work : book.getBookXMPSchema().getWorks())
+            count += work.getAuthors().size();
+        return count;
+    }
+
+    /**
+     * Book schema snapshot with the per-property accessors
+     */
+    @Benchmark
+    public BookRecord recordOf() throws PDFException {
+        return BookRecord.of(book.getBookXMPSchema());
+    }
+
+    /**
+     * Book schema snapshot with the single-pass decoder
+     */
+    @Benchmark
+    public BookRecord decodeRecord() {
+        return BookRecordDecoder.decode(metadata);
+    }
+
+    /**
+     * Raw packet to book record through the {@code XMPMeta} node tree
+     */
+    @Benchmark
+    public BookRecord parseAndDecode() throws XMPException {
+        return BookRecordDecoder.decode(XMPMetaFactory.parseFromBuffer(packet));
+    }
+
+    /**
+     * Raw packet to book record with the streaming reader
+     */
+    @Benchmark
+    public BookRecord readRecord() throws XMPException {
+        return BookRecordReader.read(packet);
+    }
+
+    /**
+     * Work authors count with the reusable cursor accessors
+     */
+    @Benchmark
+    public int forEachWorkAuthor() throws PDFException {
+        int[] count = {0};
+        book.getBookXMPSchema().forEachWork(w -> w.forEachAuthor(a -> count[0]++));
+        return count[0];
+    }
+
+    /**
+     * Random access to the middle work with the lazy view
+     */
+    @Benchmark
+    public String getWorksView() throws PDFException {
+        List<WorkStruct> works = book.getBookXMPSchema().getWorksView();
+        return works.get(works.size() / 2).getTitle().getContent();
+    }
+
+    /**
+     * Works list rebuilding with the per-item appends
+     */
+    @Benchmark
+    public BookXMPSchema addWorks() {
+        BookXMPSchema schema = new BookXMPSchema(XMPMetaFactory.create());
+        for (BookRecord.Work w : record.works()) {
+            WorkStruct work = schema.addWork();
+            work.setTitle(w.title().content(), w.title().lang());
+            work.setGUID(w.guid());
+            work.setDateCreated(w.dateCreated());
+            w.genres().forEach(work::addGenre);
+            w.authors().forEach(a -> work.addAuthor(a.name(), a.guid()));
+            work.setSheets(w.sheets().key(), w.sheets().instruments(), w.sheets().catalogNumber(),
+                    w.sheets().arrangedBy());
+        }
+        return schema;
+    }
+
+    /**
+     * Works list rebuilding with the one-pass bulk setter
+     */
+    @Benchmark
+    public BookXMPSchema setWorks() {
+        BookXMPSchema schema = new BookXMPSchema(XMPMetaFactory.create());
+        schema.setWorks(record.works());
+        return schema;
+    }
+
+    @Benchmark
+    public List<AuthorStruct> getAuthors() throws PDFException {
+        return book.getBookXMPSchema().getAuthors();
+    }
+
+    /**
+     * Metadata serialization to the document metadata stream
+     */
+    @Benchmark
+    public void setMetadata() throws PDFException {
+        book.setMetadata(metadata);
+    }
+
+    /**
+     * Direct book record writing to the document metadata stream
+     */
+    @Benchmark
+    public void setBookRecord() throws PDFException {
+        recordBook.setBookRecord(record);
+    }
+
+    @Benchmark
+    public void saveAs() throws PDFException {
+        book.setMetadata(metadata);
+        book.saveAs(target);
+    }
+}
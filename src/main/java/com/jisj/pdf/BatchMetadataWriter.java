@@ -0,0 +1,231 @@
+package com.jisj.pdf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parallel metadata writer for many books
+ * <p>Every changed book is written to a temporary file in the book directory, which is then atomically moved
+ * over the original file, so a crash never leaves a half-written book. The books are processed on virtual threads,
+ * the number of documents open at once is limited by {@link #getMaxOpenDocuments()}</p>
+ */
+public class BatchMetadataWriter {
+    private final int maxOpenDocuments;
+    private Consumer<Outcome> listener = o -> {
+    };
+
+    /**
+     * Creates the writer
+     *
+     * @param maxOpenDocuments maximum number of documents open at once
+     * @throws IllegalArgumentException when {@code maxOpenDocuments < 1}
+     */
+    public BatchMetadataWriter(int maxOpenDocuments) {
+        if (maxOpenDocuments < 1)
+            throw new IllegalArgumentException("Unexpected maxOpenDocuments value = " + maxOpenDocuments);
+        this.maxOpenDocuments = maxOpenDocuments;
+    }
+
+    /**
+     * Creates the writer with {@code maxOpenDocuments} equals the available processors count
+     */
+    public BatchMetadataWriter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Gives the maximum number of documents open at once
+     *
+     * @return documents count
+     */
+    public int getMaxOpenDocuments() {
+        return maxOpenDocuments;
+    }
+
+    /**
+     * Sets the per-file outcome listener. The listener is called from the worker threads
+     *
+     * @param listener outcome consumer
+     */
+    public void setListener(Consumer<Outcome> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Applies the same edits to all files
+     *
+     * @param files book files
+     * @param edits metadata edits
+     * @return batch report
+     */
+    public Report write(Collection<Path> files, MetadataEdits edits) {
+        return write(files, f -> edits);
+    }
+
+    /**
+     * Applies the edits specified per file
+     *
+     * @param edits map file:edits
+     * @return batch report
+     */
+    public Report write(Map<Path, MetadataEdits> edits) {
+        return write(edits.keySet(), edits::get);
+    }
+
+    private Report write(Collection<Path> files, Function<Path, MetadataEdits> edits) {
+        List<Outcome> outcomes = Collections.synchronizedList(new ArrayList<>(files.size()));
+        Semaphore openDocuments = new Semaphore(maxOpenDocuments);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path file : files) {
+                openDocuments.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        Outcome outcome = write(file, edits.apply(file));
+                        outcomes.add(outcome);
+                        listener.accept(outcome);
+                    } finally {
+                        openDocuments.release();
+                    }
+                });
+            }
+        }
+        return new Report(List.copyOf(outcomes), System.nanoTime() - start);
+    }
+
+    /**
+     * Applies the edits to one file
+     *
+     * @param file  book file
+     * @param edits metadata edits
+     * @return file outcome
+     */
+    public static Outcome write(Path file, MetadataEdits edits) {
+        Path temp = null;
+        try {
+            try (PDFBook book = PDFFactory.readPDF(file)) {
+                if (!edits.applyTo(book))
+                    return new Outcome(file, Status.SKIPPED, 0L, null);
+                temp = Files.createTempFile(file.toAbsolutePath().getParent(), "." + file.getFileName(), ".tmp");
+                book.saveIncremental(temp);
+            }
+            copyPermissions(file, temp);
+            long size = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new Outcome(file, Status.SUCCESS, size, null);
+        } catch (Exception e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            return new Outcome(file, Status.FAILED, 0L, e);
+        }
+    }
+
+    /**
+     * Copies the POSIX permissions or the ACL of the book to the replacing file, the temporary file is owner-only
+     */
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if (posix != null) {
+            posix.setPermissions(Files.getPosixFilePermissions(source));
+            return;
+        }
+        AclFileAttributeView acl = Files.getFileAttributeView(target, AclFileAttributeView.class);
+        AclFileAttributeView sourceAcl = Files.getFileAttributeView(source, AclFileAttributeView.class);
+        if (acl != null && sourceAcl != null)
+            acl.setAcl(sourceAcl.getAcl());
+    }
+
+    /**
+     * File processing status
+     */
+    public enum Status {
+        /**
+         * The metadata were changed and the file was replaced
+         */
+        SUCCESS,
+        /**
+         * The metadata already contain the edits, the file was not touched
+         */
+        SKIPPED,
+        /**
+         * The file was not changed because of the error
+         */
+        FAILED
+    }
+
+    /**
+     * File processing outcome
+     *
+     * @param path         book file
+     * @param status       processing status
+     * @param bytesWritten size of the written file
+     * @param error        processing error | {@code null}
+     */
+    public record Outcome(Path path, Status status, long bytesWritten, Exception error) {
+    }
+
+    /**
+     * Batch processing report
+     *
+     * @param outcomes      per-file outcomes in the completion order
+     * @param durationNanos batch duration
+     */
+    public record Report(List<Outcome> outcomes, long durationNanos) {
+
+        /**
+         * Gives the number of files with the specified status
+         *
+         * @param status processing status
+         * @return files count
+         */
+        public long count(Status status) {
+            return outcomes.stream().filter(o -> o.status() == status).count();
+        }
+
+        /**
+         * Gives the total size of the written files
+         *
+         * @return bytes count
+         */
+        public long bytesWritten() {
+            return outcomes.stream().mapToLong(Outcome::bytesWritten).sum();
+        }
+
+        /**
+         * Gives the processing throughput
+         *
+         * @return files per second
+         */
+        public double filesPerSecond() {
+            return durationNanos == 0 ? 0.0 : outcomes.size() * 1e9 / durationNanos;
+        }
+
+        /**
+         * Gives the writing throughput
+         *
+         * @return written bytes per second
+         */
+        public double bytesPerSecond() {
+            return durationNanos == 0 ? 0.0 : bytesWritten() * 1e9 / durationNanos;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.jisj.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of the book summaries keyed by file path, size and last modified time, with optional content hash
+ * <p>The cache file is read to memory on loading, the file isn't kept open or mapped and may be replaced
+ * by {@link #save(Path)}. Only the entry keys are decoded at once, the summary is decoded on the first request
+ * and kept. The cache is thread-safe</p>
+ * <p>File format (big-endian): {@code int} magic, {@code int} version, {@code int} entries count, then entries:
+ * {@code int} entry length, {@code int} path length, UTF-8 path bytes, {@code long} size,
+ * {@code long} last modified time, {@code long} content hash ({@code 0} - not calculated), summary fields</p>
+ */
+public class BookCache {
+    private static final int MAGIC = 0x50424331; // "PBC1"
+    private static final int VERSION = 1;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+    private boolean verifyContent;
+
+    /**
+     * Creates the empty cache
+     */
+    public BookCache() {
+    }
+
+    /**
+     * Loads the cache file
+     *
+     * @param cacheFile path to cache file
+     * @return loaded cache | empty cache if the file doesn't exist
+     * @throws IOException file reading error or unexpected file format
+     */
+    public static BookCache load(Path cacheFile) throws IOException {
+        BookCache cache = new BookCache();
+        if (!Files.exists(cacheFile)) return cache;
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile));
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException("Unexpected cache file format: " + cacheFile);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                int start = buffer.position();
+                byte[] path = new byte[buffer.getInt()];
+                buffer.get(path);
+                long size = buffer.getLong();
+                long lastModified = buffer.getLong();
+                long hash = buffer.getLong();
+                cache.entries.put(new String(path, StandardCharsets.UTF_8),
+                        new Entry(size, lastModified, hash, buffer.slice(buffer.position(), start + length - buffer.position()), null));
+                buffer.position(start + length);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Cache file reading error: " + cacheFile, e);
+        }
+        return cache;
+    }
+
+    /**
+     * Checks the content hash verification
+     *
+     * @return {@code true} if the content hash is stored and checked for the touched files
+     */
+    public boolean isVerifyContent() {
+        return verifyContent;
+    }
+
+    /**
+     * Sets the content hash verification
+     * <p>When the verification is on, the content hash is stored on {@link #put(BookSummary)}. The lookup hashes
+     * the file only when its size is the same but the last modified time differs, e.g. after a copy or a restore
+     * from a backup: the entry is kept if the content is not changed. The hashing reads the whole file, which for
+     * a big score costs much more than {@link PDFFactory#readMetadataOnly(Path)} resolving a few objects,
+     * so the files with the same size and time are never hashed</p>
+     *
+     * @param verifyContent {@code true} if the content hash is stored and checked for the touched files
+     */
+    public void setVerifyContent(boolean verifyContent) {
+        this.verifyContent = verifyContent;
+    }
+
+    /**
+     * Gives the number of cached entries
+     *
+     * @return entries count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gives the cached summary if the file is not changed
+     *
+     * @param file path to file
+     * @return summary | {@code null} when the file is new or changed
+     * @throws IOException file attributes reading error
+     */
+    public BookSummary get(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return get(file, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Gives the cached summary if the file is not changed
+     *
+     * @param file         path to file
+     * @param size         current file size
+     * @param lastModified current file last modified time in milliseconds
+     * @return summary | {@code null} when the file is new or changed
+     * @throws IOException file reading error when the content hash is calculated
+     */
+    public BookSummary get(Path file, long size, long lastModified) throws IOException {
+        String key = file.toString();
+        touched.add(key);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.size != size)
+            return null;
+        if (entry.lastModified == lastModified)
+            return decoded(key, entry, file);
+        if (!verifyContent || entry.hash == 0L || entry.hash != ContentHash.toLong(ContentHash.sha256(file)))
+            return null;
+        // the same content with the new time: the entry is updated to skip the hashing next time
+        BookSummary cached = decoded(key, entry, file);
+        BookSummary summary = new BookSummary(file, size, lastModified, cached.language(), cached.info(),
+                cached.book(), null);
+        entries.put(key, new Entry(size, lastModified, entry.hash, null, summary));
+        return summary;
+    }
+
+    /**
+     * Gives the entry summary, the decoded summary replaces the encoded entry
+     */
+    private BookSummary decoded(String key, Entry entry, Path file) {
+        if (entry.summary != null) return entry.summary;
+        BookSummary summary = entry.summary(file);
+        entries.replace(key, entry, new Entry(entry.size, entry.lastModified, entry.hash, entry.encoded, summary));
+        return summary;
+    }
+
+    /**
+     * Puts the summary to the cache. The summaries with errors are not cached
+     *
+     * @param summary book summary
+     * @throws IOException file reading error when the content hash is calculated
+     */
+    public void put(BookSummary summary) throws IOException {
+        if (summary.isFailed()) return;
+        String key = summary.path().toString();
+        touched.add(key);
+        long hash = verifyContent ? ContentHash.toLong(ContentHash.sha256(summary.path())) : 0L;
+        entries.put(key, new Entry(summary.fileSize(), summary.lastModified(), hash, null, summary));
+    }
+
+    /**
+     * Removes the entries which were not requested or put since the cache loading,
+     * i.e. the books which were not found by the last library scan
+     *
+     * @return removed entries count
+     */
+    public int prune() {
+        int before = entries.size();
+        entries.keySet().retainAll(touched);
+        return before - entries.size();
+    }
+
+    /**
+     * Saves the cache to the file
+     * <p>The cache is written to a temporary file, which is atomically moved over the target file</p>
+     *
+     * @param cacheFile path to cache file
+     * @throws IOException file writing error
+     */
+    public void save(Path cacheFile) throws IOException {
+        Path dir = cacheFile.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, "." + cacheFile.getFileName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                Map<String, Entry> snapshot = Map.copyOf(entries);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(snapshot.size());
+                ByteArrayOutputStream entryBytes = new ByteArrayOutputStream(1024);
+                DataOutputStream entryOut = new DataOutputStream(entryBytes);
+                for (Map.Entry<String, Entry> e : snapshot.entrySet()) {
+                    entryBytes.reset();
+                    e.getValue().write(entryOut, e.getKey());
+                    out.writeInt(entryBytes.size());
+                    entryBytes.writeTo(out);
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Cache entry: the loaded summary bytes and/or the summary object
+     */
+    private record Entry(long size, long lastModified, long hash, ByteBuffer encoded, BookSummary summary) {
+
+        BookSummary summary(Path file) {
+            if (summary != null) return summary;
+            return BookSummaryCodec.read(encoded.duplicate(), file, size, lastModified);
+        }
+
+        void write(DataOutputStream out, String path) throws IOException {
+            byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(pathBytes.length);
+            out.write(pathBytes);
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeLong(hash);
+            if (encoded != null)
+                out.write(encoded.array(), encoded.arrayOffset(), encoded.remaining());
+            else
+                BookSummaryCodec.write(out, summary);
+        }
+    }
+}
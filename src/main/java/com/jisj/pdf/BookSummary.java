@@ -0,0 +1,34 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.BookRecord;
+
+import java.nio.file.Path;
+
+/**
+ * Book summary produced by the library scanning
+ *
+ * @param path         path to file
+ * @param fileSize     file size in bytes
+ * @param lastModified file last modified time in milliseconds
+ * @param language     document language | {@code null}
+ * @param info         document information fields | {@code null} when the file reading failed
+ * @param book         book schema fields | {@code null} when the document has no readable metadata
+ * @param error        file reading error | {@code null}
+ */
+public record BookSummary(Path path,
+                          long fileSize,
+                          long lastModified,
+                          String language,
+                          PDFBook.PDFInfo info,
+                          BookRecord book,
+                          Exception error) {
+
+    /**
+     * Checks the file reading result
+     *
+     * @return {@code true} if the file reading failed
+     */
+    public boolean isFailed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,212 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.BookRecord;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of the book summary
+ * <p>Strings are written as {@code int} UTF-8 length ({@code -1} for {@code null}) and bytes,
+ * optional values are prefixed with the {@code byte} presence flag</p>
+ */
+class BookSummaryCodec {
+    private BookSummaryCodec() {
+    }
+
+    /**
+     * Writes the summary fields except the file key fields (path, size, last modified)
+     *
+     * @param out     data output
+     * @param summary book summary
+     * @throws IOException write error
+     */
+    static void write(DataOutput out, BookSummary summary) throws IOException {
+        writeString(out, summary.language());
+        PDFBook.PDFInfo info = summary.info();
+        out.writeBoolean(info != null);
+        if (info != null) {
+            writeString(out, info.title());
+            writeString(out, info.author());
+            writeString(out, info.subject());
+            writeString(out, info.keywords());
+            writeString(out, info.creator());
+            writeCalendar(out, info.creationDate());
+            writeCalendar(out, info.modificationDate());
+        }
+        BookRecord book = summary.book();
+        out.writeBoolean(book != null);
+        if (book != null) {
+            writeTitle(out, book.title());
+            writeUUID(out, book.guid());
+            writeDate(out, book.dateCreated());
+            writeStrings(out, book.genres());
+            writeAuthors(out, book.authors());
+            writeSheets(out, book.sheets());
+            out.writeInt(book.works().size());
+            for (BookRecord.Work work : book.works()) {
+                writeTitle(out, work.title());
+                writeUUID(out, work.guid());
+                writeDate(out, work.dateCreated());
+                writeStrings(out, work.genres());
+                writeAuthors(out, work.authors());
+                writeSheets(out, work.sheets());
+            }
+            writeString(out, book.preferredShelf());
+        }
+    }
+
+    /**
+     * Reads the summary fields written by {@link #write(DataOutput, BookSummary)}
+     *
+     * @param in           buffer positioned at the summary fields
+     * @param path         file path
+     * @param fileSize     file size
+     * @param lastModified file last modified time
+     * @return book summary
+     */
+    static BookSummary read(ByteBuffer in, Path path, long fileSize, long lastModified) {
+        String language = readString(in);
+        PDFBook.PDFInfo info = null;
+        if (in.get() != 0) {
+            info = new PDFBook.PDFInfo(readString(in), readString(in), readString(in), readString(in), readString(in),
+                    readCalendar(in), readCalendar(in));
+        }
+        BookRecord book = null;
+        if (in.get() != 0) {
+            BookRecord.Title title = readTitle(in);
+            UUID guid = readUUID(in);
+            LocalDate dateCreated = readDate(in);
+            List<String> genres = readStrings(in);
+            List<BookRecord.Author> authors = readAuthors(in);
+            BookRecord.Sheets sheets = readSheets(in);
+            int count = in.getInt();
+            List<BookRecord.Work> works = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                works.add(new BookRecord.Work(readTitle(in), readUUID(in), readDate(in), readStrings(in),
+                        readAuthors(in), readSheets(in)));
+            }
+            book = new BookRecord(title, guid, dateCreated, genres, authors, sheets, works, readString(in));
+        }
+        return new BookSummary(path, fileSize, lastModified, language, info, book, null);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeCalendar(DataOutput out, Calendar calendar) throws IOException {
+        out.writeBoolean(calendar != null);
+        if (calendar != null) {
+            out.writeLong(calendar.getTimeInMillis());
+            writeString(out, calendar.getTimeZone().getID());
+        }
+    }
+
+    private static Calendar readCalendar(ByteBuffer in) {
+        if (in.get() == 0) return null;
+        long millis = in.getLong();
+        Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone(readString(in)));
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    private static void writeUUID(DataOutput out, UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUUID(ByteBuffer in) {
+        if (in.get() == 0) return null;
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null)
+            out.writeLong(date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        if (in.get() == 0) return null;
+        return LocalDate.ofEpochDay(in.getLong());
+    }
+
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values)
+            writeString(out, value);
+    }
+
+    private static List<String> readStrings(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            values.add(readString(in));
+        return values;
+    }
+
+    private static void writeTitle(DataOutput out, BookRecord.Title title) throws IOException {
+        writeString(out, title.content());
+        writeString(out, title.lang());
+    }
+
+    private static BookRecord.Title readTitle(ByteBuffer in) {
+        return new BookRecord.Title(readString(in), readString(in));
+    }
+
+    private static void writeAuthors(DataOutput out, List<BookRecord.Author> authors) throws IOException {
+        out.writeInt(authors.size());
+        for (BookRecord.Author author : authors) {
+            writeString(out, author.name());
+            writeString(out, author.lang());
+            writeUUID(out, author.guid());
+        }
+    }
+
+    private static List<BookRecord.Author> readAuthors(ByteBuffer in) {
+        int count = in.getInt();
+        List<BookRecord.Author> authors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            authors.add(new BookRecord.Author(readString(in), readString(in), readUUID(in)));
+        return authors;
+    }
+
+    private static void writeSheets(DataOutput out, BookRecord.Sheets sheets) throws IOException {
+        writeString(out, sheets.key());
+        writeString(out, sheets.instruments());
+        writeString(out, sheets.catalogNumber());
+        writeString(out, sheets.arrangedBy());
+    }
+
+    private static BookRecord.Sheets readSheets(ByteBuffer in) {
+        return new BookRecord.Sheets(readString(in), readString(in), readString(in), readString(in));
+    }
+}
@@ -0,0 +1,76 @@
+package com.jisj.pdf;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Static methods for file content hashing
+ */
+public class ContentHash {
+    /**
+     * Size of the file region mapped at once
+     */
+    static final long MAP_CHUNK = 64L * 1024 * 1024;
+
+    private ContentHash() {
+    }
+
+    /**
+     * Calculates SHA-256 digest of the file content
+     * <p>The file is read with memory-mapped regions, the content is not copied to the heap</p>
+     *
+     * @param file path to file
+     * @return 32 bytes digest
+     * @throws IOException file reading error
+     */
+    public static byte[] sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_CHUNK) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_CHUNK, size - position));
+                digest.update(buffer);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Calculates SHA-256 digest of the file content as hex string
+     *
+     * @param file path to file
+     * @return 64 chars lower case hex string
+     * @throws IOException file reading error
+     */
+    public static String sha256Hex(Path file) throws IOException {
+        return HexFormat.of().formatHex(sha256(file));
+    }
+
+    /**
+     * Gives the first 8 bytes of digest as {@code long} value
+     *
+     * @param digest digest bytes, at least 8
+     * @return long value
+     */
+    public static long toLong(byte[] digest) {
+        long value = 0L;
+        for (int i = 0; i < Long.BYTES; i++)
+            value = (value << 8) | (digest[i] & 0xFF);
+        return value;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.jisj.pdf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cover thumbnail service: the first page images in the disk cache keyed by the file content hash
+ * <p>The pages are rendered on the bounded pool of platform threads, the rendering is CPU bound. The thumbnail
+ * is rendered once for the file content and the image options. The repeated request is served from the cache
+ * without the document opening: the content hash is remembered by the file path, size and last modified time,
+ * so the file is hashed again only when it was changed</p>
+ * <p>The cache size is limited by {@link #getMaxCacheBytes()}: when the limit is exceeded the least recently
+ * used images are removed down to 90% of the limit. The service is thread-safe</p>
+ */
+public class CoverThumbnails implements Closeable {
+    private static final String IMAGE_FORMAT = "png";
+    private static final String IMAGE_EXTENSION = "." + IMAGE_FORMAT;
+
+    private final Path cacheDir;
+    private final int threads;
+    private final ExecutorService renderPool;
+    private final Map<String, FileHash> hashes = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+    private final AtomicLong cacheBytes = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private volatile int dpi = 72;
+    private volatile int maxWidth = 256;
+    private volatile int maxHeight = 256;
+    private volatile long maxCacheBytes = 256L * 1024 * 1024;
+    private volatile LoadOptions loadOptions;
+
+    /**
+     * Creates the service
+     *
+     * @param cacheDir cache directory, it is created if it doesn't exist
+     * @param threads  render pool size
+     * @throws IOException cache directory creation or reading error
+     * @throws IllegalArgumentException when {@code threads < 1}
+     */
+    public CoverThumbnails(Path cacheDir, int threads) throws IOException {
+        if (threads < 1)
+            throw new IllegalArgumentException("Unexpected threads value = " + threads);
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.threads = threads;
+        this.renderPool = Executors.newFixedThreadPool(threads);
+        cacheBytes.set(cachedImages().stream().mapToLong(CachedImage::size).sum());
+    }
+
+    /**
+     * Creates the service with the render pool size equals the available processors count
+     *
+     * @param cacheDir cache directory, it is created if it doesn't exist
+     * @throws IOException cache directory creation or reading error
+     */
+    public CoverThumbnails(Path cacheDir) throws IOException {
+        this(cacheDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Gives the cache directory
+     *
+     * @return cache directory path
+     */
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Gives the render pool size
+     *
+     * @return threads count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gives the maximum rendering resolution
+     *
+     * @return dots per inch
+     */
+    public int getDpi() {
+        return dpi;
+    }
+
+    /**
+     * Sets the maximum rendering resolution. Default: 72
+     * <p>The page is rendered with the lower resolution when it doesn't fit to the maximum image size</p>
+     *
+     * @param dpi dots per inch
+     * @throws IllegalArgumentException when {@code dpi < 1}
+     */
+    public void setDpi(int dpi) {
+        if (dpi < 1)
+            throw new IllegalArgumentException("Unexpected dpi value = " + dpi);
+        this.dpi = dpi;
+    }
+
+    /**
+     * Gives the maximum image width
+     *
+     * @return width in pixels
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Gives the maximum image height
+     *
+     * @return height in pixels
+     */
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Sets the maximum image size. Default: 256x256. The page aspect ratio is kept
+     *
+     * @param maxWidth  width in pixels
+     * @param maxHeight height in pixels
+     * @throws IllegalArgumentException when a value {@code < 1}
+     */
+    public void setMaxSize(int maxWidth, int maxHeight) {
+        if (maxWidth < 1 || maxHeight < 1)
+            throw new IllegalArgumentException("Unexpected image size = " + maxWidth + "x" + maxHeight);
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    /**
+     * Gives the cache size limit
+     *
+     * @return size in bytes
+     */
+    public long getMaxCacheBytes() {
+        return maxCacheBytes;
+    }
+
+    /**
+     * Sets the cache size limit. Default: 256 MB
+     *
+     * @param maxCacheBytes size in bytes
+     * @throws IllegalArgumentException when {@code maxCacheBytes < 1}
+     */
+    public void setMaxCacheBytes(long maxCacheBytes) {
+        if (maxCacheBytes < 1)
+            throw new IllegalArgumentException("Unexpected maxCacheBytes value = " + maxCacheBytes);
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
+    /**
+     * Gives the current cache size
+     *
+     * @return size of the cached images in bytes
+     */
+    public long getCacheBytes() {
+        return cacheBytes.get();
+    }
+
+    /**
+     * Sets the document loading options
+     *
+     * @param loadOptions options | {@code null} - PDFBox defaults
+     */
+    public void setLoadOptions(LoadOptions loadOptions) {
+        this.loadOptions = loadOptions;
+    }
+
+    /**
+     * Gives the cached thumbnail of the book. The document is not rendered
+     *
+     * @param book path to PDF file
+     * @return image path | {@code null} if the thumbnail is not cached
+     * @throws IOException file reading error
+     */
+    public Path getCached(Path book) throws IOException {
+        Path image = imagePath(contentHash(book));
+        if (!Files.exists(image)) return null;
+        touch(image);
+        return image;
+    }
+
+    /**
+     * Requests the thumbnail of the book
+     * <p>The request of the cached thumbnail of the unchanged book is completed at once,
+     * the other requests are queued to the render pool</p>
+     *
+     * @param book path to PDF file
+     * @return future of the image path
+     */
+    public CompletableFuture<Path> submit(Path book) {
+        String hash = knownHash(book);
+        if (hash != null) {
+            Path image = imagePath(hash);
+            if (Files.exists(image)) {
+                touch(image);
+                return CompletableFuture.completedFuture(image);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return thumbnail(book, contentHash(book));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, renderPool);
+    }
+
+    /**
+     * Gives the thumbnail of the book: from the cache or rendered on the render pool
+     *
+     * @param book path to PDF file
+     * @return image path
+     * @throws IOException file reading, rendering or image writing error
+     */
+    public Path getThumbnail(Path book) throws IOException {
+        try {
+            return submit(book).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException u) throw u.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives the thumbnails of the books. The books are rendered in parallel on the render pool
+     * <p>A book error doesn't stop the rendering: the result with {@link Thumbnail#error()} is produced instead</p>
+     *
+     * @param books paths to PDF files
+     * @return thumbnails in the order of the books
+     */
+    public List<Thumbnail> getThumbnails(Collection<Path> books) {
+        List<CompletableFuture<Path>> futures = new ArrayList<>(books.size());
+        books.forEach(book -> futures.add(submit(book)));
+        List<Thumbnail> result = new ArrayList<>(books.size());
+        int i = 0;
+        for (Path book : books) {
+            try {
+                result.add(new Thumbnail(book, futures.get(i++).join(), null));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() instanceof UncheckedIOException u ? u.getCause() : e.getCause();
+                result.add(new Thumbnail(book, null, cause instanceof Exception ex ? ex : e));
+            }
+        }
+        return result;
+    }
+
+    private Path thumbnail(Path book, String hash) throws IOException {
+        Path image = imagePath(hash);
+        if (Files.exists(image)) {
+            touch(image);
+            return image;
+        }
+        // the concurrent requests of the same image wait for the first one
+        CompletableFuture<Path> rendered = new CompletableFuture<>();
+        CompletableFuture<Path> running = rendering.putIfAbsent(image, rendered);
+        if (running != null)
+            return running.join();
+        try {
+            store(render(book), image, hash);
+            rendered.complete(image);
+            return image;
+        } catch (IOException | RuntimeException e) {
+            rendered.completeExceptionally(e instanceof IOException io ? new UncheckedIOException(io) : e);
+            throw e;
+        } finally {
+            rendering.remove(image, rendered);
+        }
+    }
+
+    private void store(BufferedImage rendered, Path image, String hash) throws IOException {
+        Files.createDirectories(image.getParent());
+        Path temp = Files.createTempFile(image.getParent(), hash, ".tmp");
+        try {
+            ImageIO.write(rendered, IMAGE_FORMAT, temp.toFile());
+            long size = Files.size(temp);
+            // the image stored by a concurrent request or another instance is replaced
+            long replaced;
+            try {
+                replaced = Files.size(image);
+            } catch (NoSuchFileException e) {
+                replaced = 0L;
+            }
+            Files.move(temp, image, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (cacheBytes.addAndGet(size - replaced) > maxCacheBytes)
+                evict(image);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Renders the first page with the scale which fits the page to the maximum size
+     */
+    private BufferedImage render(Path book) throws IOException {
+        LoadOptions options = loadOptions;
+        try (PDDocument document = options == null ? PDFFactory.read(book) : PDFFactory.read(book, options)) {
+            if (document.getNumberOfPages() == 0)
+                throw new IOException("Document has no pages: " + book);
+            PDPage page = document.getPage(0);
+            PDRectangle box = page.getCropBox();
+            boolean rotated = page.getRotation() % 180 != 0;
+            float width = rotated ? box.getHeight() : box.getWidth();
+            float height = rotated ? box.getWidth() : box.getHeight();
+            float scale = Math.min(dpi / 72f, Math.min(maxWidth / width, maxHeight / height));
+            PDFRenderer renderer = new PDFRenderer(document);
+            renderer.setSubsamplingAllowed(true);
+            return renderer.renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Removes the least recently used images down to 90% of the limit. The kept image is not removed
+     */
+    private void evict(Path keep) throws IOException {
+        synchronized (evictionLock) {
+            if (cacheBytes.get() <= maxCacheBytes) return;
+            long target = maxCacheBytes / 10 * 9;
+            List<CachedImage> images = cachedImages();
+            images.sort(Comparator.comparing(CachedImage::lastAccess));
+            for (CachedImage image : images) {
+                if (cacheBytes.get() <= target) break;
+                if (image.path().equals(keep)) continue;
+                if (Files.deleteIfExists(image.path()))
+                    cacheBytes.addAndGet(-image.size());
+            }
+        }
+    }
+
+    private List<CachedImage> cachedImages() throws IOException {
+        List<CachedImage> images = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(IMAGE_EXTENSION)) continue;
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile())
+                        images.add(new CachedImage(file, attributes.size(), attributes.lastModifiedTime()));
+                } catch (IOException ignored) {
+                    // the image was removed by the concurrent eviction
+                }
+            }
+        }
+        return images;
+    }
+
+    /**
+     * Gives the image path: the content hash, the image options. The images are spread to 256 subdirectories
+     */
+    private Path imagePath(String hash) {
+        return cacheDir.resolve(hash.substring(0, 2))
+                .resolve(hash + "-" + maxWidth + "x" + maxHeight + "-" + dpi + IMAGE_EXTENSION);
+    }
+
+    /**
+     * Gives the remembered content hash of the unchanged file
+     *
+     * @return hex hash | {@code null} when the file is new or changed
+     */
+    private String knownHash(Path book) {
+        FileHash known = hashes.get(book.toAbsolutePath().toString());
+        if (known == null) return null;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(book, BasicFileAttributes.class);
+            return known.matches(attributes) ? known.hash() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String contentHash(Path book) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(book, BasicFileAttributes.class);
+        String key = book.toAbsolutePath().toString();
+        FileHash known = hashes.get(key);
+        if (known != null && known.matches(attributes))
+            return known.hash();
+        String hash = ContentHash.sha256Hex(book);
+        hashes.put(key, new FileHash(attributes.size(), attributes.lastModifiedTime().toMillis(), hash));
+        return hash;
+    }
+
+    /**
+     * Marks the image as recently used
+     */
+    private static void touch(Path image) {
+        try {
+            Files.setLastModifiedTime(image, FileTime.from(Instant.now()));
+        } catch (IOException ignored) {
+            // the image was removed by the concurrent eviction, it will be rendered again
+        }
+    }
+
+    /**
+     * Stops the render pool. The queued requests are rendered
+     */
+    @Override
+    public void close() {
+        renderPool.shutdown();
+    }
+
+    /**
+     * Book thumbnail result
+     *
+     * @param book  path to PDF file
+     * @param image path to cached image | {@code null} when the rendering failed
+     * @param error rendering error | {@code null}
+     */
+    public record Thumbnail(Path book, Path image, Exception error) {
+
+        /**
+         * Checks the rendering result
+         *
+         * @return {@code true} if the rendering failed
+         */
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+
+    private record FileHash(long size, long lastModified, String hash) {
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    private record CachedImage(Path path, long size, FileTime lastAccess) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPConst;
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.adobe.internal.xmp.options.PropertyOptions;
+import com.adobe.internal.xmp.properties.XMPProperty;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import com.jisj.pdf.xmp.LocalizedText;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Synchronization of the PDF document information dictionary and the XMP metadata
+ * <p>The fields are mapped to the XMP equivalents:</p>
+ * <ul>
+ *     <li>Title - {@code dc:title} (x-default) and {@code book:Title}</li>
+ *     <li>Author - {@code dc:creator}, the array items are joined by {@code "; "}, the Author value is split
+ *     by {@code "; "} to the items</li>
+ *     <li>Subject - {@code dc:description} (x-default)</li>
+ *     <li>Keywords - {@code pdf:Keywords}</li>
+ *     <li>Creator - {@code xmp:CreatorTool}</li>
+ *     <li>CreationDate - {@code xmp:CreateDate}</li>
+ *     <li>ModDate - {@code xmp:ModifyDate}</li>
+ * </ul>
+ * <p>The source is read once. Only the target fields which differ from the source values are written, so the
+ * synchronized book is not marked as changed. The source fields which are not defined are skipped</p>
+ */
+public class DocumentInfoSync {
+    private static final String AUTHOR_SEPARATOR = "; ";
+    private static final Pattern AUTHOR_SPLIT = Pattern.compile(AUTHOR_SEPARATOR, Pattern.LITERAL);
+
+    private DocumentInfoSync() {
+    }
+
+    /**
+     * Copies the document information fields to the book metadata
+     * <p>The metadata are set to the book by {@link PDFBook#setMetadata(XMPMeta)} only if a field was changed</p>
+     *
+     * @param book PDF book
+     * @return {@code true} if the metadata were changed
+     * @throws PDFException when the metadata are encrypted, metadata reading or parsing error
+     */
+    public static boolean infoToMetadata(PDFBook book) throws PDFException {
+        XMPMeta current = book.getMetadata();
+        XMPMeta metadata = current == null ? XMPMetaFactory.create() : current;
+        try {
+            if (!toMetadata(book.getDocumentInfo(), metadata))
+                return false;
+        } catch (XMPException e) {
+            throw new PDFException("Metadata synchronization error", e);
+        }
+        book.setMetadata(metadata);
+        return true;
+    }
+
+    /**
+     * Copies the book metadata fields to the document information dictionary
+     *
+     * @param book PDF book
+     * @return {@code true} if the document information was changed
+     * @throws PDFException when the metadata are encrypted, metadata reading or parsing error
+     */
+    public static boolean metadataToInfo(PDFBook book) throws PDFException {
+        XMPMeta metadata = book.getMetadata();
+        if (metadata == null) return false;
+        PDFBook.PDFInfo info;
+        try {
+            info = fromMetadata(metadata);
+        } catch (XMPException e) {
+            throw new PDFException("Metadata synchronization error", e);
+        }
+        List<String> fields = new ArrayList<>();
+        if (info.title() != null) fields.add("title");
+        if (info.author() != null) fields.add("author");
+        if (info.subject() != null) fields.add("subject");
+        if (info.keywords() != null) fields.add("keywords");
+        if (info.creator() != null) fields.add("creator");
+        if (info.creationDate() != null) fields.add("creationDate");
+        if (info.modificationDate() != null) fields.add("modificationDate");
+        return !fields.isEmpty() && book.setDocumentInfo(info, fields.toArray(String[]::new));
+    }
+
+    /**
+     * Writes the document information fields to the metadata object
+     *
+     * @param info     document information. The {@code null} fields are skipped
+     * @param metadata target metadata
+     * @return {@code true} if the metadata were changed
+     * @throws XMPException metadata access error
+     */
+    public static boolean toMetadata(PDFBook.PDFInfo info, XMPMeta metadata) throws XMPException {
+        boolean changed = false;
+        if (info.title() != null) {
+            changed |= setLocalized(metadata, XMPConst.NS_DC, "title", info.title());
+            LocalizedText bookTitle = new BookXMPSchema(metadata).getTitle();
+            if (!info.title().equals(bookTitle.getContent())) {
+                bookTitle.setContent(info.title());
+                changed = true;
+            }
+        }
+        if (info.author() != null && !info.author().equals(creators(metadata))) {
+            metadata.deleteProperty(XMPConst.NS_DC, "creator");
+            PropertyOptions options = Utils.newOptions(PropertyOptions.ARRAY_ORDERED);
+            for (String author : AUTHOR_SPLIT.split(info.author(), -1))
+                metadata.appendArrayItem(XMPConst.NS_DC, "creator", options, author, null);
+            changed = true;
+        }
+        if (info.subject() != null)
+            changed |= setLocalized(metadata, XMPConst.NS_DC, "description", info.subject());
+        if (info.keywords() != null)
+            changed |= setSimple(metadata, XMPConst.NS_PDF, "Keywords", info.keywords());
+        if (info.creator() != null)
+            changed |= setSimple(metadata, XMPConst.NS_XMP, "CreatorTool", info.creator());
+        changed |= setDate(metadata, "CreateDate", info.creationDate());
+        changed |= setDate(metadata, "ModifyDate", info.modificationDate());
+        return changed;
+    }
+
+    /**
+     * Reads the document information fields from the metadata object
+     * <p>The title is taken from {@code book:Title}, then from {@code dc:title}</p>
+     *
+     * @param metadata metadata object
+     * @return document information. The fields which are not defined in the metadata are {@code null}
+     * @throws XMPException metadata access error or invalid date value
+     */
+    public static PDFBook.PDFInfo fromMetadata(XMPMeta metadata) throws XMPException {
+        String title = new BookXMPSchema(metadata).getTitle().getContent();
+        if (title.isEmpty())
+            title = localized(metadata, XMPConst.NS_DC, "title");
+        return new PDFBook.PDFInfo(title,
+                creators(metadata),
+                localized(metadata, XMPConst.NS_DC, "description"),
+                metadata.getPropertyString(XMPConst.NS_PDF, "Keywords"),
+                metadata.getPropertyString(XMPConst.NS_XMP, "CreatorTool"),
+                metadata.getPropertyCalendar(XMPConst.NS_XMP, "CreateDate"),
+                metadata.getPropertyCalendar(XMPConst.NS_XMP, "ModifyDate"));
+    }
+
+    private static String creators(XMPMeta metadata) throws XMPException {
+        if (!metadata.doesPropertyExist(XMPConst.NS_DC, "creator")) return null;
+        int count = metadata.countArrayItems(XMPConst.NS_DC, "creator");
+        if (count == 0) return null;
+        StringBuilder authors = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) authors.append(AUTHOR_SEPARATOR);
+            authors.append(metadata.getArrayItem(XMPConst.NS_DC, "creator", i).getValue());
+        }
+        return authors.toString();
+    }
+
+    private static String localized(XMPMeta metadata, String ns, String name) throws XMPException {
+        XMPProperty text = metadata.getLocalizedText(ns, name, null, XMPConst.X_DEFAULT);
+        return text == null ? null : text.getValue();
+    }
+
+    private static boolean setLocalized(XMPMeta metadata, String ns, String name, String value) throws XMPException {
+        if (value.equals(localized(metadata, ns, name))) return false;
+        metadata.setLocalizedText(ns, name, null, XMPConst.X_DEFAULT, value);
+        return true;
+    }
+
+    private static boolean setSimple(XMPMeta metadata, String ns, String name, String value) throws XMPException {
+        if (value.equals(metadata.getPropertyString(ns, name))) return false;
+        metadata.setProperty(ns, name, value);
+        return true;
+    }
+
+    private static boolean setDate(XMPMeta metadata, String name, Calendar date) throws XMPException {
+        if (date == null) return false;
+        Calendar current;
+        try {
+            current = metadata.getPropertyCalendar(XMPConst.NS_XMP, name);
+        } catch (XMPException e) {
+            // the invalid date value is replaced
+            current = null;
+        }
+        if (PDFBook.PDFInfo.sameDate(current, date)) return false;
+        metadata.setProperty(XMPConst.NS_XMP, name, Utils.formatCalendarToISO8601(date));
+        return true;
+    }
+}
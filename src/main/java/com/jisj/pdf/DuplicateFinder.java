@@ -0,0 +1,421 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.BookRecord;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Library duplicate finder
+ * <p>Identical files: the files are grouped by size first, only the files of the same size are hashed
+ * ({@link ContentHash#sha256(Path)}, memory-mapped reading) on the finder pool. Near duplicates (the re-saved
+ * copies): the files get the {@link Fingerprint} - page count, difference hash of the first page rendered
+ * at a small size and the normalized title and author of {@link PDFBook.PDFInfo}. The files with the same page
+ * count and the close page hashes are the candidates. The page hashes are not compared pairwise: the hash is split
+ * into {@code maxDistance + 1} bands, the close hashes have at least one equal band, so only the files with
+ * an equal band are compared</p>
+ * <p>The candidate pairs refer to the book schema GUIDs of both files, so the caller can see whether the copies
+ * are already linked to the same library record</p>
+ */
+public class DuplicateFinder implements Closeable {
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+    private static final float RENDER_WIDTH = 64f;
+
+    private final ExecutorService pool;
+    private boolean nearDuplicates = true;
+    private int maxDistance = 6;
+    private LoadOptions loadOptions;
+
+    /**
+     * Creates the finder
+     *
+     * @param threads number of files hashed or fingerprinted at once
+     * @throws IllegalArgumentException when {@code threads < 1}
+     */
+    public DuplicateFinder(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Unexpected threads value = " + threads);
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Creates the finder with the pool size equals the available processors count
+     */
+    public DuplicateFinder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sets the near duplicates search. Default: {@code true}.
+     * The search opens every document and renders its first page
+     *
+     * @param nearDuplicates {@code false} - the identical files only
+     */
+    public void setNearDuplicates(boolean nearDuplicates) {
+        this.nearDuplicates = nearDuplicates;
+    }
+
+    /**
+     * Sets the maximum number of the different bits of the near duplicate page hashes. Default: 6
+     *
+     * @param maxDistance Hamming distance, 0..64
+     * @throws IllegalArgumentException when the distance is out of range
+     */
+    public void setMaxDistance(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > Long.SIZE)
+            throw new IllegalArgumentException("Unexpected maxDistance value = " + maxDistance);
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Sets the document loading options of the fingerprinting
+     *
+     * @param loadOptions options | {@code null} - PDFBox defaults
+     */
+    public void setLoadOptions(LoadOptions loadOptions) {
+        this.loadOptions = loadOptions;
+    }
+
+    /**
+     * Finds the duplicates in the directory tree: the files with {@code .pdf} extension
+     * <p>An unreadable subdirectory doesn't stop the search, its error is reported in {@link Result#errors()}</p>
+     *
+     * @param root library root directory
+     * @return found candidates and file errors
+     * @throws IOException when the root is not a directory
+     * @throws InterruptedException when the search was interrupted
+     */
+    public Result find(Path root) throws IOException, InterruptedException {
+        if (!Files.isDirectory(root))
+            throw new IOException("Not a directory: " + root);
+        List<Path> files = new ArrayList<>();
+        Map<Path, Exception> walkErrors = new LinkedHashMap<>();
+        LibraryScanner.walk(root, f -> f.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".pdf"),
+                (path, error) -> {
+                    if (error == null) files.add(path);
+                    else walkErrors.put(path, error);
+                    return true;
+                });
+        Result result = find(files);
+        if (walkErrors.isEmpty()) return result;
+        walkErrors.putAll(result.errors());
+        return new Result(result.candidates(), walkErrors);
+    }
+
+    /**
+     * Finds the duplicates among the files
+     * <p>The identical files are reported once per group: the first file of the group is paired with every other
+     * file. The near duplicates are searched among the first files of the groups and the unique files</p>
+     *
+     * @param files PDF files
+     * @return found candidates and file errors
+     * @throws InterruptedException when the search was interrupted
+     */
+    public Result find(Collection<Path> files) throws InterruptedException {
+        Map<Path, Exception> errors = new LinkedHashMap<>();
+        Map<Long, List<Path>> bySize = new LinkedHashMap<>();
+        for (Path file : files) {
+            try {
+                bySize.computeIfAbsent(Files.size(file), s -> new ArrayList<>()).add(file);
+            } catch (IOException e) {
+                errors.put(file, e);
+            }
+        }
+
+        List<Path> sameSize = new ArrayList<>();
+        bySize.values().stream().filter(group -> group.size() > 1).forEach(sameSize::addAll);
+        Map<Path, ByteBuffer> hashes = run(sameSize, file -> ByteBuffer.wrap(ContentHash.sha256(file)), errors);
+        Map<ByteBuffer, List<Path>> byHash = new LinkedHashMap<>();
+        for (Path file : sameSize)
+            if (hashes.containsKey(file))
+                byHash.computeIfAbsent(hashes.get(file), h -> new ArrayList<>()).add(file);
+
+        List<Path> distinct = new ArrayList<>();
+        List<List<Path>> identical = new ArrayList<>();
+        for (List<Path> group : bySize.values()) {
+            if (group.size() == 1) distinct.add(group.getFirst());
+        }
+        for (List<Path> group : byHash.values()) {
+            distinct.add(group.getFirst());
+            if (group.size() > 1) identical.add(group);
+        }
+
+        Map<Path, Fingerprint> fingerprints = nearDuplicates
+                ? run(distinct, this::fingerprint, errors)
+                : Map.of();
+        List<Path> withoutFingerprint = identical.stream().flatMap(List::stream)
+                .filter(file -> !fingerprints.containsKey(file))
+                .toList();
+        Map<Path, Side> sides = new HashMap<>(run(withoutFingerprint, DuplicateFinder::side, errors));
+        fingerprints.forEach((file, fingerprint) -> sides.put(file, new Side(file, fingerprint.guid())));
+        List<Candidate> candidates = new ArrayList<>();
+        for (List<Path> group : identical) {
+            Side first = sides.getOrDefault(group.getFirst(), new Side(group.getFirst(), null));
+            for (Path other : group.subList(1, group.size()))
+                candidates.add(new Candidate(first, sides.getOrDefault(other, new Side(other, null)), Kind.IDENTICAL, 0));
+        }
+        if (nearDuplicates)
+            findSimilar(distinct, fingerprints, candidates);
+        return new Result(candidates, errors);
+    }
+
+    /**
+     * Compares the fingerprints of the same page count which have an equal page hash band
+     * <p>The {@code maxDistance + 1} bands split the 64 hash bits, so the hashes with at most {@code maxDistance}
+     * different bits have at least one equal band. The pair is compared in the first equal band only</p>
+     */
+    private void findSimilar(List<Path> files, Map<Path, Fingerprint> fingerprints, List<Candidate> candidates) {
+        Map<Integer, List<Path>> byPages = new LinkedHashMap<>();
+        for (Path file : files) {
+            Fingerprint fingerprint = fingerprints.get(file);
+            if (fingerprint != null)
+                byPages.computeIfAbsent(fingerprint.pageCount(), p -> new ArrayList<>()).add(file);
+        }
+        int bands = Math.min(maxDistance + 1, Long.SIZE);
+        for (List<Path> group : byPages.values()) {
+            long[][] keys = new long[group.size()][];
+            for (int i = 0; i < group.size(); i++)
+                keys[i] = bands(fingerprints.get(group.get(i)).pageHash(), bands);
+            for (int band = 0; band < bands; band++) {
+                Map<Long, List<Integer>> buckets = new HashMap<>();
+                for (int i = 0; i < group.size(); i++)
+                    buckets.computeIfAbsent(keys[i][band], k -> new ArrayList<>(2)).add(i);
+                for (List<Integer> bucket : buckets.values())
+                    for (int x = 0; x < bucket.size(); x++)
+                        for (int y = x + 1; y < bucket.size(); y++)
+                            compare(group, fingerprints, keys, band, bucket.get(x), bucket.get(y), candidates);
+            }
+        }
+    }
+
+    private void compare(List<Path> group, Map<Path, Fingerprint> fingerprints, long[][] keys, int band,
+                         int i, int j, List<Candidate> candidates) {
+        for (int earlier = 0; earlier < band; earlier++)
+            if (keys[i][earlier] == keys[j][earlier]) return;
+        Fingerprint a = fingerprints.get(group.get(i));
+        Fingerprint b = fingerprints.get(group.get(j));
+        int distance = a.distance(b);
+        if (distance <= maxDistance)
+            candidates.add(new Candidate(new Side(group.get(i), a.guid()), new Side(group.get(j), b.guid()),
+                    a.sameInfo(b) ? Kind.SIMILAR_SAME_INFO : Kind.SIMILAR, distance));
+    }
+
+    /**
+     * Splits the hash to the bands of the equal width, the first bands are one bit wider when 64 is not divisible
+     */
+    static long[] bands(long hash, int bands) {
+        long[] keys = new long[bands];
+        int start = 0;
+        for (int band = 0; band < bands; band++) {
+            int width = Long.SIZE / bands + (band < Long.SIZE % bands ? 1 : 0);
+            long mask = width == Long.SIZE ? -1L : (1L << width) - 1;
+            keys[band] = hash >>> start & mask;
+            start += width;
+        }
+        return keys;
+    }
+
+    private static Side side(Path file) throws IOException, PDFException {
+        BookRecord record = PDFFactory.readMetadataOnly(file).getBookRecord();
+        return new Side(file, record == null ? null : record.guid());
+    }
+
+    /**
+     * Calculates the fingerprint of the file
+     *
+     * @param file PDF file
+     * @return fingerprint
+     * @throws IOException document reading or rendering error
+     */
+    public Fingerprint fingerprint(Path file) throws IOException {
+        try (PDDocument document = loadOptions == null ? PDFFactory.read(file) : PDFFactory.read(file, loadOptions)) {
+            PDFBook book = new PDFBook(document);
+            PDFBook.PDFInfo info = book.getDocumentInfo();
+            UUID guid = null;
+            try {
+                BookRecord record = book.getBookRecord();
+                if (record != null) guid = record.guid();
+            } catch (PDFException ignored) {
+                // the book without the readable schema
+            }
+            int pageCount = document.getNumberOfPages();
+            long pageHash = pageCount == 0 ? 0L : pageHash(document);
+            return new Fingerprint(pageCount, pageHash, normalize(info.title()), normalize(info.author()), guid);
+        }
+    }
+
+    /**
+     * Difference hash of the first page: the page is rendered about {@value #RENDER_WIDTH} pixels wide,
+     * scaled to 9x8 gray pixels, every bit is the brightness comparison of the horizontal neighbours
+     */
+    private static long pageHash(PDDocument document) throws IOException {
+        PDRectangle box = document.getPage(0).getCropBox();
+        float scale = RENDER_WIDTH / Math.max(1f, Math.max(box.getWidth(), box.getHeight()));
+        PDFRenderer renderer = new PDFRenderer(document);
+        renderer.setSubsamplingAllowed(true);
+        BufferedImage page = renderer.renderImage(0, scale, ImageType.GRAY);
+        BufferedImage small = new BufferedImage(HASH_WIDTH, HASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = small.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(page, 0, 0, HASH_WIDTH, HASH_HEIGHT, null);
+        } finally {
+            g.dispose();
+        }
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++)
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                int left = small.getRaster().getSample(x, y, 0);
+                int right = small.getRaster().getSample(x + 1, y, 0);
+                hash = hash << 1 | (left > right ? 1 : 0);
+            }
+        return hash;
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) return null;
+        return value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Runs the file task for every file on the pool
+     *
+     * @return results of the successful files
+     */
+    private <T> Map<Path, T> run(List<Path> files, FileTask<T> task, Map<Path, Exception> errors)
+            throws InterruptedException {
+        List<Future<T>> futures = new ArrayList<>(files.size());
+        for (Path file : files)
+            futures.add(pool.submit(() -> task.apply(file)));
+        Map<Path, T> results = new HashMap<>();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    results.put(files.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    errors.put(files.get(i), e.getCause() instanceof Exception cause ? cause : e);
+                }
+            }
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Stops the finder pool
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface FileTask<T> {
+        T apply(Path file) throws IOException, PDFException;
+    }
+
+    /**
+     * Near duplicate fingerprint
+     *
+     * @param pageCount number of the document pages
+     * @param pageHash  difference hash of the first page
+     * @param title     normalized document information title | {@code null}
+     * @param author    normalized document information author | {@code null}
+     * @param guid      book schema GUID | {@code null}
+     */
+    public record Fingerprint(int pageCount, long pageHash, String title, String author, UUID guid) {
+
+        /**
+         * Gives the number of the different bits of the page hashes
+         *
+         * @param other other fingerprint
+         * @return Hamming distance
+         */
+        public int distance(Fingerprint other) {
+            return Long.bitCount(pageHash ^ other.pageHash);
+        }
+
+        /**
+         * Checks the document information: the title and author are equal and at least one is present
+         *
+         * @param other other fingerprint
+         * @return {@code true} if the document information matches
+         */
+        public boolean sameInfo(Fingerprint other) {
+            return (title != null || author != null)
+                    && Objects.equals(title, other.title) && Objects.equals(author, other.author);
+        }
+    }
+
+    /**
+     * Duplicate kind
+     */
+    public enum Kind {
+        /**
+         * Same file content
+         */
+        IDENTICAL,
+        /**
+         * Same page count, close first pages and same document information
+         */
+        SIMILAR_SAME_INFO,
+        /**
+         * Same page count and close first pages
+         */
+        SIMILAR
+    }
+
+    /**
+     * Candidate pair side
+     *
+     * @param path PDF file
+     * @param guid book schema GUID | {@code null}
+     */
+    public record Side(Path path, UUID guid) {
+    }
+
+    /**
+     * Duplicate candidate pair
+     *
+     * @param first    first file
+     * @param second   second file
+     * @param kind     duplicate kind
+     * @param distance page hashes distance, {@code 0} for the identical files
+     */
+    public record Candidate(Side first, Side second, Kind kind, int distance) {
+    }
+
+    /**
+     * Duplicates search result
+     *
+     * @param candidates duplicate candidate pairs
+     * @param errors     file reading errors
+     */
+    public record Result(List<Candidate> candidates, Map<Path, Exception> errors) {
+    }
+}
@@ -0,0 +1,292 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.AuthorStruct;
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookXMPSchema;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Library GUID integrity checker
+ * <p>The book summaries are read in parallel by {@link LibraryScanner}. The checker finds the books without GUID,
+ * the books with the same GUID, the authors without GUID and the authors with the same name and different GUIDs.
+ * The author names are compared case-insensitive with the collapsed spaces, the authors without name are
+ * not checked: they can't be matched with each other. The book GUIDs are kept in
+ * the primitive {@link UuidTable}</p>
+ * <p>The repair assigns the new GUIDs to the books without GUID and to the duplicate books except the first
+ * one by path. Every author name gets one GUID: the most used one, or a new one when the name has no GUID.
+ * The changes are written by {@link BatchMetadataWriter} in one batch</p>
+ */
+public class GuidChecker {
+    private final LibraryScanner scanner;
+    private Supplier<UUID> guidGenerator = UUID::randomUUID;
+
+    /**
+     * Creates the checker
+     *
+     * @param scanner library scanner, its cache is used when it's set
+     */
+    public GuidChecker(LibraryScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Creates the checker with the default scanner
+     */
+    public GuidChecker() {
+        this(new LibraryScanner());
+    }
+
+    /**
+     * Sets the new GUIDs generator. Default: {@link UUID#randomUUID()}
+     *
+     * @param guidGenerator GUID supplier
+     */
+    public void setGuidGenerator(Supplier<UUID> guidGenerator) {
+        this.guidGenerator = guidGenerator;
+    }
+
+    /**
+     * Checks the library directory tree
+     *
+     * @param root library root directory
+     * @return check report
+     * @throws IOException when the root is not a directory or the directory reading error
+     */
+    public Report check(Path root) throws IOException {
+        try (Stream<BookSummary> summaries = scanner.scan(root)) {
+            return check(summaries);
+        }
+    }
+
+    /**
+     * Checks the book summaries
+     *
+     * @param summaries book summaries, the failed summaries are reported as is
+     * @return check report
+     */
+    public Report check(Stream<BookSummary> summaries) {
+        List<Path> books = new ArrayList<>();
+        List<BookSummary> failed = new ArrayList<>();
+        List<Path> missing = new ArrayList<>();
+        UuidTable bookGuids = new UuidTable(1024);
+        Map<UUID, List<Path>> duplicates = new LinkedHashMap<>();
+        Map<String, AuthorUsage> authors = new HashMap<>();
+        summaries.forEach(summary -> {
+            if (summary.isFailed()) {
+                failed.add(summary);
+                return;
+            }
+            int id = books.size();
+            Path path = summary.path();
+            books.add(path);
+            BookRecord book = summary.book();
+            if (book == null || book.guid() == null) {
+                missing.add(path);
+            } else {
+                int first = bookGuids.putIfAbsent(book.guid(), id);
+                if (first >= 0)
+                    duplicates.computeIfAbsent(book.guid(), g -> new ArrayList<>(List.of(books.get(first)))).add(path);
+            }
+            if (book == null) return;
+            book.authors().forEach(a -> addAuthorUsage(authors, a, path));
+            for (BookRecord.Work work : book.works())
+                work.authors().forEach(a -> addAuthorUsage(authors, a, path));
+        });
+
+        List<Issue> issues = new ArrayList<>();
+        for (Path path : missing)
+            issues.add(new Issue(IssueType.MISSING_BOOK_GUID, List.of(path), null, List.of()));
+        duplicates.forEach((guid, paths) ->
+                issues.add(new Issue(IssueType.DUPLICATE_BOOK_GUID, sorted(paths), null, List.of(guid))));
+        new TreeMap<>(authors).forEach((name, usage) -> {
+            List<UUID> guids = usage.guidsByUse();
+            if (guids.size() > 1)
+                issues.add(new Issue(IssueType.AUTHOR_GUID_CONFLICT, usage.paths(), usage.name, guids));
+            if (!usage.missing.isEmpty())
+                issues.add(new Issue(IssueType.MISSING_AUTHOR_GUID, sorted(usage.missing), usage.name, guids));
+        });
+        return new Report(books.size(), issues, failed);
+    }
+
+    private static void addAuthorUsage(Map<String, AuthorUsage> authors, BookRecord.Author author, Path path) {
+        String name = author.name();
+        if (name == null || name.isBlank()) return;
+        authors.computeIfAbsent(normalize(name), n -> new AuthorUsage(name.strip())).add(author.guid(), path);
+    }
+
+    static String normalize(String name) {
+        return name.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Path> sorted(Collection<Path> paths) {
+        return paths.stream().sorted(Comparator.comparing(Path::toString)).toList();
+    }
+
+    /**
+     * Makes the edits which fix the report issues
+     *
+     * @param report check report
+     * @return edits by book path
+     */
+    public Map<Path, MetadataEdits> repairs(Report report) {
+        Map<Path, MetadataEdits> edits = new LinkedHashMap<>();
+        Map<String, UUID> authorGuids = new HashMap<>();
+        Set<Path> authorPaths = new LinkedHashSet<>();
+        for (Issue issue : report.issues()) {
+            switch (issue.type()) {
+                case MISSING_BOOK_GUID -> edits(edits, issue.paths().getFirst()).setGUID(guidGenerator.get());
+                case DUPLICATE_BOOK_GUID -> {
+                    for (Path path : issue.paths().subList(1, issue.paths().size()))
+                        edits(edits, path).setGUID(guidGenerator.get());
+                }
+                case AUTHOR_GUID_CONFLICT, MISSING_AUTHOR_GUID -> {
+                    if (issue.authorName() == null || issue.authorName().isBlank()) continue;
+                    authorGuids.computeIfAbsent(normalize(issue.authorName()),
+                            n -> issue.guids().isEmpty() ? guidGenerator.get() : issue.guids().getFirst());
+                    authorPaths.addAll(issue.paths());
+                }
+            }
+        }
+        Map<String, UUID> mapping = Map.copyOf(authorGuids);
+        for (Path path : authorPaths)
+            edits(edits, path).edit(schema -> setAuthorGuids(schema, mapping));
+        return edits;
+    }
+
+    /**
+     * Writes the repairs in one batch
+     *
+     * @param report check report
+     * @param writer batch writer
+     * @return batch report
+     */
+    public BatchMetadataWriter.Report repair(Report report, BatchMetadataWriter writer) {
+        return writer.write(repairs(report));
+    }
+
+    private static MetadataEdits edits(Map<Path, MetadataEdits> edits, Path path) {
+        return edits.computeIfAbsent(path, p -> new MetadataEdits());
+    }
+
+    private static void setAuthorGuids(BookXMPSchema schema, Map<String, UUID> guids) {
+        schema.forEachAuthor(author -> setAuthorGuid(author, guids));
+        schema.forEachWork(work -> work.forEachAuthor(author -> setAuthorGuid(author, guids)));
+    }
+
+    private static void setAuthorGuid(AuthorStruct author, Map<String, UUID> guids) {
+        String name = author.getName();
+        if (name == null || name.isBlank()) return;
+        UUID guid = guids.get(normalize(name));
+        if (guid != null && !guid.equals(author.getGUID().orElse(null)))
+            author.setGUID(guid);
+    }
+
+    /**
+     * Author name usage: the paths by GUID and the paths without GUID
+     */
+    private static class AuthorUsage {
+        final String name;
+        final Map<UUID, Set<Path>> byGuid = new LinkedHashMap<>(2);
+        final Set<Path> missing = new LinkedHashSet<>();
+
+        AuthorUsage(String name) {
+            this.name = name;
+        }
+
+        void add(UUID guid, Path path) {
+            if (guid == null) missing.add(path);
+            else byGuid.computeIfAbsent(guid, g -> new LinkedHashSet<>()).add(path);
+        }
+
+        /**
+         * Gives the GUIDs from the most used one
+         */
+        List<UUID> guidsByUse() {
+            return byGuid.entrySet().stream()
+                    .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        /**
+         * Gives the paths with not the most used GUID
+         */
+        List<Path> paths() {
+            Set<Path> paths = new LinkedHashSet<>();
+            List<UUID> guids = guidsByUse();
+            for (UUID guid : guids.subList(1, guids.size()))
+                paths.addAll(byGuid.get(guid));
+            return sorted(paths);
+        }
+    }
+
+    /**
+     * Issue type
+     */
+    public enum IssueType {
+        /**
+         * The book has no GUID or no book schema
+         */
+        MISSING_BOOK_GUID,
+        /**
+         * The books have the same GUID
+         */
+        DUPLICATE_BOOK_GUID,
+        /**
+         * The authors with the same name have no GUID
+         */
+        MISSING_AUTHOR_GUID,
+        /**
+         * The authors with the same name have different GUIDs
+         */
+        AUTHOR_GUID_CONFLICT
+    }
+
+    /**
+     * Found issue
+     *
+     * @param type       issue type
+     * @param paths      books of the issue: sorted by path, for {@link IssueType#AUTHOR_GUID_CONFLICT} - the books
+     *                   with not the most used GUID
+     * @param authorName author name | {@code null} for the book issues
+     * @param guids      duplicate book GUID, or author GUIDs from the most used one | empty list
+     */
+    public record Issue(IssueType type, List<Path> paths, String authorName, List<UUID> guids) {
+    }
+
+    /**
+     * Check report
+     *
+     * @param books  number of the checked books
+     * @param issues found issues
+     * @param failed summaries of the books which were not read
+     */
+    public record Report(int books, List<Issue> issues, List<BookSummary> failed) {
+
+        /**
+         * Gives the issues of the type
+         *
+         * @param type issue type
+         * @return issues list
+         */
+        public List<Issue> issues(IssueType type) {
+            return issues.stream().filter(i -> i.type() == type).toList();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jisj.pdf;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream which skips the specified number of leading bytes and counts the bytes written
+ */
+class IncrementOutputStream extends FilterOutputStream {
+    private long skip;
+    private long written;
+
+    /**
+     * Creates the stream
+     *
+     * @param out  target stream
+     * @param skip number of leading bytes to skip
+     */
+    IncrementOutputStream(OutputStream out, long skip) {
+        super(out);
+        this.skip = skip;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (skip > 0) {
+            skip--;
+            return;
+        }
+        out.write(b);
+        written++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (skip > 0) {
+            int skipped = (int) Math.min(skip, len);
+            skip -= skipped;
+            off += skipped;
+            len -= skipped;
+        }
+        if (len > 0) {
+            out.write(b, off, len);
+            written += len;
+        }
+    }
+
+    /**
+     * Gives the number of bytes written to the target stream
+     *
+     * @return bytes count
+     */
+    long getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,332 @@
+package com.jisj.pdf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parallel library directory scanner
+ * <p>The files are read on virtual threads. The number of documents open at once is limited
+ * by {@link #getMaxOpenDocuments()}, and the number of summaries waiting for the consumer is limited
+ * by {@link #getQueueCapacity()}: when the consumer is slow the workers and the directory walker wait</p>
+ */
+public class LibraryScanner {
+    private final int maxOpenDocuments;
+    private int queueCapacity;
+    private Predicate<Path> fileFilter = LibraryScanner::isPDF;
+    private BookCache cache;
+
+    /**
+     * Creates the scanner
+     *
+     * @param maxOpenDocuments maximum number of documents open at once
+     * @throws IllegalArgumentException when {@code maxOpenDocuments < 1}
+     */
+    public LibraryScanner(int maxOpenDocuments) {
+        if (maxOpenDocuments < 1)
+            throw new IllegalArgumentException("Unexpected maxOpenDocuments value = " + maxOpenDocuments);
+        this.maxOpenDocuments = maxOpenDocuments;
+        this.queueCapacity = maxOpenDocuments * 2;
+    }
+
+    /**
+     * Creates the scanner with {@code maxOpenDocuments} equals the available processors count
+     */
+    public LibraryScanner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Gives the maximum number of documents open at once
+     *
+     * @return documents count
+     */
+    public int getMaxOpenDocuments() {
+        return maxOpenDocuments;
+    }
+
+    /**
+     * Gives the maximum number of summaries waiting for the consumer
+     *
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sets the maximum number of summaries waiting for the consumer
+     *
+     * @param queueCapacity queue capacity
+     * @throws IllegalArgumentException when {@code queueCapacity < 1}
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("Unexpected queueCapacity value = " + queueCapacity);
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Sets the file filter. Default: files with {@code .pdf} extension
+     *
+     * @param fileFilter file path predicate
+     */
+    public void setFileFilter(Predicate<Path> fileFilter) {
+        this.fileFilter = fileFilter;
+    }
+
+    /**
+     * Sets the summary cache
+     * <p>The unchanged files found in the cache are not opened. The summaries of the new and changed files
+     * are put to the cache. Save the cache after the scanning with {@link BookCache#save(Path)}</p>
+     *
+     * @param cache summary cache | {@code null}
+     */
+    public void setCache(BookCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gives the summary cache
+     *
+     * @return summary cache | {@code null}
+     */
+    public BookCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Scans the directory tree
+     * <p>The files are summarized in the completion order. A file reading error doesn't stop the scanning:
+     * the summary with {@link BookSummary#error()} is produced instead. An unreadable subdirectory is skipped
+     * the same way, its summary has the directory path and the error. The stream should be closed
+     * when it isn't consumed to the end</p>
+     *
+     * @param root library root directory
+     * @return stream of book summaries
+     * @throws IOException when the root is not a directory
+     */
+    public Stream<BookSummary> scan(Path root) throws IOException {
+        if (!Files.isDirectory(root))
+            throw new IOException("Not a directory: " + root);
+        Scan scan = new Scan(root);
+        scan.start();
+        return StreamSupport.stream(scan, false).onClose(scan::close);
+    }
+
+    /**
+     * Reads the book summary of the file
+     *
+     * @param file path to file
+     * @return summary | summary with the error
+     */
+    public static BookSummary summarize(Path file) {
+        long size = 0L;
+        long lastModified = 0L;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            size = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+            PDFMetadata metadata = PDFFactory.readMetadataOnly(file);
+            return new BookSummary(file, size, lastModified, metadata.language(), metadata.info(),
+                    metadata.getBookRecord(), null);
+        } catch (Exception e) {
+            return new BookSummary(file, size, lastModified, null, null, null, e);
+        }
+    }
+
+    /**
+     * Walks the directory tree. An unreadable file or directory doesn't stop the walking, it's passed
+     * to the visitor with the error
+     *
+     * @param root    root directory
+     * @param filter  regular files filter
+     * @param visitor receiver of the accepted files and the errors
+     * @return {@code true} if the tree was walked to the end | {@code false} when the visitor stopped the walking
+     * @throws IOException          visitor error
+     * @throws InterruptedException when the visitor was interrupted
+     */
+    static boolean walk(Path root, Predicate<Path> filter, PathVisitor visitor) throws IOException, InterruptedException {
+        boolean[] stopped = {false};
+        InterruptedException[] interrupted = {null};
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!Files.isRegularFile(file) || !filter.test(file)) return FileVisitResult.CONTINUE;
+                return visit(file, null);
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return visit(file, exc);
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                return exc == null ? FileVisitResult.CONTINUE : visit(dir, exc);
+            }
+
+            private FileVisitResult visit(Path path, IOException error) {
+                try {
+                    if (visitor.visit(path, error)) return FileVisitResult.CONTINUE;
+                } catch (InterruptedException e) {
+                    interrupted[0] = e;
+                }
+                stopped[0] = true;
+                return FileVisitResult.TERMINATE;
+            }
+        });
+        if (interrupted[0] != null) throw interrupted[0];
+        return !stopped[0];
+    }
+
+    /**
+     * Receiver of the walked files
+     */
+    @FunctionalInterface
+    interface PathVisitor {
+        /**
+         * Receives the file or the error
+         *
+         * @param path  file path, or the unreadable file or directory path
+         * @param error file or directory reading error | {@code null} for the accepted file
+         * @return {@code true} - continue the walking
+         * @throws InterruptedException when the walking was interrupted
+         */
+        boolean visit(Path path, IOException error) throws InterruptedException;
+    }
+
+    private static boolean isPDF(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".pdf");
+    }
+
+    private class Scan extends Spliterators.AbstractSpliterator<BookSummary> {
+        private static final Object END = new Object();
+        private final Path root;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Semaphore openDocuments = new Semaphore(maxOpenDocuments);
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private volatile boolean closed;
+        private boolean finished;
+
+        Scan(Path root) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.root = root;
+        }
+
+        void start() {
+            executor.execute(this::walk);
+        }
+
+        private void walk() {
+            try {
+                boolean completed;
+                try {
+                    completed = LibraryScanner.walk(root, fileFilter, this::visit);
+                } catch (IOException e) {
+                    queue.put(new UncheckedIOException(e));
+                    completed = true;
+                }
+                if (!completed) return;
+                openDocuments.acquire(maxOpenDocuments);
+                queue.put(END);
+            } catch (InterruptedException | RejectedExecutionException ignored) {
+                // the scan was closed
+            }
+        }
+
+        /**
+         * Submits the file, the unreadable file or directory is reported by the failed summary
+         */
+        private boolean visit(Path path, IOException error) throws InterruptedException {
+            if (closed) return false;
+            if (error != null) {
+                queue.put(new BookSummary(path, 0L, 0L, null, null, null, error));
+                return true;
+            }
+            BookSummary cached = cached(path);
+            if (cached != null) {
+                queue.put(cached);
+                return true;
+            }
+            openDocuments.acquire();
+            executor.execute(() -> {
+                try {
+                    queue.put(cache(summarize(path)));
+                } catch (InterruptedException ignored) {
+                    // the scan was closed
+                } finally {
+                    openDocuments.release();
+                }
+            });
+            return true;
+        }
+
+        private BookSummary cached(Path file) {
+            if (cache == null) return null;
+            try {
+                return cache.get(file);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private BookSummary cache(BookSummary summary) {
+            if (cache != null) {
+                try {
+                    cache.put(summary);
+                } catch (IOException ignored) {
+                    // the summary is not cached, the file will be read on the next scanning
+                }
+            }
+            return summary;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super BookSummary> action) {
+            if (finished) return false;
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                return false;
+            }
+            if (item == END) {
+                finished = true;
+                executor.shutdown();
+                return false;
+            }
+            if (item instanceof UncheckedIOException e) {
+                close();
+                throw e;
+            }
+            action.accept((BookSummary) item);
+            return true;
+        }
+
+        void close() {
+            closed = true;
+            finished = true;
+            executor.shutdownNow();
+            queue.clear();
+        }
+    }
+}
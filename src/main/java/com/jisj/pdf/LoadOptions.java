@@ -0,0 +1,138 @@
+package com.jisj.pdf;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+
+import java.nio.file.Path;
+
+/**
+ * Memory and stream cache policy for the PDF document loading
+ * <p>The options object is reusable: every loaded document gets its own stream cache</p>
+ */
+public class LoadOptions {
+    private final MemoryUsageSetting setting;
+    private Path tempDir;
+
+    private LoadOptions(MemoryUsageSetting setting) {
+        this.setting = setting;
+    }
+
+    /**
+     * PDFBox default policy: unrestricted main memory stream cache
+     *
+     * @return new options object
+     */
+    public static LoadOptions defaults() {
+        return new LoadOptions(MemoryUsageSetting.setupMainMemoryOnly());
+    }
+
+    /**
+     * Main memory only stream cache with the heap limit
+     *
+     * @param maxHeapBytes maximum heap bytes per document
+     * @return new options object
+     */
+    public static LoadOptions heapOnly(long maxHeapBytes) {
+        return new LoadOptions(MemoryUsageSetting.setupMainMemoryOnly(maxHeapBytes));
+    }
+
+    /**
+     * Temporary file only stream cache
+     *
+     * @return new options object
+     */
+    public static LoadOptions tempFileOnly() {
+        return new LoadOptions(MemoryUsageSetting.setupTempFileOnly());
+    }
+
+    /**
+     * Temporary file only stream cache with the storage limit
+     *
+     * @param maxStorageBytes maximum temporary file bytes per document
+     * @return new options object
+     */
+    public static LoadOptions tempFileOnly(long maxStorageBytes) {
+        return new LoadOptions(MemoryUsageSetting.setupTempFileOnly(maxStorageBytes));
+    }
+
+    /**
+     * Mixed stream cache: main memory up to the budget, then temporary file
+     *
+     * @param maxMainMemoryBytes maximum main memory bytes per document
+     * @return new options object
+     */
+    public static LoadOptions mixed(long maxMainMemoryBytes) {
+        return new LoadOptions(MemoryUsageSetting.setupMixed(maxMainMemoryBytes));
+    }
+
+    /**
+     * Mixed stream cache: main memory up to the budget, then temporary file up to the storage limit
+     *
+     * @param maxMainMemoryBytes maximum main memory bytes per document
+     * @param maxStorageBytes    maximum main memory and temporary file bytes per document
+     * @return new options object
+     */
+    public static LoadOptions mixed(long maxMainMemoryBytes, long maxStorageBytes) {
+        return new LoadOptions(MemoryUsageSetting.setupMixed(maxMainMemoryBytes, maxStorageBytes));
+    }
+
+    /**
+     * Sets the scratch directory for temporary files
+     *
+     * @param tempDir directory path | {@code null} for the system temporary directory
+     * @return this object
+     */
+    public LoadOptions setTempDir(Path tempDir) {
+        this.tempDir = tempDir;
+        setting.setTempDir(tempDir == null ? null : tempDir.toFile());
+        return this;
+    }
+
+    /**
+     * Gives the scratch directory
+     *
+     * @return directory path | {@code null} for the system temporary directory
+     */
+    public Path getTempDir() {
+        return tempDir;
+    }
+
+    /**
+     * Gives the PDFBox memory usage setting
+     *
+     * @return setting object
+     */
+    public MemoryUsageSetting getMemoryUsageSetting() {
+        return setting;
+    }
+
+    /**
+     * Creates the stream cache for one document
+     *
+     * @return stream cache monitor
+     */
+    StreamCacheMonitor newStreamCache() {
+        return new StreamCacheMonitor(setting);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadOptions{" + setting + '}';
+    }
+
+    /**
+     * Stream cache bytes of the loaded document
+     *
+     * @param heapBytes    bytes kept in the main memory
+     * @param offHeapBytes bytes kept in the temporary file
+     */
+    public record MemoryUsage(long heapBytes, long offHeapBytes) {
+        /**
+         * Gives the total stream cache bytes
+         *
+         * @return heap and off-heap bytes sum
+         */
+        public long totalBytes() {
+            return heapBytes + offHeapBytes;
+        }
+    }
+}
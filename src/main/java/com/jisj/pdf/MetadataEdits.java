@@ -0,0 +1,129 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookXMPSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set of metadata edits applied to the books
+ * <p>The edits are applied in the order they were added. The full metadata replacement is applied first</p>
+ */
+public class MetadataEdits {
+    private XMPMeta metadata;
+    private final List<Consumer<BookXMPSchema>> edits = new ArrayList<>();
+
+    /**
+     * Replaces the whole metadata of the book
+     *
+     * @param metadata metadata object. The object is copied for each book
+     * @return this object
+     */
+    public MetadataEdits setMetadata(XMPMeta metadata) {
+        this.metadata = metadata;
+        return this;
+    }
+
+    /**
+     * Sets the book title
+     *
+     * @param title book title
+     * @param lang  book title language
+     * @return this object
+     */
+    public MetadataEdits setTitle(String title, String lang) {
+        return edit(bs -> bs.setTitle(title, lang));
+    }
+
+    /**
+     * Sets the book GUID
+     *
+     * @param uuid identifier value
+     * @return this object
+     */
+    public MetadataEdits setGUID(UUID uuid) {
+        return edit(bs -> bs.setGUID(uuid));
+    }
+
+    /**
+     * Sets the preferred shelf
+     *
+     * @param shelf shelf value
+     * @return this object
+     */
+    public MetadataEdits setPreferredShelf(String shelf) {
+        return edit(bs -> bs.setPreferredShelf(shelf));
+    }
+
+    /**
+     * Replaces the book genres
+     *
+     * @param genres genre list
+     * @return this object
+     */
+    public MetadataEdits setGenres(List<String> genres) {
+        List<String> values = List.copyOf(genres);
+        return edit(bs -> bs.setGenres(values));
+    }
+
+    /**
+     * Replaces the book authors
+     *
+     * @param authors author list
+     * @return this object
+     */
+    public MetadataEdits setAuthors(List<BookRecord.Author> authors) {
+        List<BookRecord.Author> values = List.copyOf(authors);
+        return edit(bs -> bs.setAuthors(values));
+    }
+
+    /**
+     * Replaces the book works
+     *
+     * @param works work list
+     * @return this object
+     */
+    public MetadataEdits setWorks(List<BookRecord.Work> works) {
+        List<BookRecord.Work> values = List.copyOf(works);
+        return edit(bs -> bs.setWorks(values));
+    }
+
+    /**
+     * Adds the custom edit of the book schema
+     *
+     * @param edit schema modifier
+     * @return this object
+     */
+    public MetadataEdits edit(Consumer<BookXMPSchema> edit) {
+        edits.add(edit);
+        return this;
+    }
+
+    /**
+     * Applies the edits to the book metadata
+     *
+     * @param book PDF book
+     * @return {@code true} if the metadata were changed and set to the book
+     * @throws PDFException metadata reading or writing error
+     */
+    public boolean applyTo(PDFBook book) throws PDFException {
+        XMPMeta current = book.getMetadata();
+        String before = current == null ? "" : current.dumpObject();
+        XMPMeta target = metadata != null ? (XMPMeta) metadata.clone()
+                : current != null ? (XMPMeta) current.clone()
+                : XMPMetaFactory.create();
+        if (!edits.isEmpty()) {
+            BookXMPSchema schema = new BookXMPSchema(target);
+            edits.forEach(e -> e.accept(schema));
+        }
+        if (before.equals(target.dumpObject()))
+            return false;
+        book.setMetadata(target);
+        return true;
+    }
+}
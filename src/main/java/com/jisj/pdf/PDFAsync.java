@@ -0,0 +1,192 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.jisj.pdf.xmp.BookXMPSchema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous facade of {@link PDFFactory} and {@link PDFBook}
+ * <p>The methods return at once, the work is done on two executors: the file reading and writing on
+ * the I/O executor, the metadata parsing and serialization on the CPU executor. So the slow disk doesn't
+ * occupy the CPU threads and the parsing doesn't wait behind the file operations. The futures are completed
+ * exceptionally with {@link CompletionException} which wraps the checked exception of the synchronous method</p>
+ * <p>{@code PDFBook} is not thread-safe: the operations on the same book must be chained, not run at once</p>
+ */
+public class PDFAsync implements Closeable {
+    private final Executor ioExecutor;
+    private final Executor cpuExecutor;
+    private final boolean ownExecutors;
+
+    /**
+     * Creates the facade over the caller executors. The executors are not shut down by {@link #close()}
+     *
+     * @param ioExecutor  executor of the file reading and writing
+     * @param cpuExecutor executor of the metadata parsing and serialization
+     * @throws IllegalArgumentException when an executor is {@code null}
+     */
+    public PDFAsync(Executor ioExecutor, Executor cpuExecutor) {
+        this(ioExecutor, cpuExecutor, false);
+    }
+
+    /**
+     * Creates the facade with the built-in pools: I/O pool of {@code 2 * processors} threads
+     * and CPU pool of {@code processors} threads
+     */
+    public PDFAsync() {
+        this(Executors.newFixedThreadPool(2 * Runtime.getRuntime().availableProcessors()),
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    private PDFAsync(Executor ioExecutor, Executor cpuExecutor, boolean ownExecutors) {
+        if (ioExecutor == null)
+            throw new IllegalArgumentException("Unexpected ioExecutor value = null");
+        if (cpuExecutor == null)
+            throw new IllegalArgumentException("Unexpected cpuExecutor value = null");
+        this.ioExecutor = ioExecutor;
+        this.cpuExecutor = cpuExecutor;
+        this.ownExecutors = ownExecutors;
+    }
+
+    /**
+     * Reads the book on the I/O executor, see {@link PDFFactory#readPDF(Path)}
+     *
+     * @param pdfFile path to file
+     * @return future of the book object
+     */
+    public CompletableFuture<PDFBook> readPDF(Path pdfFile) {
+        return supply(() -> PDFFactory.readPDF(pdfFile), ioExecutor);
+    }
+
+    /**
+     * Reads the book with the specified memory policy on the I/O executor,
+     * see {@link PDFFactory#readPDF(Path, LoadOptions)}
+     *
+     * @param pdfFile path to file
+     * @param options memory and stream cache options
+     * @return future of the book object
+     */
+    public CompletableFuture<PDFBook> readPDF(Path pdfFile, LoadOptions options) {
+        return supply(() -> PDFFactory.readPDF(pdfFile, options), ioExecutor);
+    }
+
+    /**
+     * Parses the book schema on the CPU executor, see {@link PDFBook#getBookXMPSchema()}
+     *
+     * @param book PDF book
+     * @return future of the schema object | future of {@code null} when the metadata are encrypted
+     */
+    public CompletableFuture<BookXMPSchema> getBookXMPSchema(PDFBook book) {
+        return supply(book::getBookXMPSchema, cpuExecutor);
+    }
+
+    /**
+     * Replaces the book metadata and serializes them to the document on the CPU executor,
+     * see {@link PDFBook#setMetadata(XMPMeta)}. The next saving
+     * only writes the document
+     *
+     * @param book     PDF book
+     * @param metadata metadata object
+     * @return future of the operation end
+     */
+    public CompletableFuture<Void> setMetadata(PDFBook book, XMPMeta metadata) {
+        return supply(() -> {
+            book.setMetadata(metadata);
+            return null;
+        }, cpuExecutor);
+    }
+
+    /**
+     * Saves the book to the file on the I/O executor, see {@link PDFBook#saveAs(Path)}
+     *
+     * @param book     PDF book
+     * @param fileName target file
+     * @return future of the operation end
+     */
+    public CompletableFuture<Void> saveAs(PDFBook book, Path fileName) {
+        return supply(() -> {
+            book.saveAs(fileName);
+            return null;
+        }, ioExecutor);
+    }
+
+    /**
+     * Closes the book on the I/O executor
+     *
+     * @param book PDF book
+     * @return future of the operation end
+     */
+    public CompletableFuture<Void> close(PDFBook book) {
+        return supply(() -> {
+            book.close();
+            return null;
+        }, ioExecutor);
+    }
+
+    /**
+     * Edits the book schema of the file: the book is read and saved on the I/O executor, the schema is parsed,
+     * edited and serialized on the CPU executor. The book is closed at the end
+     *
+     * @param source source file
+     * @param target target file, not the source one: the source is read while the target is written
+     * @param edit   schema changes
+     * @return future of the operation end
+     */
+    public CompletableFuture<Void> updateBookXMPSchema(Path source, Path target, Consumer<BookXMPSchema> edit) {
+        return readPDF(source).thenCompose(book -> supply(() -> {
+                    XMPMeta metadata = book.getMetadata();
+                    if (metadata == null)
+                        metadata = XMPMetaFactory.create();
+                    edit.accept(new BookXMPSchema(metadata));
+                    book.setMetadata(metadata);
+                    return null;
+                }, cpuExecutor)
+                .thenCompose(v -> saveAs(book, target))
+                .handle((v, e) -> {
+                    try {
+                        book.close();
+                    } catch (IOException closeError) {
+                        if (e == null) throw new CompletionException(closeError);
+                    }
+                    if (e != null) throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                    return null;
+                }));
+    }
+
+    /**
+     * Shuts down the built-in pools. The caller executors are not shut down
+     */
+    @Override
+    public void close() {
+        if (!ownExecutors) return;
+        ((ExecutorService) ioExecutor).shutdown();
+        ((ExecutorService) cpuExecutor).shutdown();
+    }
+
+    private static <T> CompletableFuture<T> supply(Task<T> task, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (IOException | PDFException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Synchronous method call
+     */
+    @FunctionalInterface
+    private interface Task<T> {
+        T call() throws IOException, PDFException;
+    }
+}
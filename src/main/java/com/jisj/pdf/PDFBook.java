@@ -3,7 +3,12 @@ package com.jisj.pdf;
 import com.adobe.internal.xmp.XMPException;
 import com.adobe.internal.xmp.XMPMeta;
 import com.adobe.internal.xmp.XMPMetaFactory;
+import com.adobe.internal.xmp.XMPUtils;
+import com.adobe.internal.xmp.options.IteratorOptions;
 import com.adobe.internal.xmp.options.SerializeOptions;
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookRecordDecoder;
+import com.jisj.pdf.xmp.BookRecordWriter;
 import com.jisj.pdf.xmp.BookXMPSchema;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
@@ -11,9 +16,15 @@ import org.apache.pdfbox.pdmodel.common.PDMetadata;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -21,8 +32,20 @@ import java.util.stream.Collectors;
  * PDF file wrapper
  */
 public class PDFBook implements Closeable {
+    private static final ThreadLocal<BookRecordWriter> RECORD_WRITER = ThreadLocal.withInitial(BookRecordWriter::new);
+
     private final PDDocument pdfDocument;
     private Path bookPath;
+    private StreamCacheMonitor streamCache;
+    private long sourceLength = -1L;
+    private boolean appended;
+    private XMPMeta metadataCache;
+    private BookXMPSchema schemaCache;
+    private boolean metadataLoaded;
+    private boolean metadataDirty;
+    private boolean counted;
+    private boolean metadataDecrypted;
+    private byte[] otherSchemas;
 
     public PDFBook(PDDocument pdfDocument) {
         this.pdfDocument = pdfDocument;
@@ -34,23 +57,50 @@ public class PDFBook implements Closeable {
 
     /**
      * Gives PDF document metadata
+     * <p>The metadata are parsed once and cached. The returned object is shared: its changes are saved
+     * to the document after {@link #setMetadata(XMPMeta)} call</p>
      *
-     * @return metadata object | {@code null} when the PDF is encrypted
+     * @return metadata object | {@code null} when the document has no metadata
      * @throws PDFException when document reading error, document metadata is encrypted or when metadata parsing error
      */
     public XMPMeta getMetadata() throws PDFException {
         if (isMetaDataEncrypted())
             throw new PDFEncryptedMetadata();
+        if (!metadataLoaded) {
+            PDFMetrics metrics = PDFMetrics.get();
+            metadataCache = metrics.measure(PDFMetrics.PARSE, metrics.getParseLatency(), this::readMetadata);
+            metadataLoaded = true;
+        }
+        return metadataCache;
+    }
+
+    private XMPMeta readMetadata() throws PDFException {
         PDMetadata metadata = pdfDocument.getDocumentCatalog().getMetadata();
         if (metadata == null) return null;
+        PDFEvents.MetadataParse event = new PDFEvents.MetadataParse();
+        event.begin();
+        XMPMeta result = null;
+        long packetSize = 0;
         try {
-            return XMPMetaFactory.parseFromBuffer(metadata.toByteArray());
+            byte[] packet = metadata.toByteArray();
+            packetSize = packet.length;
+            result = XMPMetaFactory.parseFromBuffer(packet);
+            return result;
         } catch (IOException e) {
             if (e.getMessage().equalsIgnoreCase("Create InputStream called without data being written before to stream."))
                 throw new PDFException("PDF file is closed");
             throw new RuntimeException(e);
         } catch (XMPException e) {
             throw new PDFException("Metadata parsing error", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = pathName();
+                event.packetSize = packetSize;
+                event.authors = PDFEvents.count(result, BookXMPSchema.AUTHORS);
+                event.works = PDFEvents.count(result, BookXMPSchema.WORKS);
+                event.commit();
+            }
         }
     }
 
@@ -74,45 +124,188 @@ public class PDFBook implements Closeable {
 
     /**
      * Replace the metadata in the document
+     * <p>The metadata are serialized to the document metadata stream at once, the object is kept as the parsed
+     * metadata of the book</p>
      *
      * @param metadata metadata object
-     * @throws PDFException         metadata serialization error, metadata read/write error
      * @throws PDFEncryptedMetadata when the metadata are encrypted
+     * @throws PDFException         metadata serialization error, metadata read/write error
      */
     public void setMetadata(XMPMeta metadata) throws PDFException {
         if (isMetaDataEncrypted())
             throw new PDFEncryptedMetadata();
+        if (metadata != metadataCache)
+            schemaCache = null;
+        // the same object may be changed in place: the other schemas are serialized again
+        otherSchemas = null;
+        metadataCache = metadata;
+        metadataLoaded = true;
+        metadataDirty = true;
+        flushMetadata();
+    }
+
+    /**
+     * Checks the metadata changes which are not serialized to the document yet
+     *
+     * @return {@code true} if the serialization of the set metadata failed
+     */
+    public boolean isMetadataDirty() {
+        return metadataDirty;
+    }
+
+    /**
+     * Serializes the set metadata to the document metadata stream again when their serialization failed
+     * <p>The method is called on saving</p>
+     *
+     * @throws PDFException metadata serialization error, metadata read/write error
+     */
+    public void flushMetadata() throws PDFException {
+        if (!metadataDirty) return;
+        PDFEvents.MetadataSerialize event = new PDFEvents.MetadataSerialize();
+        event.begin();
+        long packetSize = 0;
         try {
-            pdfDocument.getDocumentCatalog()
-                    .getMetadata()
-                    .importXMPMetadata(XMPMetaFactory
-                            .serializeToBuffer(metadata, new SerializeOptions(SerializeOptions.ENCODE_UTF8)));
+            byte[] packet = XMPMetaFactory
+                    .serializeToBuffer(metadataCache, new SerializeOptions(SerializeOptions.ENCODE_UTF8));
+            packetSize = packet.length;
+            metadataStream().importXMPMetadata(packet);
+            metadataDirty = false;
+        } catch (IOException e) {
+            throw new PDFException("Metadata saving error", e);
+        } catch (XMPException e) {
+            throw new PDFException("Metadata serialization error", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = pathName();
+                event.packetSize = packetSize;
+                event.authors = PDFEvents.count(metadataCache, BookXMPSchema.AUTHORS);
+                event.works = PDFEvents.count(metadataCache, BookXMPSchema.WORKS);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Replaces the book schema in the document metadata
+     * <p>The alternative serialization path to {@link #setMetadata(XMPMeta)}: the record is written by
+     * {@link BookRecordWriter} directly to the document metadata stream without {@code XMPMeta} serialization.
+     * The other schemas of the current metadata are kept: they are serialized once and reused by the next calls.
+     * The cached metadata object is dropped, {@link #getMetadata()} parses the written packet</p>
+     * <p>The {@code rdf:about} value of the other schemas is reset to the empty string</p>
+     *
+     * @param record book record
+     * @throws PDFException when the metadata are encrypted, metadata parsing or writing error
+     */
+    public void setBookRecord(BookRecord record) throws PDFException {
+        if (isMetaDataEncrypted())
+            throw new PDFEncryptedMetadata();
+        if (otherSchemas == null)
+            otherSchemas = serializeOtherSchemas(getMetadata());
+        PDFEvents.MetadataSerialize event = new PDFEvents.MetadataSerialize();
+        event.begin();
+        BookRecordWriter writer = RECORD_WRITER.get().write(record, otherSchemas);
+        try (OutputStream os = metadataStream().createOutputStream()) {
+            writer.writeTo(os);
         } catch (IOException e) {
             throw new PDFException("Metadata saving error", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = pathName();
+                event.packetSize = writer.size();
+                event.authors = record.authors().size();
+                event.works = record.works().size();
+                event.recordWriter = true;
+                event.commit();
+            }
+        }
+        metadataCache = null;
+        schemaCache = null;
+        metadataLoaded = false;
+        metadataDirty = false;
+    }
+
+    /**
+     * Serializes the metadata schemas except the book schema
+     *
+     * @return {@code rdf:Description} elements | empty array when there are no other schemas
+     */
+    private static byte[] serializeOtherSchemas(XMPMeta metadata) throws PDFException {
+        if (metadata == null) return new byte[0];
+        try {
+            XMPMeta others = (XMPMeta) metadata.clone();
+            XMPUtils.removeProperties(others, BookXMPSchema.NS, null, true, true);
+            if (!others.iterator(new IteratorOptions().setJustChildren(true)).hasNext())
+                return new byte[0];
+            others.setObjectName("");
+            String rdf = XMPMetaFactory.serializeToString(others,
+                    new SerializeOptions().setOmitPacketWrapper(true).setOmitXmpMetaElement(true));
+            return rdf.substring(rdf.indexOf("<rdf:Description"), rdf.lastIndexOf("</rdf:RDF>"))
+                    .getBytes(StandardCharsets.UTF_8);
         } catch (XMPException e) {
             throw new PDFException("Metadata serialization error", e);
         }
     }
 
+    private PDMetadata metadataStream() {
+        PDMetadata pdMetadata = pdfDocument.getDocumentCatalog().getMetadata();
+        if (pdMetadata == null) {
+            pdMetadata = new PDMetadata(pdfDocument);
+            pdfDocument.getDocumentCatalog().setMetadata(pdMetadata);
+        }
+        return pdMetadata;
+    }
+
     /**
      * Checks the metadata encryption
+     * <p>The metadata of the book which was read with the credentials of
+     * {@link PDFFactory#setPasswordProvider(PasswordProvider)} are decrypted and not considered encrypted</p>
      *
      * @return {@code true} if metadata are encrypted
      */
     public boolean isMetaDataEncrypted() {
-        return getDocument().isEncrypted() && getDocument().getEncryption().isEncryptMetaData();
+        return !metadataDecrypted && getDocument().isEncrypted() && getDocument().getEncryption().isEncryptMetaData();
     }
 
 
     /**
      * Gives BookScheme information
+     * <p>The schema object wraps the cached metadata object, see {@link #getMetadata()}</p>
      *
      * @return {@code BookXPMSchema}} object | null when the metadata are encrypted
      * @throws PDFException during metadata reading and parsing
      */
     public BookXMPSchema getBookXMPSchema() throws PDFException {
         if (isMetaDataEncrypted()) return null;
-        return new BookXMPSchema(getMetadata());
+        if (schemaCache == null) {
+            PDFEvents.BookSchema event = new PDFEvents.BookSchema();
+            event.begin();
+            try {
+                schemaCache = new BookXMPSchema(getMetadata());
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.path = pathName();
+                    event.authors = PDFEvents.count(metadataCache, BookXMPSchema.AUTHORS);
+                    event.works = PDFEvents.count(metadataCache, BookXMPSchema.WORKS);
+                    event.commit();
+                }
+            }
+        }
+        return schemaCache;
+    }
+
+    /**
+     * Gives the immutable book schema snapshot decoded in a single pass over the cached metadata object
+     *
+     * @return record | null when the metadata are encrypted or the document has no metadata
+     * @throws PDFException during metadata reading and parsing
+     */
+    public BookRecord getBookRecord() throws PDFException {
+        if (isMetaDataEncrypted()) return null;
+        XMPMeta metadata = getMetadata();
+        return metadata == null ? null : BookRecordDecoder.decode(metadata);
     }
 
     /**
@@ -120,44 +313,184 @@ public class PDFBook implements Closeable {
      * @return record with fields
      */
     public PDFInfo getDocumentInfo() {
-        return new PDFInfo(
-                pdfDocument.getDocumentInformation().getTitle(),
-                pdfDocument.getDocumentInformation().getAuthor(),
-                pdfDocument.getDocumentInformation().getSubject(),
-                pdfDocument.getDocumentInformation().getKeywords(),
-                pdfDocument.getDocumentInformation().getCreator(),
-                pdfDocument.getDocumentInformation().getCreationDate(),
-                pdfDocument.getDocumentInformation().getModificationDate()
-
-        );
+        return PDFInfo.of(pdfDocument.getDocumentInformation());
     }
 
     /**
      * Sets the document info fields in PDF
+     * <p>Only the fields which differ from the current values are written, so the unchanged information
+     * dictionary is not marked for the incremental update</p>
      *
      * @param info   PDFInfo record. All fields with {@code null} value will be omitted
      * @param fields field names need to set. Empty - all fields
+     * @return {@code true} if any field was changed
      */
-    public void setDocumentInfo(PDFInfo info, String... fields) {
+    public boolean setDocumentInfo(PDFInfo info, String... fields) {
         PDDocumentInformation di = pdfDocument.getDocumentInformation();
+        PDFInfo current = PDFInfo.of(di);
         Set<String> names = Arrays.stream(fields).map(String::toLowerCase).collect(Collectors.toSet());
-        if (fields.length == 0 || names.contains("title")) di.setTitle(info.title());
-        if (fields.length == 0 || names.contains("author")) di.setAuthor(info.author());
-        if (fields.length == 0 || names.contains("subject")) di.setSubject(info.subject());
-        if (fields.length == 0 || names.contains("keywords")) di.setKeywords(info.keywords());
-        if (fields.length == 0 || names.contains("creator")) di.setCreator(info.creator());
-        if (fields.length == 0 || names.contains("creationdate")) di.setCreationDate(info.creationDate);
-        if (fields.length == 0 || names.contains("modificationdate")) di.setModificationDate(info.modificationDate());
+        boolean all = fields.length == 0;
+        boolean changed = false;
+        if ((all || names.contains("title")) && !Objects.equals(current.title(), info.title())) {
+            di.setTitle(info.title());
+            changed = true;
+        }
+        if ((all || names.contains("author")) && !Objects.equals(current.author(), info.author())) {
+            di.setAuthor(info.author());
+            changed = true;
+        }
+        if ((all || names.contains("subject")) && !Objects.equals(current.subject(), info.subject())) {
+            di.setSubject(info.subject());
+            changed = true;
+        }
+        if ((all || names.contains("keywords")) && !Objects.equals(current.keywords(), info.keywords())) {
+            di.setKeywords(info.keywords());
+            changed = true;
+        }
+        if ((all || names.contains("creator")) && !Objects.equals(current.creator(), info.creator())) {
+            di.setCreator(info.creator());
+            changed = true;
+        }
+        if ((all || names.contains("creationdate")) && !PDFInfo.sameDate(current.creationDate(), info.creationDate())) {
+            di.setCreationDate(info.creationDate());
+            changed = true;
+        }
+        if ((all || names.contains("modificationdate"))
+                && !PDFInfo.sameDate(current.modificationDate(), info.modificationDate())) {
+            di.setModificationDate(info.modificationDate());
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Saves the metadata and document information changes to the end of the book file
+     * <p>Only the changed objects and a new cross-reference section are appended, the original bytes are kept.
+     * The book should be read with {@link PDFFactory#readPDF(Path)}. The increment is built over the file
+     * as it was read, so the book file is appended once: read the book again for the next incremental saving</p>
+     *
+     * @return number of bytes appended
+     * @throws PDFException when the book path isn't defined, the book file was already appended or changed
+     *                      after reading, file write error
+     */
+    public long saveIncremental() throws PDFException {
+        PDFMetrics metrics = PDFMetrics.get();
+        return metrics.measure(PDFMetrics.SAVE, metrics.getSaveLatency(), this::appendIncrement);
+    }
+
+    private long appendIncrement() throws PDFException {
+        checkIncrementalSource();
+        flushMetadata();
+        PDFEvents.Save event = new PDFEvents.Save();
+        event.begin();
+        long written = 0;
+        try (OutputStream os = Files.newOutputStream(getBookPath(), StandardOpenOption.APPEND)) {
+            appended = true;
+            written = writeIncrement(os);
+            return written;
+        } catch (IOException e) {
+            throw new PDFException("File save error: " + getBookPath(), e);
+        } finally {
+            commit(event, getBookPath(), written, true);
+        }
+    }
+
+    /**
+     * Saves the book file with the metadata and document information changes to the new file
+     * <p>The book file is copied, then only the changed objects and a new cross-reference section are appended.
+     * The book should be read with {@link PDFFactory#readPDF(Path)}, its file should not be appended
+     * by {@link #saveIncremental()}</p>
+     *
+     * @param fileName target file path
+     * @return number of bytes appended
+     * @throws PDFException when the book path isn't defined, the book file was already appended or changed
+     *                      after reading, file write error
+     */
+    public long saveIncremental(Path fileName) throws PDFException {
+        PDFMetrics metrics = PDFMetrics.get();
+        return metrics.measure(PDFMetrics.SAVE, metrics.getSaveLatency(), () -> copyWithIncrement(fileName));
+    }
+
+    private long copyWithIncrement(Path fileName) throws PDFException {
+        checkIncrementalSource();
+        flushMetadata();
+        PDFEvents.Save event = new PDFEvents.Save();
+        event.begin();
+        long written = 0;
+        try {
+            Files.copy(getBookPath(), fileName, StandardCopyOption.REPLACE_EXISTING);
+            try (OutputStream os = Files.newOutputStream(fileName, StandardOpenOption.APPEND)) {
+                written = writeIncrement(os);
+                return written;
+            }
+        } catch (IOException e) {
+            throw new PDFException("File save error: " + fileName, e);
+        } finally {
+            commit(event, fileName, written, true);
+        }
+    }
+
+    private void checkIncrementalSource() throws PDFException {
+        if (getBookPath() == null || sourceLength < 0)
+            throw new PDFException("Book file path is not defined");
+        if (appended)
+            throw new PDFException("Book file was already saved incrementally, read it again: " + getBookPath());
+        try {
+            if (Files.size(getBookPath()) != sourceLength)
+                throw new PDFException("File was changed after reading: " + getBookPath());
+        } catch (IOException e) {
+            throw new PDFException("File reading error: " + getBookPath(), e);
+        }
+    }
+
+    /**
+     * Writes the increment part only: PDFBox copies the source bytes first, they are skipped
+     */
+    private long writeIncrement(OutputStream target) throws IOException {
+        IncrementOutputStream os = new IncrementOutputStream(target, sourceLength);
+        getDocument().saveIncremental(os);
+        return os.getWritten();
     }
 
     public void saveAs(Path fileName) throws PDFException {
+        PDFMetrics metrics = PDFMetrics.get();
+        metrics.measure(PDFMetrics.SAVE, metrics.getSaveLatency(), () -> {
+            save(fileName);
+            return null;
+        });
+    }
+
+    private void save(Path fileName) throws PDFException {
+        flushMetadata();
+        PDFEvents.Save event = new PDFEvents.Save();
+        event.begin();
         try {
             getDocument().save(fileName.toFile());
         } catch (IOException e) {
             throw new PDFException("File save error: " + fileName, e);
+        } finally {
+            commit(event, fileName, -1L, false);
         }
     }
 
+    /**
+     * Commits the save event
+     *
+     * @param bytesWritten number of bytes | {@code -1L} to take the file size
+     */
+    private static void commit(PDFEvents.Save event, Path fileName, long bytesWritten, boolean incremental) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.path = fileName.toString();
+        event.bytesWritten = bytesWritten < 0 ? fileName.toFile().length() : bytesWritten;
+        event.incremental = incremental;
+        event.commit();
+    }
+
+    private String pathName() {
+        return bookPath == null ? null : bookPath.toString();
+    }
+
     /**
      * Gives the document language
      *
@@ -179,8 +512,42 @@ public class PDFBook implements Closeable {
     }
 
 
+    void setSourceLength(long sourceLength) {
+        this.sourceLength = sourceLength;
+    }
+
+    /**
+     * Counts the book in the open books metric until it's closed
+     */
+    void countOpen() {
+        if (counted) return;
+        counted = true;
+        PDFMetrics.get().bookOpened();
+    }
+
+    void setMetadataDecrypted(boolean metadataDecrypted) {
+        this.metadataDecrypted = metadataDecrypted;
+    }
+
+    void setStreamCache(StreamCacheMonitor streamCache) {
+        this.streamCache = streamCache;
+    }
+
+    /**
+     * Gives the stream cache usage of the document
+     *
+     * @return heap and off-heap bytes | {@code null} when the book was loaded without {@link LoadOptions}
+     */
+    public LoadOptions.MemoryUsage getMemoryUsage() {
+        return streamCache == null ? null : streamCache.getUsage();
+    }
+
     @Override
     public void close() throws IOException {
+        if (counted) {
+            counted = false;
+            PDFMetrics.get().bookClosed();
+        }
         getDocument().close();
     }
 
@@ -202,5 +569,34 @@ public class PDFBook implements Closeable {
                           String creator,
                           Calendar creationDate,
                           Calendar modificationDate) {
+
+        /**
+         * Creates the record from PDF document information
+         *
+         * @param di document information object
+         * @return record with fields
+         */
+        public static PDFInfo of(PDDocumentInformation di) {
+            return new PDFInfo(di.getTitle(),
+                    di.getAuthor(),
+                    di.getSubject(),
+                    di.getKeywords(),
+                    di.getCreator(),
+                    di.getCreationDate(),
+                    di.getModificationDate());
+        }
+
+        /**
+         * Compares the dates by the instant: PDF dates have no milliseconds and the calendar objects
+         * may differ by the time zone or the calendar settings
+         *
+         * @param a date | {@code null}
+         * @param b date | {@code null}
+         * @return {@code true} if both are {@code null} or denote the same instant
+         */
+        public static boolean sameDate(Calendar a, Calendar b) {
+            if (a == null || b == null) return a == b;
+            return Math.floorDiv(a.getTimeInMillis(), 1000) == Math.floorDiv(b.getTimeInMillis(), 1000);
+        }
     }
 }
@@ -0,0 +1,150 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of the book operations
+ * <p>The events are committed after the operation, also when it fails. They are recorded by any running recording,
+ * e.g. {@code jcmd <pid> JFR.start}. The fields are filled only when the event is going to be committed,
+ * so without a recording the events cost nothing but the object creation.
+ * The nested operations have their own events: {@link Read} time is the I/O and the PDFBox parsing time,
+ * {@link MetadataParse} and {@link MetadataSerialize} are the xmpcore time, {@link Save} is the PDFBox saving time
+ * without the metadata serialization</p>
+ */
+public final class PDFEvents {
+    static final String CATEGORY = "PDF Book";
+
+    private PDFEvents() {
+    }
+
+    /**
+     * PDF document loading by {@link PDFFactory}
+     */
+    @Name("com.jisj.pdf.Read")
+    @Label("PDF Read")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Read extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("File Size")
+        @DataAmount
+        long fileSize;
+
+        @Label("Metadata Only")
+        @Description("Only the metadata objects were resolved")
+        boolean metadataOnly;
+    }
+
+    /**
+     * XMP packet parsing by {@link PDFBook#getMetadata()}
+     */
+    @Name("com.jisj.pdf.MetadataParse")
+    @Label("XMP Parse")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class MetadataParse extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Packet Size")
+        @DataAmount
+        long packetSize;
+
+        @Label("Authors")
+        int authors;
+
+        @Label("Works")
+        int works;
+    }
+
+    /**
+     * Metadata serialization to the document metadata stream: {@link PDFBook#setMetadata(XMPMeta)} serializes
+     * the metadata object, {@link PDFBook#setBookRecord} writes the packet directly
+     */
+    @Name("com.jisj.pdf.MetadataSerialize")
+    @Label("XMP Serialize")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class MetadataSerialize extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Packet Size")
+        @DataAmount
+        long packetSize;
+
+        @Label("Authors")
+        int authors;
+
+        @Label("Works")
+        int works;
+
+        @Label("Record Writer")
+        @Description("The packet was written by BookRecordWriter without XMPMeta serialization")
+        boolean recordWriter;
+    }
+
+    /**
+     * Book schema creation by {@link PDFBook#getBookXMPSchema()}, the metadata parsing is included
+     */
+    @Name("com.jisj.pdf.BookSchema")
+    @Label("Book Schema")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class BookSchema extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Authors")
+        int authors;
+
+        @Label("Works")
+        int works;
+    }
+
+    /**
+     * Book saving by {@link PDFBook#saveAs(java.nio.file.Path)} or {@code saveIncremental}
+     */
+    @Name("com.jisj.pdf.Save")
+    @Label("PDF Save")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Save extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Bytes Written")
+        @DataAmount
+        long bytesWritten;
+
+        @Label("Incremental")
+        boolean incremental;
+    }
+
+    /**
+     * Gives the number of the book schema array items
+     *
+     * @param metadata metadata object | {@code null}
+     * @param array    array name, e.g. {@link BookXMPSchema#AUTHORS}
+     * @return number of items | {@code -1} when the array can't be read
+     */
+    static int count(XMPMeta metadata, String array) {
+        if (metadata == null) return 0;
+        try {
+            return metadata.countArrayItems(BookXMPSchema.NS, array);
+        } catch (XMPException e) {
+            return -1;
+        }
+    }
+}
@@ -1,27 +1,122 @@
 package com.jisj.pdf;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
  * Static methods for PDF classes creation
  */
 public class PDFFactory {
+    private static volatile PasswordProvider passwordProvider;
+
     private PDFFactory() {
     }
 
+    /**
+     * Gives the password provider
+     *
+     * @return provider | {@code null}
+     */
+    public static PasswordProvider getPasswordProvider() {
+        return passwordProvider;
+    }
+
+    /**
+     * Sets the password provider of the encrypted books
+     * <p>PDFBox decrypts the objects when they are resolved, so only the read objects are decrypted:
+     * {@link #readMetadataOnly(Path)} decrypts the catalog, the metadata stream and the information dictionary
+     * strings, the content streams are not touched. The books which are read with the provider credentials
+     * give the decrypted metadata instead of {@link PDFEncryptedMetadata}. The books without the credentials
+     * are read as without the provider</p>
+     *
+     * @param passwordProvider provider | {@code null} to read the books without password
+     */
+    public static void setPasswordProvider(PasswordProvider passwordProvider) {
+        PDFFactory.passwordProvider = passwordProvider;
+    }
+
     /**
      * Reads the PDF document
      *
      * @param pdfFile path to file
      * @return PDF document object
-     * @throws IOException file reading error
+     * @throws IOException file reading error, {@code InvalidPasswordException} when the password is needed
      */
     public static PDDocument read(Path pdfFile) throws IOException {
-            return Loader.loadPDF(pdfFile.toFile());
+        return load(pdfFile, null).document();
+    }
+
+    /**
+     * Reads the PDF document with the specified memory policy
+     *
+     * @param pdfFile path to file
+     * @param options memory and stream cache options
+     * @return PDF document object
+     * @throws IOException file reading error
+     */
+    public static PDDocument read(Path pdfFile, LoadOptions options) throws IOException {
+        return load(pdfFile, options.newStreamCache()).document();
+    }
+
+    private static Opened load(Path pdfFile, StreamCacheCreateFunction streamCache) throws IOException {
+        PDFMetrics metrics = PDFMetrics.get();
+        Opened opened = metrics.measure(PDFMetrics.READ, metrics.getReadLatency(), () -> {
+            PDFEvents.Read event = new PDFEvents.Read();
+            event.begin();
+            try {
+                return open(pdfFile, streamCache);
+            } finally {
+                commit(event, pdfFile, false);
+            }
+        });
+        metrics.documentOpened(pdfFile.toFile().length());
+        return opened;
+    }
+
+    /**
+     * Loads the document with the provider credentials of the file
+     */
+    private static Opened open(Path pdfFile, StreamCacheCreateFunction streamCache) throws IOException {
+        StreamCacheCreateFunction cache = streamCache == null ? IOUtils.createMemoryOnlyStreamCache() : streamCache;
+        PasswordProvider provider = passwordProvider;
+        PasswordProvider.Credentials credentials = provider == null ? null : provider.getCredentials(pdfFile);
+        if (credentials == null)
+            return new Opened(Loader.loadPDF(pdfFile.toFile(), cache), false);
+        if (credentials.keyStore() == null)
+            return new Opened(Loader.loadPDF(pdfFile.toFile(), credentials.password(), cache), true);
+        try (InputStream keyStore = Files.newInputStream(credentials.keyStore())) {
+            return new Opened(Loader.loadPDF(pdfFile.toFile(), credentials.password(), keyStore,
+                    credentials.alias(), cache), true);
+        }
+    }
+
+    /**
+     * Loaded document
+     *
+     * @param document  PDF document
+     * @param decrypted {@code true} if the document was loaded with the provider credentials
+     */
+    private record Opened(PDDocument document, boolean decrypted) {
+    }
+
+    private static void commit(PDFEvents.Read event, Path pdfFile, boolean metadataOnly) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.path = pdfFile.toString();
+        event.fileSize = pdfFile.toFile().length();
+        event.metadataOnly = metadataOnly;
+        event.commit();
     }
 
     /**
@@ -32,12 +127,85 @@ public class PDFFactory {
      * @throws IOException file reading error
      */
     public static PDFBook readPDF(Path pdfFile) throws IOException {
-        PDFBook book;
-        book = new PDFBook(read(pdfFile));
+        Opened opened = load(pdfFile, null);
+        long length = Files.size(pdfFile);
+        PDFBook book = new PDFBook(opened.document());
+        book.setBookPath(pdfFile);
+        book.setSourceLength(length);
+        book.setMetadataDecrypted(opened.decrypted());
+        book.countOpen();
+        return book;
+    }
+
+    /**
+     * Creates the PDF book wrapper with the specified memory policy
+     * <p>The stream cache usage of the book is available with {@link PDFBook#getMemoryUsage()}</p>
+     *
+     * @param pdfFile path to file
+     * @param options memory and stream cache options
+     * @return PDF book object
+     * @throws IOException file reading error
+     */
+    public static PDFBook readPDF(Path pdfFile, LoadOptions options) throws IOException {
+        StreamCacheMonitor streamCache = options.newStreamCache();
+        Opened opened = load(pdfFile, streamCache);
+        long length = Files.size(pdfFile);
+        PDFBook book = new PDFBook(opened.document());
         book.setBookPath(pdfFile);
+        book.setSourceLength(length);
+        book.setStreamCache(streamCache);
+        book.setMetadataDecrypted(opened.decrypted());
+        book.countOpen();
         return book;
     }
 
+    /**
+     * Reads the document metadata only
+     * <p>The trailer and cross-reference table are parsed, then only {@code /Root -> /Metadata}, {@code /Root -> /Lang}
+     * and {@code /Info} objects are resolved. Pages, resources and content streams are never touched</p>
+     *
+     * @param pdfFile path to file
+     * @return metadata record
+     * @throws IOException file reading error
+     */
+    public static PDFMetadata readMetadataOnly(Path pdfFile) throws IOException {
+        PDFMetrics metrics = PDFMetrics.get();
+        PDFMetadata metadata = metrics.measure(PDFMetrics.READ, metrics.getReadLatency(), () -> loadMetadata(pdfFile));
+        metrics.documentOpened(pdfFile.toFile().length());
+        return metadata;
+    }
+
+    private static PDFMetadata loadMetadata(Path pdfFile) throws IOException {
+        PDFEvents.Read event = new PDFEvents.Read();
+        event.begin();
+        Opened opened = open(pdfFile, null);
+        try (PDDocument document = opened.document()) {
+            COSDictionary trailer = document.getDocument().getTrailer();
+            COSDictionary root = trailer.getCOSDictionary(COSName.ROOT);
+            COSDictionary info = trailer.getCOSDictionary(COSName.INFO);
+            boolean metadataEncrypted = !opened.decrypted() && document.isEncrypted() && document.getEncryption().isEncryptMetaData();
+
+            byte[] xmp = null;
+            String language = null;
+            if (root != null) {
+                language = root.getString(COSName.LANG);
+                COSStream metadata = root.getCOSStream(COSName.METADATA);
+                if (metadata != null && !metadataEncrypted) {
+                    try (InputStream is = metadata.createInputStream()) {
+                        xmp = is.readAllBytes();
+                    }
+                }
+            }
+            return new PDFMetadata(pdfFile,
+                    xmp,
+                    PDFBook.PDFInfo.of(info == null ? new PDDocumentInformation() : new PDDocumentInformation(info)),
+                    language,
+                    metadataEncrypted);
+        } finally {
+            commit(event, pdfFile, true);
+        }
+    }
+
     /**
      * Creates new PDF print object
      *
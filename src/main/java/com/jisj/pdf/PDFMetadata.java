@@ -0,0 +1,69 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookRecordReader;
+import com.jisj.pdf.xmp.BookXMPSchema;
+
+import java.nio.file.Path;
+
+/**
+ * Metadata of the PDF file read without the full document loading
+ *
+ * @param path              path to file
+ * @param xmp               raw XMP packet bytes | {@code null} when the document has no metadata or the metadata are encrypted
+ * @param info              document information fields
+ * @param language          document language | {@code null}
+ * @param metadataEncrypted {@code true} if the metadata are encrypted
+ */
+public record PDFMetadata(Path path,
+                          byte[] xmp,
+                          PDFBook.PDFInfo info,
+                          String language,
+                          boolean metadataEncrypted) {
+
+    /**
+     * Parses the raw XMP packet
+     *
+     * @return metadata object | {@code null} when the document has no metadata
+     * @throws PDFException when the metadata are encrypted or metadata parsing error
+     */
+    public XMPMeta getXMPMeta() throws PDFException {
+        if (metadataEncrypted)
+            throw new PDFEncryptedMetadata();
+        if (xmp == null) return null;
+        try {
+            return XMPMetaFactory.parseFromBuffer(xmp);
+        } catch (XMPException e) {
+            throw new PDFException("Metadata parsing error", e);
+        }
+    }
+
+    /**
+     * Gives BookScheme information
+     *
+     * @return {@code BookXPMSchema} object | {@code null} when the document has no metadata or the metadata are encrypted
+     * @throws PDFException metadata parsing error
+     */
+    public BookXMPSchema getBookXMPSchema() throws PDFException {
+        if (metadataEncrypted || xmp == null) return null;
+        return new BookXMPSchema(getXMPMeta());
+    }
+
+    /**
+     * Gives the book schema snapshot read from the raw XMP packet without {@code XMPMeta} building
+     *
+     * @return record | {@code null} when the document has no metadata or the metadata are encrypted
+     * @throws PDFException metadata parsing error
+     */
+    public BookRecord getBookRecord() throws PDFException {
+        if (metadataEncrypted || xmp == null) return null;
+        try {
+            return BookRecordReader.read(xmp);
+        } catch (XMPException e) {
+            throw new PDFException("Metadata parsing error", e);
+        }
+    }
+}
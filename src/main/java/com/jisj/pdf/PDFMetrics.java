@@ -0,0 +1,336 @@
+package com.jisj.pdf;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on library metrics
+ * <p>The counters and the latency histograms are {@link LongAdder} based: the recording takes no locks
+ * and the threads don't contend on one memory cell. The snapshot is exported in the Prometheus text format
+ * without any metrics framework, e.g. to the node exporter textfile directory by {@link #exportTo(Path)}</p>
+ * <p>The read latency is the PDF document loading by {@link PDFFactory}, the parse latency is the XMP parsing
+ * by {@link PDFBook#getMetadata()}, the save latency is the whole {@code saveAs}/{@code saveIncremental} call
+ * with the metadata serialization. The failed operations are measured too</p>
+ */
+public final class PDFMetrics {
+    /**
+     * Operation name of the document loading
+     */
+    public static final String READ = "read";
+    /**
+     * Operation name of the XMP parsing
+     */
+    public static final String PARSE = "parse";
+    /**
+     * Operation name of the book saving
+     */
+    public static final String SAVE = "save";
+
+    private static final PDFMetrics INSTANCE = new PDFMetrics();
+
+    private final LongAdder documentsOpened = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder openBooks = new LongAdder();
+    private final Histogram readLatency = new Histogram();
+    private final Histogram parseLatency = new Histogram();
+    private final Histogram saveLatency = new Histogram();
+    private final ConcurrentHashMap<Failure, LongAdder> failures = new ConcurrentHashMap<>();
+
+    private PDFMetrics() {
+    }
+
+    /**
+     * Gives the library metrics
+     *
+     * @return metrics object
+     */
+    public static PDFMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gives the number of the loaded PDF documents
+     *
+     * @return documents count
+     */
+    public long getDocumentsOpened() {
+        return documentsOpened.sum();
+    }
+
+    /**
+     * Gives the total size of the loaded PDF files
+     *
+     * @return bytes count
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Gives the number of the books read by {@link PDFFactory#readPDF(Path)} which are not closed
+     * <p>The {@link PDFBook} wrappers created by the constructor are not counted</p>
+     *
+     * @return books count
+     */
+    public long getOpenBooks() {
+        return openBooks.sum();
+    }
+
+    /**
+     * Gives the PDF document loading latency
+     *
+     * @return histogram
+     */
+    public Histogram getReadLatency() {
+        return readLatency;
+    }
+
+    /**
+     * Gives the XMP parsing latency
+     *
+     * @return histogram
+     */
+    public Histogram getParseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * Gives the book saving latency
+     *
+     * @return histogram
+     */
+    public Histogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    /**
+     * Gives the failures snapshot
+     *
+     * @return failures count by operation and exception type
+     */
+    public Map<Failure, Long> getFailures() {
+        Map<Failure, Long> snapshot = new TreeMap<>(Comparator.comparing(Failure::operation).thenComparing(Failure::type));
+        failures.forEach((f, count) -> snapshot.put(f, count.sum()));
+        return snapshot;
+    }
+
+    void documentOpened(long bytes) {
+        documentsOpened.increment();
+        bytesRead.add(bytes);
+    }
+
+    void bookOpened() {
+        openBooks.increment();
+    }
+
+    void bookClosed() {
+        openBooks.decrement();
+    }
+
+    void failure(String operation, Throwable error) {
+        failures.computeIfAbsent(new Failure(operation, error.getClass().getSimpleName()), f -> new LongAdder())
+                .increment();
+    }
+
+    /**
+     * Runs the operation, records its latency and its failure
+     */
+    <T, E extends Exception> T measure(String operation, Histogram latency, Operation<T, E> action) throws E {
+        long start = System.nanoTime();
+        try {
+            return action.run();
+        } catch (Exception | Error e) {
+            failure(operation, e);
+            throw e;
+        } finally {
+            latency.observe(System.nanoTime() - start);
+        }
+    }
+
+    @FunctionalInterface
+    interface Operation<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Writes the metrics snapshot in the Prometheus text format
+     *
+     * @param out target
+     * @throws IOException writing error
+     */
+    public void writeTo(Appendable out) throws IOException {
+        counter(out, "pdfbook_documents_opened_total", "PDF documents loaded", documentsOpened.sum());
+        counter(out, "pdfbook_read_bytes_total", "Size of the loaded PDF files", bytesRead.sum());
+        header(out, "pdfbook_open_books", "Books read by PDFFactory which are not closed", "gauge");
+        out.append("pdfbook_open_books ").append(Long.toString(openBooks.sum())).append('\n');
+        header(out, "pdfbook_failures_total", "Failed operations by exception type", "counter");
+        for (Map.Entry<Failure, Long> e : getFailures().entrySet())
+            out.append("pdfbook_failures_total{operation=\"").append(escape(e.getKey().operation()))
+                    .append("\",type=\"").append(escape(e.getKey().type())).append("\"} ")
+                    .append(Long.toString(e.getValue())).append('\n');
+        readLatency.writeTo(out, "pdfbook_read_seconds", "PDF document loading latency");
+        parseLatency.writeTo(out, "pdfbook_parse_seconds", "XMP metadata parsing latency");
+        saveLatency.writeTo(out, "pdfbook_save_seconds", "Book saving latency");
+    }
+
+    /**
+     * Gives the metrics snapshot in the Prometheus text format
+     *
+     * @return text
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder(2048);
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the metrics snapshot to the file
+     * <p>The snapshot is written to the temporary file which replaces the target, so the reader never sees
+     * a partial file</p>
+     *
+     * @param file target file, e.g. {@code metrics.prom}
+     * @throws IOException file writing error
+     */
+    public void exportTo(Path file) throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "." + file.getFileName(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writeTo(writer);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void counter(Appendable out, String name, String help, long value) throws IOException {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    private static void header(Appendable out, String name, String help, String type) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Failure key
+     *
+     * @param operation operation name, e.g. {@link #READ}
+     * @param type      exception simple class name
+     */
+    public record Failure(String operation, String type) {
+    }
+
+    /**
+     * Latency histogram with the fixed buckets from 10 µs to 10 s
+     */
+    public static final class Histogram {
+        private static final long[] BOUNDS = {
+                10_000L, 25_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+                1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+                100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L,
+                5_000_000_000L, 10_000_000_000L};
+        private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+        private final LongAdder sum = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        /**
+         * Records the duration
+         *
+         * @param nanos duration in nanoseconds
+         */
+        public void observe(long nanos) {
+            int i = 0;
+            while (i < BOUNDS.length && nanos > BOUNDS[i])
+                i++;
+            buckets[i].increment();
+            sum.add(nanos);
+        }
+
+        /**
+         * Gives the number of the recorded durations
+         *
+         * @return count
+         */
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets)
+                count += bucket.sum();
+            return count;
+        }
+
+        /**
+         * Gives the total of the recorded durations
+         *
+         * @return nanoseconds
+         */
+        public long getSumNanos() {
+            return sum.sum();
+        }
+
+        /**
+         * Gives the quantile estimate: the upper bound of the bucket where the quantile is
+         *
+         * @param q quantile from 0 to 1, e.g. {@code 0.99}
+         * @return seconds | {@code 0.0} when nothing is recorded | {@link Double#POSITIVE_INFINITY} above 10 s
+         */
+        public double quantile(double q) {
+            if (q < 0 || q > 1)
+                throw new IllegalArgumentException("Unexpected quantile value = " + q);
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++)
+                total += counts[i] = buckets[i].sum();
+            if (total == 0) return 0.0;
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return seconds(BOUNDS[i]);
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        void writeTo(Appendable out, String name, String help) throws IOException {
+            header(out, name, help, "histogram");
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String le = i < BOUNDS.length
+                        ? BigDecimal.valueOf(BOUNDS[i], 9).stripTrailingZeros().toPlainString() : "+Inf";
+                out.append(name).append("_bucket{le=\"").append(le).append("\"} ")
+                        .append(Long.toString(cumulative)).append('\n');
+            }
+            out.append(name).append("_sum ").append(Double.toString(seconds(sum.sum()))).append('\n');
+            out.append(name).append("_count ").append(Long.toString(cumulative)).append('\n');
+        }
+
+        private static double seconds(long nanos) {
+            return nanos / 1e9;
+        }
+    }
+}
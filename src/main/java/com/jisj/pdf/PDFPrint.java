@@ -8,6 +8,7 @@ import javax.print.attribute.HashPrintRequestAttributeSet;
 import javax.print.attribute.PrintRequestAttributeSet;
 import javax.print.attribute.standard.Destination;
 import javax.print.attribute.standard.MediaSizeName;
+import java.awt.print.Pageable;
 import java.awt.print.PrinterException;
 import java.awt.print.PrinterJob;
 import java.nio.file.Path;
@@ -18,6 +19,8 @@ import java.nio.file.Path;
 public class PDFPrint {
     private final PrinterJob job;
     private final PrintRequestAttributeSet attr = new HashPrintRequestAttributeSet();
+    private final Pageable pageable;
+    private Path fileName;
 
     /**
      * Creates new printer job for document
@@ -26,7 +29,8 @@ public class PDFPrint {
      */
     public PDFPrint(PDDocument document) {
         job = PrinterJob.getPrinterJob();
-        job.setPageable(new PDFPageable(document));
+        pageable = new PDFPageable(document);
+        job.setPageable(pageable);
         job.setJobName("MyPrinting");
         attr.add(MediaSizeName.ISO_A4);
     }
@@ -37,10 +41,38 @@ public class PDFPrint {
      * @param fileName absolute file path
      */
     public void setFileName(Path fileName) {
+        this.fileName = fileName;
         job.setJobName(fileName.getFileName().toString());
         attr.add(new Destination(fileName.toUri()));
     }
 
+    /**
+     * Gives the file name when to file printing
+     *
+     * @return file path | {@code null}
+     */
+    public Path getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Gives the document pages
+     *
+     * @return pageable object
+     */
+    Pageable getPageable() {
+        return pageable;
+    }
+
+    /**
+     * Gives the print request attributes
+     *
+     * @return attributes set
+     */
+    PrintRequestAttributeSet getAttributes() {
+        return attr;
+    }
+
     /**
      * Gives the printer job for document
      *
@@ -60,18 +92,13 @@ public class PDFPrint {
     }
 
     /**
-     * Gives the print service object by specified name
+     * Gives the print service object by specified name from {@link PrintServices} cache
      *
      * @param serviceName string printer name
      * @return print service | {@code null}
      */
     public PrintService getPrintService(String serviceName) {
-        for (PrintService ps : PrinterJob.lookupPrintServices()) {
-            if (ps.getName().equalsIgnoreCase(serviceName)) {
-                return ps;
-            }
-        }
-        return null;
+        return PrintServices.find(serviceName);
     }
 
     /**
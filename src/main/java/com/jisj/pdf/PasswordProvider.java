@@ -0,0 +1,66 @@
+package com.jisj.pdf;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Credentials source of the encrypted books
+ * <p>The provider is set by {@link PDFFactory#setPasswordProvider(PasswordProvider)} and is asked on every
+ * book reading, so it should be fast, e.g. a map lookup</p>
+ */
+@FunctionalInterface
+public interface PasswordProvider {
+
+    /**
+     * Gives the credentials of the book
+     *
+     * @param pdfFile book file
+     * @return credentials | {@code null} when the book is read without password
+     */
+    Credentials getCredentials(Path pdfFile);
+
+    /**
+     * Creates the provider with the same password for all books
+     *
+     * @param password user or owner password
+     * @return provider
+     */
+    static PasswordProvider of(String password) {
+        Credentials credentials = Credentials.of(password);
+        return pdfFile -> credentials;
+    }
+
+    /**
+     * Creates the provider with the passwords by file name
+     *
+     * @param passwords passwords by file name, e.g. {@code BWV998.pdf}
+     * @return provider
+     */
+    static PasswordProvider of(Map<String, String> passwords) {
+        Map<String, String> values = Map.copyOf(passwords);
+        return pdfFile -> {
+            String password = values.get(pdfFile.getFileName().toString());
+            return password == null ? null : Credentials.of(password);
+        };
+    }
+
+    /**
+     * Book credentials
+     *
+     * @param password password, or the key store password for the public key encryption
+     * @param keyStore PKCS#12 key store of the public key encryption | {@code null}
+     * @param alias    key alias in the key store | {@code null} for the first key
+     */
+    record Credentials(String password, Path keyStore, String alias) {
+
+        /**
+         * Creates the password credentials
+         *
+         * @param password user or owner password
+         * @return credentials
+         */
+        public static Credentials of(String password) {
+            return new Credentials(password, null, null);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.jisj.pdf;
+
+import javax.print.DocFlavor;
+import javax.print.PrintService;
+import javax.print.StreamPrintServiceFactory;
+import javax.print.attribute.standard.Destination;
+import java.awt.Graphics;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Printable;
+import java.awt.print.PrinterAbortException;
+import java.awt.print.PrinterException;
+import java.awt.print.PrinterJob;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous print queue
+ * <p>The submitted print jobs are printed on the queue threads, the caller isn't blocked for the job time.
+ * Every job reports the printed pages and can be cancelled: the queued job is skipped, the printing job
+ * is aborted before the next page</p>
+ * <p>When the job prints to file (see {@link PDFPrint#setFileName(Path)}) and its print service doesn't support
+ * {@link Destination}, or no print service is installed, the job is printed to the PostScript file by the Java
+ * stream print service. The queue is thread-safe</p>
+ */
+public class PrintQueue implements Closeable {
+    private static final String POSTSCRIPT = "application/postscript";
+
+    private final ExecutorService pool;
+    private final Queue<Job> jobs = new ConcurrentLinkedQueue<>();
+    private volatile Consumer<Job> progressListener;
+
+    /**
+     * Creates the queue
+     *
+     * @param threads number of the jobs printed at once
+     * @throws IllegalArgumentException when {@code threads < 1}
+     */
+    public PrintQueue(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Unexpected threads value = " + threads);
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Creates the queue which prints the jobs one by one
+     */
+    public PrintQueue() {
+        this(1);
+    }
+
+    /**
+     * Sets the progress listener. The listener is called on the queue thread when the job starts a page
+     * and when the job ends
+     *
+     * @param progressListener listener | {@code null}
+     */
+    public void setProgressListener(Consumer<Job> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Adds the print job to the queue. The document must not be changed or closed until the job ends
+     *
+     * @param print prepared print job
+     * @return queued job
+     */
+    public Job submit(PDFPrint print) {
+        Job job = new Job(print);
+        jobs.add(job);
+        pool.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * Gives the queued and printing jobs
+     *
+     * @return jobs in the submission order
+     */
+    public List<Job> getJobs() {
+        List<Job> result = new ArrayList<>(jobs.size());
+        for (Job job : jobs)
+            if (!job.getState().isFinished())
+                result.add(job);
+        return result;
+    }
+
+    private void run(Job job) {
+        if (!job.state.compareAndSet(State.QUEUED, State.PRINTING)) {
+            jobs.remove(job);
+            return;
+        }
+        State end = State.DONE;
+        PDFException error = null;
+        try {
+            notifyProgress(job);
+            print(job);
+        } catch (PrinterAbortException e) {
+            end = State.CANCELLED;
+        } catch (PrinterException | IOException | RuntimeException e) {
+            end = job.cancelled ? State.CANCELLED : State.FAILED;
+            error = new PDFException("Printer job error", e);
+        }
+        job.finish(end);
+        jobs.remove(job);
+        try {
+            notifyProgress(job);
+        } finally {
+            job.complete(error);
+        }
+    }
+
+    private void print(Job job) throws PrinterException, IOException {
+        PDFPrint print = job.print;
+        PrinterJob printerJob = print.getJob();
+        printerJob.setPageable(new ProgressPageable(print.getPageable(), job));
+        Path fileName = print.getFileName();
+        PrintService service = printerJob.getPrintService();
+        if (fileName == null || service != null && service.isAttributeCategorySupported(Destination.class)) {
+            printerJob.print(print.getAttributes());
+            return;
+        }
+        boolean printed = false;
+        try (OutputStream out = Files.newOutputStream(fileName)) {
+            printerJob.setPrintService(streamPrintService(out));
+            printerJob.print(print.getAttributes());
+            printed = true;
+        } finally {
+            if (!printed)
+                Files.deleteIfExists(fileName);
+        }
+    }
+
+    private static PrintService streamPrintService(OutputStream out) throws PrinterException {
+        StreamPrintServiceFactory[] factories = StreamPrintServiceFactory
+                .lookupStreamPrintServiceFactories(DocFlavor.SERVICE_FORMATTED.PAGEABLE, POSTSCRIPT);
+        if (factories.length == 0)
+            throw new PrinterException("Stream print service not found: " + POSTSCRIPT);
+        return factories[0].getPrintService(out);
+    }
+
+    private void notifyProgress(Job job) {
+        Consumer<Job> listener = progressListener;
+        if (listener != null)
+            listener.accept(job);
+    }
+
+    /**
+     * Cancels the queued and printing jobs and stops the queue threads
+     */
+    @Override
+    public void close() {
+        jobs.forEach(Job::cancel);
+        pool.shutdown();
+    }
+
+    /**
+     * Print job state
+     */
+    public enum State {
+        QUEUED,
+        PRINTING,
+        DONE,
+        FAILED,
+        CANCELLED;
+
+        /**
+         * Checks the job end
+         *
+         * @return {@code true} if the job is not queued or printing
+         */
+        public boolean isFinished() {
+            return this != QUEUED && this != PRINTING;
+        }
+    }
+
+    /**
+     * Queued print job
+     */
+    public static class Job {
+        private final PDFPrint print;
+        private final int pageCount;
+        private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+        private final CompletableFuture<State> completion = new CompletableFuture<>();
+        private volatile int currentPage = -1;
+        private volatile int pagesPrinted;
+        private volatile boolean cancelled;
+
+        Job(PDFPrint print) {
+            this.print = print;
+            this.pageCount = print.getPageable().getNumberOfPages();
+        }
+
+        /**
+         * Gives the job name
+         *
+         * @return printer job name
+         */
+        public String getName() {
+            return print.getJob().getJobName();
+        }
+
+        /**
+         * Gives the document pages count
+         *
+         * @return pages count
+         */
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        /**
+         * Gives the number of the printed pages
+         *
+         * @return pages count
+         */
+        public int getPagesPrinted() {
+            return pagesPrinted;
+        }
+
+        /**
+         * Gives the job state
+         *
+         * @return current state
+         */
+        public State getState() {
+            return state.get();
+        }
+
+        /**
+         * Gives the job end. The future is completed with the final state or with {@link PDFException}
+         * when the job failed
+         *
+         * @return job end future
+         */
+        public CompletableFuture<State> getCompletion() {
+            return completion;
+        }
+
+        /**
+         * Cancels the job. The queued job is not printed, the printing job is aborted before the next page
+         *
+         * @return {@code false} if the job is already finished
+         */
+        public boolean cancel() {
+            if (getState().isFinished()) return false;
+            cancelled = true;
+            if (state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+                completion.complete(State.CANCELLED);
+                return true;
+            }
+            print.getJob().cancel();
+            return !getState().isFinished();
+        }
+
+        private void finish(State end) {
+            if (end == State.DONE)
+                pagesPrinted = pageCount;
+            state.set(end);
+        }
+
+        private void complete(PDFException error) {
+            if (getState() == State.FAILED)
+                completion.completeExceptionally(error);
+            else
+                completion.complete(getState());
+        }
+
+        private boolean startPage(int pageIndex) {
+            if (pageIndex == currentPage) return false;
+            pagesPrinted = Math.max(pagesPrinted, pageIndex);
+            currentPage = pageIndex;
+            return true;
+        }
+    }
+
+    /**
+     * Document pages which count the printed pages and abort the cancelled job
+     */
+    private class ProgressPageable implements Pageable {
+        private final Pageable pages;
+        private final Job job;
+
+        ProgressPageable(Pageable pages, Job job) {
+            this.pages = pages;
+            this.job = job;
+        }
+
+        @Override
+        public int getNumberOfPages() {
+            return pages.getNumberOfPages();
+        }
+
+        @Override
+        public PageFormat getPageFormat(int pageIndex) {
+            return pages.getPageFormat(pageIndex);
+        }
+
+        @Override
+        public Printable getPrintable(int pageIndex) {
+            Printable printable = pages.getPrintable(pageIndex);
+            return (Graphics graphics, PageFormat pageFormat, int index) -> {
+                if (job.cancelled)
+                    throw new PrinterAbortException("Print job is cancelled: " + job.getName());
+                if (job.startPage(index))
+                    notifyProgress(job);
+                return printable.print(graphics, pageFormat, index);
+            };
+        }
+    }
+}
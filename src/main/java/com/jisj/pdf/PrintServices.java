@@ -0,0 +1,75 @@
+package com.jisj.pdf;
+
+import javax.print.PrintService;
+import java.awt.print.PrinterJob;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache of the print services
+ * <p>The print services lookup queries the print system and may take seconds with network printers.
+ * The services are looked up on the first request only, the printers installed later are found after
+ * {@link #refresh()}</p>
+ */
+public class PrintServices {
+    private static volatile Snapshot snapshot;
+
+    private PrintServices() {
+    }
+
+    /**
+     * Gives the cached print services
+     *
+     * @return print services list | empty list when no printers are installed
+     */
+    public static List<PrintService> list() {
+        return snapshot().services();
+    }
+
+    /**
+     * Gives the cached print service by name
+     *
+     * @param serviceName printer name, case-insensitive | {@code null}
+     * @return print service | {@code null}
+     */
+    public static PrintService find(String serviceName) {
+        if (serviceName == null) return null;
+        return snapshot().byName().get(serviceName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Looks up the print services again
+     *
+     * @return print services list
+     */
+    public static List<PrintService> refresh() {
+        Snapshot fresh = lookup();
+        snapshot = fresh;
+        return fresh.services();
+    }
+
+    private static Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (PrintServices.class) {
+                current = snapshot;
+                if (current == null)
+                    snapshot = current = lookup();
+            }
+        }
+        return current;
+    }
+
+    private static Snapshot lookup() {
+        List<PrintService> services = List.of(PrinterJob.lookupPrintServices());
+        Map<String, PrintService> byName = new HashMap<>();
+        for (PrintService ps : services)
+            byName.putIfAbsent(ps.getName().toLowerCase(Locale.ROOT), ps);
+        return new Snapshot(services, Map.copyOf(byName));
+    }
+
+    private record Snapshot(List<PrintService> services, Map<String, PrintService> byName) {
+    }
+}
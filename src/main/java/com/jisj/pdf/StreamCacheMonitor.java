@@ -0,0 +1,70 @@
+package com.jisj.pdf;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.RandomAccessStreamCache;
+import org.apache.pdfbox.io.ScratchFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stream cache factory which keeps track of the buffers created for one document
+ */
+class StreamCacheMonitor implements RandomAccessStreamCache.StreamCacheCreateFunction {
+    private final MemoryUsageSetting setting;
+    private final List<RandomAccess> buffers = new ArrayList<>();
+
+    StreamCacheMonitor(MemoryUsageSetting setting) {
+        this.setting = setting;
+    }
+
+    @Override
+    public RandomAccessStreamCache create() throws IOException {
+        ScratchFile scratchFile = new ScratchFile(setting);
+        return new RandomAccessStreamCache() {
+            @Override
+            public RandomAccess createBuffer() throws IOException {
+                RandomAccess buffer = scratchFile.createBuffer();
+                synchronized (buffers) {
+                    buffers.removeIf(RandomAccess::isClosed);
+                    buffers.add(buffer);
+                }
+                return buffer;
+            }
+
+            @Override
+            public void close() throws IOException {
+                scratchFile.close();
+            }
+        };
+    }
+
+    /**
+     * Gives the current stream cache usage
+     * <p>The mixed cache fills the main memory first, so the bytes above the main memory budget are counted
+     * as kept in the temporary file</p>
+     *
+     * @return usage record
+     */
+    LoadOptions.MemoryUsage getUsage() {
+        long total = 0L;
+        synchronized (buffers) {
+            for (RandomAccess buffer : buffers) {
+                if (buffer.isClosed()) continue;
+                try {
+                    total += buffer.length();
+                } catch (IOException ignored) {
+                    // buffer was closed concurrently
+                }
+            }
+        }
+        if (!setting.useTempFile())
+            return new LoadOptions.MemoryUsage(total, 0L);
+        if (!setting.useMainMemory())
+            return new LoadOptions.MemoryUsage(0L, total);
+        long heap = Math.min(total, setting.getMaxMainMemoryBytes());
+        return new LoadOptions.MemoryUsage(heap, total - heap);
+    }
+}
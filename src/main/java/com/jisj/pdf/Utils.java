@@ -3,8 +3,9 @@ package com.jisj.pdf;
 import com.adobe.internal.xmp.XMPException;
 import com.adobe.internal.xmp.options.PropertyOptions;
 
-import java.text.SimpleDateFormat;
 import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 
@@ -12,6 +13,12 @@ import java.util.GregorianCalendar;
  * Static methods
  */
 public class Utils {
+    /**
+     * ISO 8601 date time with milliseconds. 'XXX' is the offset (e.g., +01:00, Z for UTC).
+     * The formatter is immutable and thread-safe
+     */
+    private static final DateTimeFormatter ISO8601 = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
     private Utils() {
     }
 
@@ -22,10 +29,7 @@ public class Utils {
      * @return format {@code String} of "yyyy-MM-dd'T'HH:mm:ss.SSSXXX"
      */
     public static String formatCalendarToISO8601(Calendar calendar) {
-        // Use 'XXX' for ISO 8601 offset (e.g., +01:00, Z for UTC)
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-        sdf.setTimeZone(calendar.getTimeZone());
-        return sdf.format(calendar.getTime());
+        return ISO8601.format(ZonedDateTime.ofInstant(calendar.toInstant(), calendar.getTimeZone().toZoneId()));
     }
 
     /**
@@ -0,0 +1,99 @@
+package com.jisj.pdf;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Open addressing hash table of UUID keys and {@code int} values
+ * <p>The keys are kept in two {@code long} arrays, so a library of millions books needs no {@code UUID}
+ * and {@code Integer} objects and no table entries. The values are not negative</p>
+ */
+class UuidTable {
+    private static final int EMPTY = -1;
+    private long[] msb;
+    private long[] lsb;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    UuidTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, EMPTY);
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Puts the value if the key is absent
+     *
+     * @param key   UUID key
+     * @param value not negative value
+     * @return value of the key | {@code -1} when the key was added
+     */
+    int putIfAbsent(UUID key, int value) {
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        int slot = slot(hi, lo);
+        while (values[slot] != EMPTY) {
+            if (msb[slot] == hi && lsb[slot] == lo) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        msb[slot] = hi;
+        lsb[slot] = lo;
+        values[slot] = value;
+        if (++size * 2 > values.length)
+            rehash();
+        return EMPTY;
+    }
+
+    /**
+     * Gives the value
+     *
+     * @param key UUID key
+     * @return value | {@code -1} when the key is absent
+     */
+    int get(UUID key) {
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        for (int slot = slot(hi, lo); values[slot] != EMPTY; slot = (slot + 1) & mask)
+            if (msb[slot] == hi && lsb[slot] == lo) return values[slot];
+        return EMPTY;
+    }
+
+    private void rehash() {
+        long[] oldMsb = msb;
+        long[] oldLsb = lsb;
+        int[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == EMPTY) continue;
+            int slot = slot(oldMsb[i], oldLsb[i]);
+            while (values[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            msb[slot] = oldMsb[i];
+            lsb[slot] = oldLsb[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * The version 4 UUIDs are random, but the other versions have the fixed bits: the halves are mixed
+     */
+    private int slot(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,192 @@
+package com.jisj.pdf.catalog;
+
+import com.jisj.pdf.BookSummary;
+import com.jisj.pdf.xmp.BookRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory book catalog with inverted indexes over the book schema fields
+ * <p>Every book gets the sequential {@code int} identifier. Each indexed value refers to the sorted identifier list,
+ * the queries are evaluated by the sorted list intersections and unions without PDF opening</p>
+ * <p>The catalog is not thread-safe for adding: the queries may run concurrently when no book is being added</p>
+ */
+public class BookCatalog {
+    private final List<BookSummary> books = new ArrayList<>();
+    private final Map<Field, Map<String, IntPostings>> indexes = new EnumMap<>(Field.class);
+
+    public BookCatalog() {
+        for (Field field : Field.values())
+            indexes.put(field, new HashMap<>());
+    }
+
+    /**
+     * Adds the book to the catalog. The failed summaries and summaries without book schema are stored
+     * but not indexed
+     *
+     * @param summary book summary
+     * @return book identifier
+     */
+    public int add(BookSummary summary) {
+        int id = books.size();
+        books.add(summary);
+        BookRecord book = summary.book();
+        if (book == null) return id;
+        index(Field.BOOK_GUID, book.guid(), id);
+        index(Field.TITLE, book.title().content(), id);
+        index(Field.SHELF, book.preferredShelf(), id);
+        book.genres().forEach(g -> index(Field.GENRE, g, id));
+        indexAuthors(book.authors(), id);
+        indexSheets(book.sheets(), id);
+        for (BookRecord.Work work : book.works()) {
+            index(Field.WORK_GUID, work.guid(), id);
+            index(Field.TITLE, work.title().content(), id);
+            work.genres().forEach(g -> index(Field.GENRE, g, id));
+            indexAuthors(work.authors(), id);
+            indexSheets(work.sheets(), id);
+        }
+        return id;
+    }
+
+    /**
+     * Adds all books to the catalog
+     *
+     * @param summaries book summaries
+     */
+    public void addAll(Iterable<BookSummary> summaries) {
+        summaries.forEach(this::add);
+    }
+
+    /**
+     * Gives the book by identifier
+     *
+     * @param id book identifier
+     * @return book summary
+     */
+    public BookSummary get(int id) {
+        return books.get(id);
+    }
+
+    /**
+     * Gives the number of books in the catalog
+     *
+     * @return books count
+     */
+    public int size() {
+        return books.size();
+    }
+
+    /**
+     * Gives the number of books with the indexed value
+     *
+     * @param field indexed field
+     * @param value field value
+     * @return books count
+     */
+    public int count(Field field, String value) {
+        IntPostings postings = indexes.get(field).get(Field.normalize(value));
+        return postings == null ? 0 : postings.size();
+    }
+
+    /**
+     * Finds the book identifiers
+     *
+     * @param query catalog query
+     * @return sorted book identifiers
+     */
+    public int[] find(Query query) {
+        Ids ids = eval(query);
+        return Arrays.copyOf(ids.ids(), ids.size());
+    }
+
+    /**
+     * Finds the books
+     *
+     * @param query catalog query
+     * @return book summaries in the catalog order
+     */
+    public List<BookSummary> search(Query query) {
+        Ids ids = eval(query);
+        List<BookSummary> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++)
+            result.add(books.get(ids.ids()[i]));
+        return result;
+    }
+
+    /**
+     * Evaluates the query. The term results refer to the posting arrays without copying
+     */
+    private Ids eval(Query query) {
+        return switch (query) {
+            case Query.Term t -> {
+                IntPostings postings = indexes.get(t.field()).get(t.value());
+                yield postings == null ? Ids.EMPTY : new Ids(postings.array(), postings.size());
+            }
+            case Query.And and -> evalAll(and.queries());
+            case Query.Or or -> {
+                Ids result = Ids.EMPTY;
+                for (Query q : or.queries()) {
+                    Ids ids = eval(q);
+                    int[] union = IntPostings.union(result.ids(), result.size(), ids.ids(), ids.size());
+                    result = new Ids(union, union.length);
+                }
+                yield result;
+            }
+        };
+    }
+
+    /**
+     * Intersects the sub query results from the smallest one
+     */
+    private Ids evalAll(List<Query> queries) {
+        Ids[] results = new Ids[queries.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = eval(queries.get(i));
+            if (results[i].size() == 0) return Ids.EMPTY;
+        }
+        Arrays.sort(results, (a, b) -> Integer.compare(a.size(), b.size()));
+        Ids result = results[0];
+        for (int i = 1; i < results.length && result.size() > 0; i++) {
+            int[] intersection = IntPostings.intersect(result.ids(), result.size(), results[i].ids(), results[i].size());
+            result = new Ids(intersection, intersection.length);
+        }
+        return result;
+    }
+
+    private void indexAuthors(List<BookRecord.Author> authors, int id) {
+        for (BookRecord.Author author : authors) {
+            index(Field.AUTHOR_GUID, author.guid(), id);
+            index(Field.AUTHOR_NAME, author.name(), id);
+        }
+    }
+
+    private void indexSheets(BookRecord.Sheets sheets, int id) {
+        index(Field.KEY, sheets.key(), id);
+        index(Field.CATALOG_NUMBER, sheets.catalogNumber(), id);
+        for (String instrument : sheets.instruments().split("[,;]"))
+            index(Field.INSTRUMENT, instrument, id);
+    }
+
+    private void index(Field field, UUID value, int id) {
+        if (value != null)
+            index(field, value.toString(), id);
+    }
+
+    private void index(Field field, String value, int id) {
+        if (value == null || value.isBlank()) return;
+        indexes.get(field).computeIfAbsent(Field.normalize(value), v -> new IntPostings()).add(id);
+    }
+
+    /**
+     * Query result: the first {@code size} elements of the sorted array
+     */
+    private record Ids(int[] ids, int size) {
+        static final Ids EMPTY = new Ids(new int[0], 0);
+    }
+}
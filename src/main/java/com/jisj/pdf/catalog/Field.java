@@ -0,0 +1,53 @@
+package com.jisj.pdf.catalog;
+
+import java.util.Locale;
+
+/**
+ * Indexed fields of the book catalog
+ */
+public enum Field {
+    /**
+     * Book GUID
+     */
+    BOOK_GUID,
+    /**
+     * Work GUID
+     */
+    WORK_GUID,
+    /**
+     * Book or work author GUID
+     */
+    AUTHOR_GUID,
+    /**
+     * Book or work author name
+     */
+    AUTHOR_NAME,
+    /**
+     * Book or work genre
+     */
+    GENRE,
+    /**
+     * Book or work title
+     */
+    TITLE,
+    /**
+     * Music sheets key
+     */
+    KEY,
+    /**
+     * Music sheets instrument. The instruments list is divided by comma or semicolon
+     */
+    INSTRUMENT,
+    /**
+     * Music sheets catalog number
+     */
+    CATALOG_NUMBER,
+    /**
+     * Preferred shelf
+     */
+    SHELF;
+
+    static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+}
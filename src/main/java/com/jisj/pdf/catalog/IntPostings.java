@@ -0,0 +1,115 @@
+package com.jisj.pdf.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Growable sorted list of book identifiers
+ * <p>The identifiers are appended in ascending order, so the list is always sorted and has no duplicates</p>
+ */
+class IntPostings {
+    private static final int GALLOP_RATIO = 8;
+    private int[] ids = new int[4];
+    private int size;
+
+    /**
+     * Appends the identifier. The identifier equal to the last one is ignored
+     *
+     * @param id book identifier, not less than the last one
+     */
+    void add(int id) {
+        if (size > 0 && ids[size - 1] == id) return;
+        if (size == ids.length)
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        ids[size++] = id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gives the backing array. Only the first {@link #size()} elements are valid
+     *
+     * @return identifiers array
+     */
+    int[] array() {
+        return ids;
+    }
+
+    /**
+     * Intersects two sorted arrays. The arrays of similar size are merged linearly, otherwise the smaller array
+     * is walked and the larger one is searched with galloping
+     *
+     * @param a    sorted array
+     * @param aLen number of elements in {@code a}
+     * @param b    sorted array
+     * @param bLen number of elements in {@code b}
+     * @return sorted intersection
+     */
+    static int[] intersect(int[] a, int aLen, int[] b, int bLen) {
+        if (aLen > bLen) return intersect(b, bLen, a, aLen);
+        int[] result = new int[aLen];
+        int n = 0;
+        if (bLen < aLen * GALLOP_RATIO) {
+            for (int i = 0, j = 0; i < aLen && j < bLen; ) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else {
+                    result[n++] = a[i++];
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, n);
+        }
+        int from = 0;
+        for (int i = 0; i < aLen && from < bLen; i++) {
+            int id = a[i];
+            from = gallop(b, from, bLen, id);
+            if (from < bLen && b[from] == id)
+                result[n++] = id;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Merges two sorted arrays without duplicates
+     *
+     * @param a    sorted array
+     * @param aLen number of elements in {@code a}
+     * @param b    sorted array
+     * @param bLen number of elements in {@code b}
+     * @return sorted union
+     */
+    static int[] union(int[] a, int aLen, int[] b, int bLen) {
+        int[] result = new int[aLen + bLen];
+        int i = 0, j = 0, n = 0;
+        while (i < aLen && j < bLen) {
+            if (a[i] < b[j]) result[n++] = a[i++];
+            else if (a[i] > b[j]) result[n++] = b[j++];
+            else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < aLen) result[n++] = a[i++];
+        while (j < bLen) result[n++] = b[j++];
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Finds the first position with value not less than the key
+     */
+    private static int gallop(int[] array, int from, int to, int key) {
+        int bound = 1;
+        int low = from;
+        while (from + bound < to && array[from + bound] < key) {
+            low = from + bound;
+            bound <<= 1;
+        }
+        int high = Math.min(from + bound, to - 1);
+        if (array[low] >= key) return low;
+        int pos = Arrays.binarySearch(array, low + 1, high + 1, key);
+        if (pos >= 0) return pos;
+        return -pos - 1;
+    }
+}
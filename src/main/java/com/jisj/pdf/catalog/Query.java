@@ -0,0 +1,150 @@
+package com.jisj.pdf.catalog;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Book catalog query
+ * <p>Example: {@code Query.and(Query.genre("Baroque"), Query.instrument("Lute"))}</p>
+ */
+public sealed interface Query {
+
+    /**
+     * Books with the indexed field value. Text values are compared case-insensitive
+     *
+     * @param field indexed field
+     * @param value field value
+     * @return term query
+     */
+    static Query term(Field field, String value) {
+        return new Term(field, value);
+    }
+
+    /**
+     * Books with the author GUID on the book or work level
+     *
+     * @param guid author GUID
+     * @return term query
+     */
+    static Query author(UUID guid) {
+        return term(Field.AUTHOR_GUID, guid.toString());
+    }
+
+    /**
+     * Books with the author name on the book or work level
+     *
+     * @param name author name
+     * @return term query
+     */
+    static Query authorName(String name) {
+        return term(Field.AUTHOR_NAME, name);
+    }
+
+    /**
+     * Books with the genre on the book or work level
+     *
+     * @param genre genre value
+     * @return term query
+     */
+    static Query genre(String genre) {
+        return term(Field.GENRE, genre);
+    }
+
+    /**
+     * Books with the music sheets instrument on the book or work level
+     *
+     * @param instrument instrument name
+     * @return term query
+     */
+    static Query instrument(String instrument) {
+        return term(Field.INSTRUMENT, instrument);
+    }
+
+    /**
+     * Books with the music sheets key on the book or work level
+     *
+     * @param key music key, ex: F-dur
+     * @return term query
+     */
+    static Query key(String key) {
+        return term(Field.KEY, key);
+    }
+
+    /**
+     * Books with the catalog number on the book or work level
+     *
+     * @param catalogNumber composer catalog number
+     * @return term query
+     */
+    static Query catalogNumber(String catalogNumber) {
+        return term(Field.CATALOG_NUMBER, catalogNumber);
+    }
+
+    /**
+     * Books with the preferred shelf
+     *
+     * @param shelf shelf value
+     * @return term query
+     */
+    static Query shelf(String shelf) {
+        return term(Field.SHELF, shelf);
+    }
+
+    /**
+     * Books matching all queries
+     *
+     * @param queries sub queries
+     * @return conjunction query
+     */
+    static Query and(Query... queries) {
+        return new And(List.of(queries));
+    }
+
+    /**
+     * Books matching any query
+     *
+     * @param queries sub queries
+     * @return disjunction query
+     */
+    static Query or(Query... queries) {
+        return new Or(List.of(queries));
+    }
+
+    /**
+     * Indexed field value query
+     *
+     * @param field field
+     * @param value field value, it is normalized
+     */
+    record Term(Field field, String value) implements Query {
+        public Term {
+            value = Field.normalize(value);
+        }
+    }
+
+    /**
+     * Conjunction query
+     *
+     * @param queries sub queries
+     */
+    record And(List<Query> queries) implements Query {
+        public And {
+            if (queries.isEmpty())
+                throw new IllegalArgumentException("Unexpected queries count = 0");
+            queries = List.copyOf(queries);
+        }
+    }
+
+    /**
+     * Disjunction query
+     *
+     * @param queries sub queries
+     */
+    record Or(List<Query> queries) implements Query {
+        public Or {
+            if (queries.isEmpty())
+                throw new IllegalArgumentException("Unexpected queries count = 0");
+            queries = List.copyOf(queries);
+        }
+    }
+}
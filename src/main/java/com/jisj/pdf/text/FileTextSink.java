@@ -0,0 +1,124 @@
+package com.jisj.pdf.text;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page order file sink
+ * <p>The pages of a range are received in the page order, so every run of the consecutive pages is written
+ * to its own temporary part file as soon as the page is received. The parts are concatenated in the page order
+ * at the end: no page text is kept in memory</p>
+ */
+class FileTextSink implements PageTextSink {
+    private static final char PAGE_END = '\f';
+
+    private final Path file;
+    private final List<Part> parts = new ArrayList<>();
+    private final Map<Integer, Part> byNextPage = new HashMap<>();
+    private Path dir;
+    private int pageCount;
+
+    FileTextSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void begin(Path book, int pageCount) throws IOException {
+        dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        parts.clear();
+        byNextPage.clear();
+        this.pageCount = pageCount;
+    }
+
+    @Override
+    public void page(int pageIndex, String text) throws IOException {
+        Part part = byNextPage.remove(pageIndex);
+        if (part == null) {
+            part = new Part(pageIndex, Files.createTempFile(dir, "." + file.getFileName(), ".part"));
+            parts.add(part);
+            part.writer = new BufferedWriter(Files.newBufferedWriter(part.file, StandardCharsets.UTF_8), 1 << 16);
+        }
+        part.writer.write(text);
+        part.writer.write(PAGE_END);
+        part.end = pageIndex + 1;
+        byNextPage.put(part.end, part);
+    }
+
+    @Override
+    public void end() throws IOException {
+        Path temp = null;
+        try {
+            parts.sort(Comparator.comparingInt(p -> p.start));
+            int next = 0;
+            for (Part part : parts) {
+                if (part.start != next) break;
+                next = part.end;
+            }
+            if (next != pageCount)
+                throw new IOException("Missing page " + next + " of " + file);
+            temp = Files.createTempFile(dir, "." + file.getFileName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                for (Part part : parts) {
+                    part.writer.close();
+                    Files.copy(part.file, out);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            deleteParts();
+            if (temp != null)
+                Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void abort() {
+        try {
+            deleteParts();
+        } catch (IOException ignored) {
+            // the temporary files are left in the target directory
+        }
+    }
+
+    private void deleteParts() throws IOException {
+        IOException error = null;
+        for (Part part : parts) {
+            try {
+                part.writer.close();
+                Files.deleteIfExists(part.file);
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+        }
+        parts.clear();
+        byNextPage.clear();
+        if (error != null) throw error;
+    }
+
+    /**
+     * Temporary file of the consecutive pages from {@code start} to {@code end} exclusive
+     */
+    private static class Part {
+        private final int start;
+        private final Path file;
+        private int end;
+        private Writer writer;
+
+        Part(int start, Path file) {
+            this.start = start;
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package com.jisj.pdf.text;
+
+import com.jisj.pdf.PDFException;
+import com.jisj.pdf.PDFFactory;
+import com.jisj.pdf.xmp.BookRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Embedded full-text index of the book pages
+ * <p>The index maps the terms (see {@link Tokenizer}) to the {@code (book, page)} postings. The books get
+ * sequential identifiers, the added pages are buffered in memory and written to an immutable memory-mapped
+ * segment on {@link #commit()} or when the buffer is full. The tail segments of similar size are merged
+ * on commit, so the number of segments grows logarithmically and each posting is rewritten a few times only.
+ * The books removed or re-indexed are hidden from the results and purged on merge. The full {@link #merge()}
+ * renumbers the live books, so the removed books leave the manifest too</p>
+ * <p>Index directory: {@value #MANIFEST} - books and segments list, {@code seg-<n>.pts} - segments.
+ * The manifest is written to a temporary file, which is atomically moved over the old one, the replaced
+ * segments are deleted after that</p>
+ * <p>The index is thread-safe. The sinks may be used concurrently, each book is added at its sink end</p>
+ */
+public class FullTextIndex implements Closeable {
+    static final String MANIFEST = "index.dat";
+    private static final int MAGIC = 0x50544931; // "PTI1"
+    private static final int VERSION = 1;
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".pts";
+
+    private final Path dir;
+    private final List<Book> books = new ArrayList<>();
+    private final Map<String, Integer> liveIds = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private final List<IndexSegment> obsolete = new ArrayList<>();
+    private Map<String, LongPostings> buffer = new HashMap<>();
+    private long bufferedPostings;
+    private int nextSegment;
+    private boolean dirty;
+    private int maxBufferedPostings = 1 << 20;
+    private int mergeFactor = 8;
+
+    private FullTextIndex(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Opens the index directory. The directory is created when it doesn't exist
+     * <p>The segment files which are not listed in the manifest are left by an interrupted commit,
+     * they are deleted</p>
+     *
+     * @param dir index directory
+     * @return index object
+     * @throws IOException files reading error or unexpected manifest format
+     */
+    public static FullTextIndex open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        FullTextIndex index = new FullTextIndex(dir);
+        Path manifest = dir.resolve(MANIFEST);
+        Set<Path> listed = new HashSet<>();
+        if (Files.exists(manifest)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest), 1 << 16))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                    throw new IOException("Unexpected index manifest format: " + manifest);
+                index.nextSegment = in.readInt();
+                int count = in.readInt();
+                for (int id = 0; id < count; id++) {
+                    byte[] path = new byte[in.readInt()];
+                    in.readFully(path);
+                    UUID guid = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+                    Book book = new Book(Path.of(new String(path, StandardCharsets.UTF_8)), guid);
+                    index.books.add(book);
+                    if (in.readBoolean()) index.deleted.set(id);
+                    else index.liveIds.put(book.path().toString(), id);
+                }
+                int segmentCount = in.readInt();
+                for (int i = 0; i < segmentCount; i++) {
+                    Path file = dir.resolve(SEGMENT_PREFIX + in.readInt() + SEGMENT_SUFFIX);
+                    listed.add(file);
+                    index.segments.add(IndexSegment.open(file));
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files)
+                if (!listed.contains(file))
+                    index.deleteSegment(file);
+        }
+        return index;
+    }
+
+    /**
+     * Gives the maximum number of the buffered postings
+     *
+     * @return postings count
+     */
+    public int getMaxBufferedPostings() {
+        return maxBufferedPostings;
+    }
+
+    /**
+     * Sets the maximum number of the buffered postings. The buffer is committed when it's full. Default: 1M
+     *
+     * @param maxBufferedPostings postings count
+     * @throws IllegalArgumentException when {@code maxBufferedPostings < 1}
+     */
+    public void setMaxBufferedPostings(int maxBufferedPostings) {
+        if (maxBufferedPostings < 1)
+            throw new IllegalArgumentException("Unexpected maxBufferedPostings value = " + maxBufferedPostings);
+        this.maxBufferedPostings = maxBufferedPostings;
+    }
+
+    /**
+     * Gives the number of the tail segments of similar size which are merged
+     *
+     * @return segments count
+     */
+    public int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    /**
+     * Sets the number of the tail segments of similar size which are merged. Default: 8
+     *
+     * @param mergeFactor segments count
+     * @throws IllegalArgumentException when {@code mergeFactor < 2}
+     */
+    public void setMergeFactor(int mergeFactor) {
+        if (mergeFactor < 2)
+            throw new IllegalArgumentException("Unexpected mergeFactor value = " + mergeFactor);
+        this.mergeFactor = mergeFactor;
+    }
+
+    /**
+     * Gives the number of the indexed books, not removed
+     *
+     * @return books count
+     */
+    public synchronized int size() {
+        return liveIds.size();
+    }
+
+    /**
+     * Gives the number of the index segments
+     *
+     * @return segments count
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Checks the book is indexed
+     *
+     * @param book path to PDF file
+     * @return {@code true} if the book is indexed and not removed
+     */
+    public synchronized boolean contains(Path book) {
+        return liveIds.containsKey(book.toString());
+    }
+
+    /**
+     * Creates the sink which adds the book to the index at the extraction end. The book which is already indexed
+     * is replaced
+     *
+     * @param book path to PDF file, the result link
+     * @param guid book GUID | {@code null}
+     * @return new sink object
+     */
+    public PageTextSink sink(Path book, UUID guid) {
+        return new BookSink(book, guid);
+    }
+
+    /**
+     * Extracts the book text and adds the book to the index. The GUID is read from the book schema
+     *
+     * @param extractor text extractor
+     * @param book      path to PDF file
+     * @return number of the document pages
+     * @throws IOException  document reading error or index writing error
+     * @throws PDFException metadata parsing error
+     */
+    public int add(TextExtractor extractor, Path book) throws IOException, PDFException {
+        BookRecord record = PDFFactory.readMetadataOnly(book).getBookRecord();
+        return extractor.extract(book, sink(book, record == null ? null : record.guid()));
+    }
+
+    /**
+     * Removes the book from the index
+     *
+     * @param book path to PDF file
+     * @return {@code true} if the book was indexed
+     */
+    public synchronized boolean remove(Path book) {
+        Integer id = liveIds.remove(book.toString());
+        if (id == null) return false;
+        deleted.set(id);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Finds the pages which contain all words of the query
+     *
+     * @param query words divided by spaces or punctuation, case-insensitive
+     * @return found pages ordered by the book indexing order and the page index | empty list
+     */
+    public synchronized List<Hit> search(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        Tokenizer.tokenize(query, terms::add);
+        if (terms.isEmpty()) return List.of();
+        LongPostings[] lists = new LongPostings[terms.size()];
+        int n = 0;
+        for (String term : terms) {
+            LongPostings postings = postings(term);
+            if (postings.size() == 0) return List.of();
+            lists[n++] = postings;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+        long[] keys = Arrays.copyOf(lists[0].array(), lists[0].size());
+        for (int i = 1; i < lists.length && keys.length > 0; i++)
+            keys = LongPostings.intersect(keys, keys.length, lists[i].array(), lists[i].size());
+        List<Hit> hits = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            int id = LongPostings.book(key);
+            if (deleted.get(id)) continue;
+            Book book = books.get(id);
+            hits.add(new Hit(book.path(), book.guid(), LongPostings.page(key)));
+        }
+        return hits;
+    }
+
+    /**
+     * Collects the term postings of the segments and the buffer. The book identifiers grow from the oldest
+     * segment to the buffer, so the concatenation is sorted
+     */
+    private LongPostings postings(String term) {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        LongPostings result = new LongPostings();
+        for (IndexSegment segment : segments) {
+            int index = segment.find(bytes);
+            if (index >= 0)
+                segment.postings(index, result);
+        }
+        LongPostings buffered = buffer.get(term);
+        if (buffered != null)
+            result.addAll(buffered.array(), buffered.size());
+        return result;
+    }
+
+    /**
+     * Writes the buffered postings to a new segment, merges the tail segments and writes the manifest
+     *
+     * @throws IOException files writing error
+     */
+    public synchronized void commit() throws IOException {
+        if (!buffer.isEmpty()) {
+            flushBuffer();
+            mergeTail();
+        }
+        if (dirty)
+            writeManifest();
+    }
+
+    /**
+     * Merges all segments to one, purges the removed books postings and drops the removed books.
+     * Nothing is rewritten when there is one segment and no removed books
+     *
+     * @throws IOException files writing error
+     */
+    public synchronized void merge() throws IOException {
+        if (!buffer.isEmpty())
+            flushBuffer();
+        if (segments.size() > 1 || !deleted.isEmpty()) {
+            int[] newIds = deleted.isEmpty() ? null : newIds();
+            if (!segments.isEmpty())
+                merge(0, segments.size(), newIds);
+            if (newIds != null)
+                dropDeleted(newIds);
+        }
+        if (dirty)
+            writeManifest();
+    }
+
+    /**
+     * Gives the identifiers of the live books after the removed books are dropped
+     *
+     * @return new identifier by the old one | {@code -1} for the removed book
+     */
+    private int[] newIds() {
+        int[] newIds = new int[books.size()];
+        int next = 0;
+        for (int id = 0; id < newIds.length; id++)
+            newIds[id] = deleted.get(id) ? -1 : next++;
+        return newIds;
+    }
+
+    private void dropDeleted(int[] newIds) {
+        List<Book> live = new ArrayList<>(liveIds.size());
+        for (int id = 0; id < newIds.length; id++)
+            if (newIds[id] >= 0)
+                live.add(books.get(id));
+        books.clear();
+        books.addAll(live);
+        deleted.clear();
+        liveIds.clear();
+        for (int id = 0; id < books.size(); id++)
+            liveIds.put(books.get(id).path().toString(), id);
+        dirty = true;
+    }
+
+    /**
+     * Commits the index. The mapped segments are released by GC
+     *
+     * @throws IOException files writing error
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        commit();
+    }
+
+    private synchronized void addBook(Path path, UUID guid, Map<String, BitSet> pages) throws IOException {
+        int id = books.size();
+        books.add(new Book(path, guid));
+        Integer replaced = liveIds.put(path.toString(), id);
+        if (replaced != null)
+            deleted.set(replaced);
+        for (Map.Entry<String, BitSet> e : pages.entrySet()) {
+            LongPostings postings = buffer.computeIfAbsent(e.getKey(), t -> new LongPostings());
+            BitSet bits = e.getValue();
+            for (int page = bits.nextSetBit(0); page >= 0; page = bits.nextSetBit(page + 1))
+                postings.add(LongPostings.key(id, page));
+            bufferedPostings += bits.cardinality();
+        }
+        dirty = true;
+        if (bufferedPostings >= maxBufferedPostings)
+            commit();
+    }
+
+    private void flushBuffer() throws IOException {
+        List<TermPostings> terms = new ArrayList<>(buffer.size());
+        buffer.forEach((term, postings) -> terms.add(new TermPostings(term.getBytes(StandardCharsets.UTF_8), postings)));
+        terms.sort((a, b) -> Arrays.compareUnsigned(a.term(), b.term()));
+        Path file = newSegmentFile();
+        try (IndexSegment.Writer writer = new IndexSegment.Writer(file)) {
+            for (TermPostings t : terms)
+                writer.add(t.term(), t.postings().array(), t.postings().size());
+            writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        segments.add(IndexSegment.open(file));
+        buffer = new HashMap<>();
+        bufferedPostings = 0;
+        dirty = true;
+    }
+
+    /**
+     * Merges the last {@link #mergeFactor} segments while they are on the same size level
+     */
+    private void mergeTail() throws IOException {
+        while (segments.size() >= mergeFactor) {
+            int from = segments.size() - mergeFactor;
+            int level = level(segments.get(from));
+            for (int i = from + 1; i < segments.size(); i++)
+                if (level(segments.get(i)) != level) return;
+            merge(from, segments.size(), null);
+        }
+    }
+
+    private int level(IndexSegment segment) {
+        long size = Math.max(1, segment.postingsTotal() / Math.max(1, maxBufferedPostings / mergeFactor));
+        return (int) (Math.log(size) / Math.log(mergeFactor));
+    }
+
+    /**
+     * Merges the adjacent segments to one. The terms are merged by a priority queue, the postings of every
+     * term are concatenated in the segment order without the removed books
+     *
+     * @param newIds new book identifiers, see {@link #newIds()} | {@code null} - the identifiers are kept
+     */
+    private void merge(int from, int to, int[] newIds) throws IOException {
+        List<IndexSegment> merged = List.copyOf(segments.subList(from, to));
+        PriorityQueue<TermCursor> queue = new PriorityQueue<>();
+        for (int i = 0; i < merged.size(); i++)
+            if (merged.get(i).termCount() > 0)
+                queue.add(new TermCursor(merged.get(i), i));
+        Path file = newSegmentFile();
+        try (IndexSegment.Writer writer = new IndexSegment.Writer(file)) {
+            LongPostings postings = new LongPostings(1024);
+            LongPostings live = new LongPostings(1024);
+            List<TermCursor> same = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                byte[] term = queue.peek().term;
+                same.clear();
+                while (!queue.isEmpty() && Arrays.equals(queue.peek().term, term))
+                    same.add(queue.poll());
+                postings.clear();
+                for (TermCursor cursor : same) {
+                    cursor.segment.postings(cursor.index, postings);
+                    if (cursor.next())
+                        queue.add(cursor);
+                }
+                LongPostings written = purge(postings, live, newIds);
+                writer.add(term, written.array(), written.size());
+            }
+            writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        IndexSegment segment = IndexSegment.open(file);
+        segments.subList(from, to).clear();
+        segments.add(from, segment);
+        obsolete.addAll(merged);
+        dirty = true;
+    }
+
+    /**
+     * Copies the postings of the live books. The new identifiers keep the books order, so the postings stay sorted
+     */
+    private LongPostings purge(LongPostings postings, LongPostings target, int[] newIds) {
+        if (deleted.isEmpty()) return postings;
+        target.clear();
+        long[] keys = postings.array();
+        for (int i = 0; i < postings.size(); i++) {
+            int book = LongPostings.book(keys[i]);
+            if (!deleted.get(book))
+                target.add(newIds == null ? keys[i] : LongPostings.key(newIds[book], LongPostings.page(keys[i])));
+        }
+        return target;
+    }
+
+    private Path newSegmentFile() {
+        return dir.resolve(SEGMENT_PREFIX + nextSegment++ + SEGMENT_SUFFIX);
+    }
+
+    private void writeManifest() throws IOException {
+        Path manifest = dir.resolve(MANIFEST);
+        Path temp = Files.createTempFile(dir, "." + MANIFEST, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(nextSegment);
+                out.writeInt(books.size());
+                for (int id = 0; id < books.size(); id++) {
+                    Book book = books.get(id);
+                    byte[] path = book.path().toString().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(path.length);
+                    out.write(path);
+                    out.writeBoolean(book.guid() != null);
+                    if (book.guid() != null) {
+                        out.writeLong(book.guid().getMostSignificantBits());
+                        out.writeLong(book.guid().getLeastSignificantBits());
+                    }
+                    out.writeBoolean(deleted.get(id));
+                }
+                out.writeInt(segments.size());
+                for (IndexSegment segment : segments) {
+                    String name = segment.file().getFileName().toString();
+                    out.writeInt(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                }
+            }
+            Files.move(temp, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        dirty = false;
+        for (IndexSegment segment : obsolete)
+            deleteSegment(segment.file());
+        obsolete.clear();
+    }
+
+    /**
+     * Deletes the segment file. The file which is still mapped can't be deleted on some platforms,
+     * it's deleted on the next opening
+     */
+    private void deleteSegment(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // deleted on the next opening
+        }
+    }
+
+    /**
+     * Found page
+     *
+     * @param book      path to PDF file
+     * @param guid      book GUID | {@code null}
+     * @param pageIndex page index, 0-based
+     */
+    public record Hit(Path book, UUID guid, int pageIndex) {
+    }
+
+    private record Book(Path path, UUID guid) {
+    }
+
+    private record TermPostings(byte[] term, LongPostings postings) {
+    }
+
+    /**
+     * Current term of the merged segment
+     */
+    private static class TermCursor implements Comparable<TermCursor> {
+        final IndexSegment segment;
+        final int order;
+        int index;
+        byte[] term;
+
+        TermCursor(IndexSegment segment, int order) {
+            this.segment = segment;
+            this.order = order;
+            this.term = segment.term(0);
+        }
+
+        boolean next() {
+            if (++index >= segment.termCount()) return false;
+            term = segment.term(index);
+            return true;
+        }
+
+        @Override
+        public int compareTo(TermCursor o) {
+            int cmp = Arrays.compareUnsigned(term, o.term);
+            return cmp != 0 ? cmp : Integer.compare(order, o.order);
+        }
+    }
+
+    /**
+     * Collects the book terms and adds the book at the extraction end
+     */
+    private class BookSink implements PageTextSink {
+        private final Path book;
+        private final UUID guid;
+        private Map<String, BitSet> pages = new HashMap<>();
+
+        BookSink(Path book, UUID guid) {
+            this.book = book;
+            this.guid = guid;
+        }
+
+        @Override
+        public void begin(Path book, int pageCount) {
+            pages = new HashMap<>();
+        }
+
+        @Override
+        public void page(int pageIndex, String text) {
+            Tokenizer.tokenize(text, term -> pages.computeIfAbsent(term, t -> new BitSet()).set(pageIndex));
+        }
+
+        @Override
+        public void end() throws IOException {
+            addBook(book, guid, pages);
+            pages = new HashMap<>();
+        }
+
+        @Override
+        public void abort() {
+            pages = new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.jisj.pdf.text;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Immutable memory-mapped segment of the full-text index
+ * <p>File format (big-endian): {@code int} magic, {@code int} version, postings lists, term bytes,
+ * term table, footer. The postings list is the sequence of varint pairs: the book identifier delta, then
+ * the page index for a new book or the page index delta minus one for the same book.
+ * The term table entry: {@code long} postings offset, {@code int} postings count, {@code int} term bytes offset,
+ * {@code int} term bytes length. The terms are sorted by the unsigned UTF-8 bytes.
+ * Footer: {@code long} term table offset, {@code long} postings total, {@code int} terms count, {@code int} magic</p>
+ * <p>Only the term table is searched on lookup, the postings are decoded on request</p>
+ */
+class IndexSegment {
+    private static final int MAGIC = 0x50545331; // "PTS1"
+    private static final int VERSION = 1;
+    private static final int ENTRY_SIZE = 20;
+    private static final int FOOTER_SIZE = 24;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long tableOffset;
+    private final long postingsTotal;
+    private final int termCount;
+
+    private IndexSegment(Path file, MappedByteBuffer buffer, long tableOffset, long postingsTotal, int termCount) {
+        this.file = file;
+        this.buffer = buffer;
+        this.tableOffset = tableOffset;
+        this.postingsTotal = postingsTotal;
+        this.termCount = termCount;
+    }
+
+    /**
+     * Maps the segment file
+     *
+     * @param file path to segment file
+     * @return segment object
+     * @throws IOException file reading error or unexpected file format
+     */
+    static IndexSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Unexpected index segment size: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            int footer = buffer.limit() - FOOTER_SIZE;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(footer + 20) != MAGIC)
+                throw new IOException("Unexpected index segment format: " + file);
+            return new IndexSegment(file, buffer, buffer.getLong(footer), buffer.getLong(footer + 8),
+                    buffer.getInt(footer + 16));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Unexpected index segment format: " + file, e);
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    /**
+     * Gives the number of postings of all terms
+     *
+     * @return postings count
+     */
+    long postingsTotal() {
+        return postingsTotal;
+    }
+
+    /**
+     * Finds the term
+     *
+     * @param term UTF-8 term bytes
+     * @return term index | {@code -1} when the term is not found
+     */
+    int find(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, term);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Gives the term bytes
+     *
+     * @param index term index
+     * @return UTF-8 term bytes
+     */
+    byte[] term(int index) {
+        int entry = entry(index);
+        byte[] term = new byte[buffer.getInt(entry + 16)];
+        buffer.get(buffer.getInt(entry + 12), term);
+        return term;
+    }
+
+    /**
+     * Gives the number of the term postings
+     *
+     * @param index term index
+     * @return postings count
+     */
+    int postingsCount(int index) {
+        return buffer.getInt(entry(index) + 8);
+    }
+
+    /**
+     * Decodes the term postings to the list
+     *
+     * @param index  term index
+     * @param target postings receiver
+     */
+    void postings(int index, LongPostings target) {
+        int entry = entry(index);
+        int count = buffer.getInt(entry + 8);
+        int[] pos = {(int) buffer.getLong(entry)};
+        int book = -1;
+        int page = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = readVarInt(pos);
+            if (delta == 0) {
+                page += readVarInt(pos) + 1;
+            } else {
+                book += delta;
+                page = readVarInt(pos);
+            }
+            target.add(LongPostings.key(book, page));
+        }
+    }
+
+    private int entry(int index) {
+        return (int) (tableOffset + (long) index * ENTRY_SIZE);
+    }
+
+    private int compareTerm(int index, byte[] term) {
+        int entry = entry(index);
+        int offset = buffer.getInt(entry + 12);
+        int length = buffer.getInt(entry + 16);
+        for (int i = 0, n = Math.min(length, term.length); i < n; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(offset + i), term[i]);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, term.length);
+    }
+
+    private int readVarInt(int[] pos) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(pos[0]++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    /**
+     * Segment file writer. The terms are added in ascending order of the unsigned UTF-8 bytes
+     */
+    static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream terms = new ByteArrayOutputStream(1 << 16);
+        private final ByteArrayOutputStream table = new ByteArrayOutputStream(1 << 16);
+        private final DataOutputStream tableOut = new DataOutputStream(table);
+        private final Path file;
+        private byte[] lastTerm;
+        private long position;
+        private long postingsTotal;
+        private int termCount;
+
+        Writer(Path file) throws IOException {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = 8;
+        }
+
+        /**
+         * Adds the term postings. The empty postings list is skipped
+         *
+         * @param term  UTF-8 term bytes
+         * @param keys  sorted posting keys
+         * @param count number of keys
+         * @throws IOException file writing error
+         */
+        void add(byte[] term, long[] keys, int count) throws IOException {
+            if (count == 0) return;
+            if (lastTerm != null && Arrays.compareUnsigned(lastTerm, term) >= 0)
+                throw new IllegalArgumentException("Unexpected term order: " + new String(term, StandardCharsets.UTF_8));
+            lastTerm = term;
+            tableOut.writeLong(position);
+            tableOut.writeInt(count);
+            tableOut.writeInt(terms.size());
+            tableOut.writeInt(term.length);
+            terms.write(term);
+            int book = -1;
+            int page = 0;
+            for (int i = 0; i < count; i++) {
+                int b = LongPostings.book(keys[i]);
+                int p = LongPostings.page(keys[i]);
+                if (b == book) {
+                    writeVarInt(0);
+                    writeVarInt(p - page - 1);
+                } else {
+                    writeVarInt(b - book);
+                    writeVarInt(p);
+                }
+                book = b;
+                page = p;
+            }
+            postingsTotal += count;
+            termCount++;
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write(value & 0x7F | 0x80);
+                value >>>= 7;
+                position++;
+            }
+            out.write(value);
+            position++;
+        }
+
+        /**
+         * Writes the term bytes, the term table and the footer. The term bytes offsets are shifted
+         * by the postings size
+         *
+         * @throws IOException file writing error or the segment exceeds 2 GB
+         */
+        void finish() throws IOException {
+            long termsOffset = position;
+            long tableOffset = termsOffset + terms.size();
+            if (tableOffset + table.size() + FOOTER_SIZE > Integer.MAX_VALUE)
+                throw new IOException("Index segment is too large: " + file);
+            terms.writeTo(out);
+            byte[] entries = table.toByteArray();
+            ByteBuffer view = ByteBuffer.wrap(entries);
+            for (int entry = 0; entry < entries.length; entry += ENTRY_SIZE)
+                view.putInt(entry + 12, (int) (view.getInt(entry + 12) + termsOffset));
+            out.write(entries);
+            out.writeLong(tableOffset);
+            out.writeLong(postingsTotal);
+            out.writeInt(termCount);
+            out.writeInt(MAGIC);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.jisj.pdf.text;
+
+import java.util.Arrays;
+
+/**
+ * Growable sorted list of page postings
+ * <p>The posting is the {@code long} key: the book identifier in the high half and the page index in the low half,
+ * see {@link #key(int, int)}. The keys are appended in ascending order, so the list is always sorted</p>
+ */
+class LongPostings {
+    private long[] keys;
+    private int size;
+
+    LongPostings() {
+        this(4);
+    }
+
+    LongPostings(int capacity) {
+        keys = new long[Math.max(capacity, 1)];
+    }
+
+    static long key(int book, int page) {
+        return (long) book << 32 | page;
+    }
+
+    static int book(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int page(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Appends the key
+     *
+     * @param key posting key, greater than the last one
+     */
+    void add(long key) {
+        if (size == keys.length)
+            keys = Arrays.copyOf(keys, size + (size >> 1) + 1);
+        keys[size++] = key;
+    }
+
+    /**
+     * Appends the keys
+     *
+     * @param other  sorted keys, the first one is greater than the last key of the list
+     * @param length number of keys in {@code other}
+     */
+    void addAll(long[] other, int length) {
+        if (size + length > keys.length)
+            keys = Arrays.copyOf(keys, Math.max(size + length, size + (size >> 1) + 1));
+        System.arraycopy(other, 0, keys, size, length);
+        size += length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gives the backing array. Only the first {@link #size()} elements are valid
+     *
+     * @return keys array
+     */
+    long[] array() {
+        return keys;
+    }
+
+    /**
+     * Intersects two sorted arrays
+     *
+     * @param a    sorted array
+     * @param aLen number of elements in {@code a}
+     * @param b    sorted array
+     * @param bLen number of elements in {@code b}
+     * @return sorted intersection
+     */
+    static long[] intersect(long[] a, int aLen, long[] b, int bLen) {
+        long[] result = new long[Math.min(aLen, bLen)];
+        int n = 0;
+        for (int i = 0, j = 0; i < aLen && j < bLen; ) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
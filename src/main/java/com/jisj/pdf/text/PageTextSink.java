@@ -0,0 +1,60 @@
+package com.jisj.pdf.text;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Receiver of the extracted page text
+ * <p>The methods are called by {@link TextExtractor} on the extracting thread only, the sink needn't be
+ * thread-safe. The pages of different ranges are received in the completion order: the page index
+ * grows within a range only</p>
+ */
+@FunctionalInterface
+public interface PageTextSink {
+
+    /**
+     * Starts the book extraction
+     *
+     * @param book      path to PDF file
+     * @param pageCount number of the document pages
+     * @throws IOException sink error, the extraction is stopped
+     */
+    default void begin(Path book, int pageCount) throws IOException {
+    }
+
+    /**
+     * Receives the page text
+     *
+     * @param pageIndex page index, 0-based
+     * @param text      page text
+     * @throws IOException sink error, the extraction is stopped
+     */
+    void page(int pageIndex, String text) throws IOException;
+
+    /**
+     * Ends the book extraction. The method is not called when the extraction failed
+     *
+     * @throws IOException sink error
+     */
+    default void end() throws IOException {
+    }
+
+    /**
+     * Aborts the book extraction after the document reading error or the sink error
+     */
+    default void abort() {
+    }
+
+    /**
+     * Creates the sink which writes the book text to the UTF-8 file in the page order
+     * <p>The pages are terminated by the form feed {@code '\f'}. The page runs are written to the temporary part
+     * files, which are concatenated to the temporary file moved over the target file at the end. The end fails
+     * when any page was not received</p>
+     *
+     * @param file target file path
+     * @return new sink object
+     */
+    static PageTextSink toFile(Path file) {
+        return new FileTextSink(file);
+    }
+}
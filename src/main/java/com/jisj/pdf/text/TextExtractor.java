@@ -0,0 +1,261 @@
+package com.jisj.pdf.text;
+
+import com.jisj.pdf.LoadOptions;
+import com.jisj.pdf.PDFFactory;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Page-parallel text extractor
+ * <p>The book is split to contiguous page ranges, one range per thread of the extraction pool. PDFBox documents
+ * are not thread-safe: every range is read from its own {@link PDDocument}. The page text is passed to the sink
+ * as soon as the page is extracted, the book text is not collected. The number of the extracted pages waiting
+ * for the sink is limited by {@link #getQueueCapacity()}: when the sink is slow the range threads wait</p>
+ */
+public class TextExtractor implements Closeable {
+    private final int threads;
+    private final ExecutorService pool;
+    private int minPagesPerRange = 8;
+    private int queueCapacity;
+    private boolean sortByPosition;
+    private LoadOptions loadOptions;
+
+    /**
+     * Creates the extractor
+     *
+     * @param threads extraction pool size, the maximum number of ranges of a book
+     * @throws IllegalArgumentException when {@code threads < 1}
+     */
+    public TextExtractor(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Unexpected threads value = " + threads);
+        this.threads = threads;
+        this.queueCapacity = threads * 4;
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Creates the extractor with the pool size equals the available processors count
+     */
+    public TextExtractor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Gives the extraction pool size
+     *
+     * @return threads count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gives the minimum number of pages in the range
+     *
+     * @return pages count
+     */
+    public int getMinPagesPerRange() {
+        return minPagesPerRange;
+    }
+
+    /**
+     * Sets the minimum number of pages in the range. Default: 8.
+     * A small book is not split to many ranges: every range opens the document
+     *
+     * @param minPagesPerRange pages count
+     * @throws IllegalArgumentException when {@code minPagesPerRange < 1}
+     */
+    public void setMinPagesPerRange(int minPagesPerRange) {
+        if (minPagesPerRange < 1)
+            throw new IllegalArgumentException("Unexpected minPagesPerRange value = " + minPagesPerRange);
+        this.minPagesPerRange = minPagesPerRange;
+    }
+
+    /**
+     * Gives the maximum number of pages waiting for the sink
+     *
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sets the maximum number of pages waiting for the sink. Default: {@code threads * 4}
+     *
+     * @param queueCapacity queue capacity
+     * @throws IllegalArgumentException when {@code queueCapacity < 1}
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("Unexpected queueCapacity value = " + queueCapacity);
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Sets the text sorting by the position on the page, see {@link PDFTextStripper#setSortByPosition(boolean)}
+     *
+     * @param sortByPosition {@code true} - sort the text
+     */
+    public void setSortByPosition(boolean sortByPosition) {
+        this.sortByPosition = sortByPosition;
+    }
+
+    /**
+     * Sets the document loading options of the ranges
+     *
+     * @param loadOptions options | {@code null} - PDFBox defaults
+     */
+    public void setLoadOptions(LoadOptions loadOptions) {
+        this.loadOptions = loadOptions;
+    }
+
+    /**
+     * Extracts the book text to the sink
+     * <p>The sink is called on the current thread. The first range reuses the document which was opened
+     * to count the pages</p>
+     *
+     * @param book path to PDF file
+     * @param sink page text receiver
+     * @return number of the document pages
+     * @throws IOException document reading error or sink error
+     */
+    public int extract(Path book, PageTextSink sink) throws IOException {
+        PDDocument document = read(book);
+        AtomicReference<PDDocument> first = new AtomicReference<>(document);
+        int pageCount = document.getNumberOfPages();
+        int ranges = Math.max(1, Math.min(threads, pageCount / minPagesPerRange));
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        List<Future<?>> tasks = new ArrayList<>(ranges);
+        boolean completed = false;
+        try {
+            sink.begin(book, pageCount);
+            for (int r = 0; r < ranges; r++) {
+                int start = (int) ((long) pageCount * r / ranges);
+                int end = (int) ((long) pageCount * (r + 1) / ranges);
+                AtomicReference<PDDocument> opened = r == 0 ? first : null;
+                tasks.add(pool.submit(() -> extractRange(book, opened, start, end, queue)));
+            }
+            for (int finished = 0; finished < ranges; ) {
+                Object item = queue.take();
+                if (item instanceof PageText page)
+                    sink.page(page.index(), page.text());
+                else if (item instanceof IOException e)
+                    throw e;
+                else
+                    finished++;
+            }
+            completed = true;
+            sink.end();
+            return pageCount;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Text extraction was interrupted: " + book, e);
+        } finally {
+            if (!completed) {
+                tasks.forEach(t -> t.cancel(true));
+                sink.abort();
+            }
+            // the first range was not started
+            PDDocument unused = first.getAndSet(null);
+            if (unused != null)
+                unused.close();
+        }
+    }
+
+    /**
+     * Extracts the page range and closes the document. The range end or the error is queued at the end
+     *
+     * @param opened opened document holder | {@code null} - the range opens its own document
+     */
+    private Void extractRange(Path book, AtomicReference<PDDocument> opened, int start, int end,
+                              BlockingQueue<Object> queue) throws InterruptedException {
+        PDDocument document = null;
+        if (opened != null) {
+            document = opened.getAndSet(null);
+            if (document == null) return null;
+        }
+        try (PDDocument range = document != null ? document : read(book)) {
+            PageStripper stripper = new PageStripper(queue);
+            stripper.setSortByPosition(sortByPosition);
+            stripper.setStartPage(start + 1);
+            stripper.setEndPage(end);
+            stripper.writeText(range, stripper.buffer);
+            queue.put(RangeEnd.INSTANCE);
+        } catch (PageInterrupted e) {
+            throw (InterruptedException) e.getCause();
+        } catch (IOException e) {
+            queue.put(e);
+        } catch (RuntimeException | Error e) {
+            queue.put(new IOException("Text extraction error: " + book + ", pages " + (start + 1) + "-" + end, e));
+        }
+        return null;
+    }
+
+    private PDDocument read(Path book) throws IOException {
+        return loadOptions == null ? PDFFactory.read(book) : PDFFactory.read(book, loadOptions);
+    }
+
+    /**
+     * Stops the extraction pool
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private record PageText(int index, String text) {
+    }
+
+    private enum RangeEnd {
+        INSTANCE
+    }
+
+    /**
+     * Interrupted page queuing, it unwinds the text stripper
+     */
+    private static class PageInterrupted extends RuntimeException {
+        PageInterrupted(InterruptedException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Text stripper which queues the text at the page end: the page tree is iterated once per range
+     */
+    private static class PageStripper extends PDFTextStripper {
+        private final StringWriter buffer = new StringWriter(4096);
+        private final BlockingQueue<Object> queue;
+
+        PageStripper(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            super.endPage(page);
+            String text = buffer.toString();
+            buffer.getBuffer().setLength(0);
+            try {
+                queue.put(new PageText(getCurrentPageNo() - 1, text));
+            } catch (InterruptedException e) {
+                throw new PageInterrupted(e);
+            }
+        }
+    }
+}
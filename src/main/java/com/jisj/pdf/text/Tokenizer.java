@@ -0,0 +1,62 @@
+package com.jisj.pdf.text;
+
+import java.text.Normalizer;
+import java.util.function.Consumer;
+
+/**
+ * Word tokenizer of the full-text index
+ * <p>The term is a run of Unicode letters, digits and combining marks, so Cyrillic and Latin words are split
+ * the same way. The text is NFC normalized, the terms are lower-cased and Cyrillic {@code 'ё'} is folded
+ * to {@code 'е'}. The terms shorter than {@link #MIN_LENGTH} characters are skipped, the longer than
+ * {@link #MAX_LENGTH} characters are truncated</p>
+ */
+final class Tokenizer {
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Splits the text to terms
+     *
+     * @param text     source text
+     * @param consumer terms receiver, the repeated terms are passed repeatedly
+     */
+    static void tokenize(String text, Consumer<String> consumer) {
+        if (!Normalizer.isNormalized(text, Normalizer.Form.NFC))
+            text = Normalizer.normalize(text, Normalizer.Form.NFC);
+        StringBuilder term = new StringBuilder(MAX_LENGTH);
+        int length = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isTermChar(cp)) {
+                if (length++ < MAX_LENGTH)
+                    term.appendCodePoint(fold(cp));
+            } else if (length > 0) {
+                emit(term, length, consumer);
+                term.setLength(0);
+                length = 0;
+            }
+        }
+        if (length > 0)
+            emit(term, length, consumer);
+    }
+
+    private static void emit(StringBuilder term, int length, Consumer<String> consumer) {
+        if (length >= MIN_LENGTH)
+            consumer.accept(term.toString());
+    }
+
+    private static boolean isTermChar(int cp) {
+        if (Character.isLetterOrDigit(cp)) return true;
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static int fold(int cp) {
+        int lower = Character.toLowerCase(cp);
+        return lower == 'ё' ? 'е' : lower;
+    }
+}
@@ -87,6 +87,18 @@ public class AuthorStruct extends ChildXMPStruct {
         setStructField(GUID, uuid.toString());
     }
 
+    /**
+     * Sets the author fields from the record. The empty language is not written
+     *
+     * @param author author properties
+     */
+    public void setFields(BookRecord.Author author) {
+        setStructField(NAME, author.name());
+        if (!author.lang().isEmpty())
+            setStructField(LANG, author.lang());
+        setGUID(author.guid());
+    }
+
     /**
      * Gives the author GUID
      *
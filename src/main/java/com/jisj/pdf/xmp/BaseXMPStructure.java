@@ -4,9 +4,13 @@ import com.adobe.internal.xmp.*;
 import com.adobe.internal.xmp.options.IteratorOptions;
 import com.adobe.internal.xmp.options.PropertyOptions;
 import com.adobe.internal.xmp.properties.XMPProperty;
+import com.adobe.internal.xmp.properties.XMPPropertyInfo;
 import com.jisj.pdf.Utils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static com.adobe.internal.xmp.XMPPathFactory.composeStructFieldPath;
@@ -15,6 +19,15 @@ import static com.adobe.internal.xmp.XMPPathFactory.composeStructFieldPath;
  * Base class for XMP schema
  */
 public class BaseXMPStructure {
+    /**
+     * Namespaces registered in the schema registry by this class, the registry lock is taken once per namespace
+     */
+    private static final Set<String> REGISTERED_NS = ConcurrentHashMap.newKeySet();
+    /**
+     * Root property name of the moved array item copy
+     */
+    private static final String MOVED_ITEM = "MovedItem";
+
     private final XMPMeta metadata;
     private final String nameSpace;
     private final String prefix;
@@ -63,8 +76,10 @@ public class BaseXMPStructure {
     }
 
     private void registerNS() {
+        if (REGISTERED_NS.contains(getNS())) return;
         try {
             XMPMetaFactory.getSchemaRegistry().registerNamespace(getNS(), getPrefix());
+            REGISTERED_NS.add(getNS());
         } catch (XMPException e) {
             throw new RuntimeException(e);
         }
@@ -244,6 +259,44 @@ public class BaseXMPStructure {
 
     }
 
+    /**
+     * Gives the lazy random access view of the structure array
+     * <p>The view reflects the current array size, an element object is created on {@code get} call only</p>
+     *
+     * @param nameSpace array name space
+     * @param arrayName array name
+     * @param element   element creator function: {@code <T> creator(String elementPath)}
+     * @param <T>       structure object
+     * @return unmodifiable list view
+     */
+    public <T> List<T> getArrayStructView(String nameSpace, String arrayName, Function<String, T> element) {
+        return new ArrayStructView<>(nameSpace, arrayName, element);
+    }
+
+    /**
+     * Iterates the structure array with one accessor object
+     * <p>The accessor is re-pointed to each element by {@link #setStructName(String)}. It is valid during
+     * the action call only and should not be kept</p>
+     *
+     * @param nameSpace array name space
+     * @param arrayName array name
+     * @param accessor  reusable element accessor
+     * @param action    element action
+     * @param <T>       structure object
+     */
+    public <T extends BaseXMPStructure> void forEachArrayStruct(String nameSpace, String arrayName, T accessor,
+                                                                Consumer<? super T> action) {
+        try {
+            int lastItemIndex = getMetadata().countArrayItems(nameSpace, arrayName);
+            for (int i = 1; i <= lastItemIndex; i++) {
+                accessor.setStructName(XMPPathFactory.composeArrayItemPath(arrayName, i));
+                action.accept(accessor);
+            }
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Gives the string array list
      *
@@ -302,6 +355,157 @@ public class BaseXMPStructure {
         }
     }
 
+    /**
+     * Replaces the array with the values in one pass
+     * <p>The empty collection removes the array</p>
+     *
+     * @param arrayNS       array namespace
+     * @param arrayPathName name or a general path expression of array
+     * @param arrayOptions  array form options: {@code PropertyOptions.ARRAY | ARRAY_ORDERED | ...}
+     * @param values        item values
+     */
+    public void setArray(String arrayNS, String arrayPathName, int arrayOptions, Collection<String> values) {
+        try {
+            getMetadata().deleteProperty(arrayNS, arrayPathName);
+            PropertyOptions options = Utils.newOptions(arrayOptions);
+            for (String value : values)
+                getMetadata().appendArrayItem(arrayNS, arrayPathName, options, value, null);
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Replaces the structure array with the items in one pass
+     * <p>The item index is tracked by the loop, the array is not looked up to count the items after each
+     * append. The empty list removes the array</p>
+     *
+     * @param arrayNS       array namespace
+     * @param arrayPathName name or a general path expression of array
+     * @param arrayOptions  array form options: {@code PropertyOptions.ARRAY | ARRAY_ORDERED | ...}
+     * @param items         item values
+     * @param filler        structure filler: {@code filler(String elementPath, T item)}
+     * @param <T>           item value type
+     */
+    public <T> void setArrayStruct(String arrayNS, String arrayPathName, int arrayOptions, List<T> items,
+                                   BiConsumer<String, ? super T> filler) {
+        try {
+            getMetadata().deleteProperty(arrayNS, arrayPathName);
+            PropertyOptions options = Utils.newOptions(arrayOptions);
+            int index = 0;
+            for (T item : items) {
+                getMetadata().appendArrayItem(arrayNS, arrayPathName, options, null,
+                        Utils.newOptions(PropertyOptions.STRUCT));
+                filler.accept(XMPPathFactory.composeArrayItemPath(arrayPathName, ++index), item);
+            }
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Replaces the value of the array item
+     *
+     * @param arrayNS       array namespace
+     * @param arrayPathName name or a general path expression of array
+     * @param index         item index, 0-based
+     * @param value         item value
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public void setArrayItem(String arrayNS, String arrayPathName, int index, String value) {
+        try {
+            Objects.checkIndex(index, getMetadata().countArrayItems(arrayNS, arrayPathName));
+            getMetadata().setArrayItem(arrayNS, arrayPathName, index + 1, value);
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Replaces the array item with the empty structure
+     *
+     * @param arrayNS       array namespace
+     * @param arrayPathName name or a general path expression of array
+     * @param index         item index, 0-based
+     * @return path to the new struct element in array
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public String resetArrayStructItem(String arrayNS, String arrayPathName, int index) {
+        try {
+            Objects.checkIndex(index, getMetadata().countArrayItems(arrayNS, arrayPathName));
+            getMetadata().deleteArrayItem(arrayNS, arrayPathName, index + 1);
+            getMetadata().insertArrayItem(arrayNS, arrayPathName, index + 1, null,
+                    Utils.newOptions(PropertyOptions.STRUCT));
+            return XMPPathFactory.composeArrayItemPath(arrayPathName, index + 1);
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Removes the array item
+     * <p>The array is removed with the last item</p>
+     *
+     * @param arrayNS       array namespace
+     * @param arrayPathName name or a general path expression of array
+     * @param index         item index, 0-based
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public void removeArrayItem(String arrayNS, String arrayPathName, int index) {
+        try {
+            int count = getMetadata().countArrayItems(arrayNS, arrayPathName);
+            Objects.checkIndex(index, count);
+            if (count == 1)
+                getMetadata().deleteProperty(arrayNS, arrayPathName);
+            else
+                getMetadata().deleteArrayItem(arrayNS, arrayPathName, index + 1);
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Moves the array item to the new position, the items between are shifted
+     * <p>The structure item is moved with the field subtrees. The simple item is moved with the value only</p>
+     *
+     * @param arrayNS       array namespace
+     * @param arrayPathName name or a general path expression of array
+     * @param from          current item index, 0-based
+     * @param to            new item index, 0-based
+     * @throws IndexOutOfBoundsException if an index is out of range
+     */
+    public void moveArrayItem(String arrayNS, String arrayPathName, int from, int to) {
+        try {
+            int count = getMetadata().countArrayItems(arrayNS, arrayPathName);
+            Objects.checkIndex(from, count);
+            Objects.checkIndex(to, count);
+            if (from == to) return;
+            String fromPath = XMPPathFactory.composeArrayItemPath(arrayPathName, from + 1);
+            XMPProperty item = getMetadata().getProperty(arrayNS, fromPath);
+            if (!item.getOptions().isStruct()) {
+                getMetadata().deleteArrayItem(arrayNS, arrayPathName, from + 1);
+                getMetadata().insertArrayItem(arrayNS, arrayPathName, to + 1, item.getValue());
+                return;
+            }
+            // XMPUtils.duplicateSubtree requires the absent destination, the fields are copied one by one
+            XMPMeta moved = XMPMetaFactory.create();
+            XMPUtils.duplicateSubtree(getMetadata(), moved, arrayNS, fromPath, arrayNS, MOVED_ITEM, null);
+            getMetadata().deleteArrayItem(arrayNS, arrayPathName, from + 1);
+            getMetadata().insertArrayItem(arrayNS, arrayPathName, to + 1, null,
+                    Utils.newOptions(PropertyOptions.STRUCT));
+            String toPath = XMPPathFactory.composeArrayItemPath(arrayPathName, to + 1);
+            XMPIterator fields = moved.iterator(arrayNS, MOVED_ITEM, new IteratorOptions().setJustChildren(true));
+            while (fields.hasNext()) {
+                String fieldPath = ((XMPPropertyInfo) fields.next()).getPath();
+                String field = fieldPath.substring(fieldPath.indexOf('/'));
+                XMPUtils.duplicateSubtree(moved, getMetadata(), arrayNS, MOVED_ITEM + field,
+                        arrayNS, toPath + field, null);
+            }
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 
     /**
      * Adds to XMP scheme custom properties
@@ -329,6 +533,40 @@ public class BaseXMPStructure {
 
 
 
+    /**
+     * Structure array view: the element objects are created on demand
+     */
+    private class ArrayStructView<T> extends AbstractList<T> implements RandomAccess {
+        private final String nameSpace;
+        private final String arrayName;
+        private final Function<String, T> element;
+
+        ArrayStructView(String nameSpace, String arrayName, Function<String, T> element) {
+            this.nameSpace = nameSpace;
+            this.arrayName = arrayName;
+            this.element = element;
+        }
+
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size());
+            try {
+                return element.apply(XMPPathFactory.composeArrayItemPath(arrayName, index + 1));
+            } catch (XMPException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public int size() {
+            try {
+                return getMetadata().countArrayItems(nameSpace, arrayName);
+            } catch (XMPException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "BaseXMPStructure{" +
@@ -0,0 +1,122 @@
+package com.jisj.pdf.xmp;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the book XMP schema
+ * <p>The record doesn't reference {@code XMPMeta} and may be shared between threads</p>
+ *
+ * @param title          book title
+ * @param guid           book GUID | {@code null}
+ * @param dateCreated    date of book created | {@code null}
+ * @param genres         genre list
+ * @param authors        author list
+ * @param sheets         music sheets properties
+ * @param works          work list
+ * @param preferredShelf preferred shelf | empty {@code String}
+ */
+public record BookRecord(Title title,
+                         UUID guid,
+                         LocalDate dateCreated,
+                         List<String> genres,
+                         List<Author> authors,
+                         Sheets sheets,
+                         List<Work> works,
+                         String preferredShelf) {
+
+    public BookRecord {
+        genres = List.copyOf(genres);
+        authors = List.copyOf(authors);
+        works = List.copyOf(works);
+    }
+
+    /**
+     * Creates the snapshot of the book schema
+     *
+     * @param schema book schema
+     * @return new record
+     */
+    public static BookRecord of(BookXMPSchema schema) {
+        return new BookRecord(Title.of(schema.getTitle()),
+                schema.getGUID().orElse(null),
+                schema.getDateCreated().orElse(null),
+                schema.getGenres(),
+                schema.getAuthors().stream().map(Author::of).toList(),
+                Sheets.of(schema.getSheets()),
+                schema.getWorks().stream().map(Work::of).toList(),
+                schema.getPreferredShelf());
+    }
+
+    /**
+     * Localized text
+     *
+     * @param content text | empty {@code String}
+     * @param lang    text language | empty {@code String}
+     */
+    public record Title(String content, String lang) {
+        static Title of(LocalizedText text) {
+            return new Title(text.getContent(), text.getLang());
+        }
+    }
+
+    /**
+     * Author properties
+     *
+     * @param name author name | empty {@code String}
+     * @param lang author name language | empty {@code String}
+     * @param guid author GUID | {@code null}
+     */
+    public record Author(String name, String lang, UUID guid) {
+        static Author of(AuthorStruct author) {
+            return new Author(author.getName(), author.getLang(), author.getGUID().orElse(null));
+        }
+    }
+
+    /**
+     * Music sheets properties
+     *
+     * @param key           music work key | empty {@code String}
+     * @param instruments   sheets instruments | empty {@code String}
+     * @param catalogNumber composer catalog number | empty {@code String}
+     * @param arrangedBy    transcription/arrangement author | empty {@code String}
+     */
+    public record Sheets(String key, String instruments, String catalogNumber, String arrangedBy) {
+        static Sheets of(MusicStruct sheets) {
+            return new Sheets(sheets.getKey(), sheets.getInstruments(), sheets.getCatalogNumber(), sheets.getArrangedBy());
+        }
+    }
+
+    /**
+     * Work properties
+     *
+     * @param title       work title
+     * @param guid        work GUID | {@code null}
+     * @param dateCreated date of work created | {@code null}
+     * @param genres      genre list
+     * @param authors     author list
+     * @param sheets      music sheets properties
+     */
+    public record Work(Title title,
+                       UUID guid,
+                       LocalDate dateCreated,
+                       List<String> genres,
+                       List<Author> authors,
+                       Sheets sheets) {
+
+        public Work {
+            genres = List.copyOf(genres);
+            authors = List.copyOf(authors);
+        }
+
+        static Work of(WorkStruct work) {
+            return new Work(Title.of(work.getTitle()),
+                    work.getGUID().orElse(null),
+                    work.getDateCreated().orElse(null),
+                    work.getGenres(),
+                    work.getAuthors().stream().map(Author::of).toList(),
+                    Sheets.of(work.getSheets()));
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.jisj.pdf.xmp;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPIterator;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.properties.XMPPropertyInfo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Single-pass decoder of the book XMP schema to {@link BookRecord}
+ * <p>The book schema subtree is walked once with {@link XMPIterator}. Each leaf property is dispatched by its path
+ * segments, so no path is composed and no property is looked up by path</p>
+ */
+public class BookRecordDecoder {
+    private BookRecordDecoder() {
+    }
+
+    /**
+     * Decodes the book schema
+     *
+     * @param metadata metadata object
+     * @return book record. The fields which are not defined have empty values
+     */
+    public static BookRecord decode(XMPMeta metadata) {
+        BookBuilder book = new BookBuilder();
+        PathCursor cursor = new PathCursor();
+        try {
+            XMPIterator i = metadata.iterator(BookXMPSchema.NS, null, null);
+            while (i.hasNext()) {
+                XMPPropertyInfo info = (XMPPropertyInfo) i.next();
+                if (info.getPath() == null || info.getOptions().isCompositeProperty() || info.getOptions().isQualifier())
+                    continue;
+                book.set(cursor.parse(info.getPath()), info.getValue());
+            }
+        } catch (XMPException e) {
+            throw new RuntimeException(e);
+        }
+        return book.build();
+    }
+
+    /**
+     * Property path as the segment stack: local name and 1-based array index ({@code 0} - not an array item).
+     * The builders read the segments sequentially from the root
+     */
+    static class PathCursor {
+        private String[] names = new String[8];
+        private int[] indexes = new int[8];
+        private int depth;
+        private int position = -1;
+
+        /**
+         * Parses the XMP path: {@code prefix:Name[index]/prefix:Name}. The qualifier segments are not supported
+         *
+         * @param path XMP property path
+         * @return this cursor rewound to the root
+         */
+        PathCursor parse(String path) {
+            depth = 0;
+            for (int start = 0; start < path.length(); ) {
+                int end = path.indexOf('/', start);
+                if (end < 0) end = path.length();
+                int colon = path.indexOf(':', start);
+                int nameStart = colon < 0 || colon > end ? start : colon + 1;
+                int bracket = path.indexOf('[', nameStart);
+                if (bracket >= 0 && bracket < end)
+                    push(path.substring(nameStart, bracket), Integer.parseInt(path, bracket + 1, path.indexOf(']', bracket), 10));
+                else
+                    push(path.substring(nameStart, end), 0);
+                start = end + 1;
+            }
+            return rewind();
+        }
+
+        /**
+         * Adds the segment to the path end
+         *
+         * @param name  local name
+         * @param index 1-based array index | {@code 0}
+         */
+        void push(String name, int index) {
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                indexes = Arrays.copyOf(indexes, depth * 2);
+            }
+            names[depth] = name;
+            indexes[depth++] = index;
+        }
+
+        /**
+         * Removes the last segment
+         */
+        void pop() {
+            names[--depth] = null;
+        }
+
+        /**
+         * Sets the array index of the last segment
+         *
+         * @param index 1-based array index | {@code 0}
+         */
+        void setIndex(int index) {
+            indexes[depth - 1] = index;
+        }
+
+        /**
+         * Moves to the path root
+         *
+         * @return this cursor
+         */
+        PathCursor rewind() {
+            position = -1;
+            return this;
+        }
+
+        /**
+         * Moves to the next segment
+         *
+         * @return {@code false} when there are no more segments
+         */
+        boolean next() {
+            return ++position < depth;
+        }
+
+        /**
+         * Gives the local name of the current segment
+         *
+         * @return name without prefix and index
+         */
+        String name() {
+            return names[position];
+        }
+
+        /**
+         * Gives the array index of the current segment
+         *
+         * @return 1-based index | {@code 0} when the segment is not an array item
+         */
+        int index() {
+            return indexes[position];
+        }
+    }
+
+    private static <T> T item(List<T> items, int index, Supplier<T> creator) {
+        while (items.size() < index)
+            items.add(creator.get());
+        return items.get(index - 1);
+    }
+
+    private static UUID uuid(String value) {
+        return value.isEmpty() ? null : UUID.fromString(value);
+    }
+
+    private static LocalDate date(String value) {
+        return value.isEmpty() ? null : LocalDate.parse(value);
+    }
+
+    private static class TitleBuilder {
+        String content = "";
+        String lang = "";
+
+        void set(PathCursor cursor, String value) {
+            if (!cursor.next()) return;
+            switch (cursor.name()) {
+                case LocalizedText.CONTENT -> content = value;
+                case LocalizedText.LANG -> lang = value;
+                default -> {
+                }
+            }
+        }
+
+        BookRecord.Title build() {
+            return new BookRecord.Title(content, lang);
+        }
+    }
+
+    private static class AuthorBuilder {
+        String name = "";
+        String lang = "";
+        UUID guid;
+
+        void set(PathCursor cursor, String value) {
+            if (!cursor.next()) return;
+            switch (cursor.name()) {
+                case AuthorStruct.NAME -> name = value;
+                case AuthorStruct.LANG -> lang = value;
+                case AuthorStruct.GUID -> guid = uuid(value);
+                default -> {
+                }
+            }
+        }
+
+        BookRecord.Author build() {
+            return new BookRecord.Author(name, lang, guid);
+        }
+    }
+
+    private static class SheetsBuilder {
+        String key = "";
+        String instruments = "";
+        String catalogNumber = "";
+        String arrangedBy = "";
+
+        void set(PathCursor cursor, String value) {
+            if (!cursor.next()) return;
+            switch (cursor.name()) {
+                case MusicStruct.KEY -> key = value;
+                case MusicStruct.INSTRUMENTS -> instruments = value;
+                case MusicStruct.CATALOG_NUMBER -> catalogNumber = value;
+                case MusicStruct.TRANSCRIPTION_BY -> arrangedBy = value;
+                default -> {
+                }
+            }
+        }
+
+        BookRecord.Sheets build() {
+            return new BookRecord.Sheets(key, instruments, catalogNumber, arrangedBy);
+        }
+    }
+
+    /**
+     * Common fields of the book and the work
+     */
+    private static class WorkBuilder {
+        final TitleBuilder title = new TitleBuilder();
+        UUID guid;
+        LocalDate dateCreated;
+        final List<String> genres = new ArrayList<>();
+        final List<AuthorBuilder> authors = new ArrayList<>();
+        final SheetsBuilder sheets = new SheetsBuilder();
+
+        /**
+         * Sets the field value
+         *
+         * @return {@code true} if the field is known
+         */
+        boolean setField(PathCursor cursor, String value) {
+            switch (cursor.name()) {
+                case WorkStruct.TITLE -> title.set(cursor, value);
+                case WorkStruct.GUID -> guid = uuid(value);
+                case WorkStruct.DATE_CREATED -> dateCreated = date(value);
+                case WorkStruct.GENRES -> {
+                    if (cursor.index() > 0) {
+                        item(genres, cursor.index(), () -> "");
+                        genres.set(cursor.index() - 1, value);
+                    }
+                }
+                case WorkStruct.AUTHORS -> {
+                    if (cursor.index() > 0)
+                        item(authors, cursor.index(), AuthorBuilder::new).set(cursor, value);
+                }
+                case WorkStruct.SHEETS -> sheets.set(cursor, value);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        List<BookRecord.Author> buildAuthors() {
+            return authors.stream().map(AuthorBuilder::build).toList();
+        }
+
+        BookRecord.Work buildWork() {
+            return new BookRecord.Work(title.build(), guid, dateCreated, genres, buildAuthors(), sheets.build());
+        }
+    }
+
+    /**
+     * Book record builder filled with the leaf values by path
+     */
+    static class BookBuilder extends WorkBuilder {
+        final List<WorkBuilder> works = new ArrayList<>();
+        String shelf = "";
+
+        /**
+         * Sets the leaf value. The unknown properties are ignored
+         *
+         * @param cursor property path rewound to the root
+         * @param value  property value
+         */
+        void set(PathCursor cursor, String value) {
+            if (!cursor.next() || setField(cursor, value)) return;
+            switch (cursor.name()) {
+                case BookXMPSchema.WORKS -> {
+                    if (cursor.index() > 0) {
+                        WorkBuilder work = item(works, cursor.index(), WorkBuilder::new);
+                        if (cursor.next())
+                            work.setField(cursor, value);
+                    }
+                }
+                case BookXMPSchema.SHELF -> shelf = value;
+                default -> {
+                }
+            }
+        }
+
+        BookRecord build() {
+            return new BookRecord(title.build(), guid, dateCreated, genres, buildAuthors(), sheets.build(),
+                    works.stream().map(WorkBuilder::buildWork).toList(), shelf);
+        }
+    }
+}
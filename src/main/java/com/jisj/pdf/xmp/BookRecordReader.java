@@ -0,0 +1,230 @@
+package com.jisj.pdf.xmp;
+
+import com.adobe.internal.xmp.XMPError;
+import com.adobe.internal.xmp.XMPException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+
+/**
+ * Streaming reader of the book XMP schema to {@link BookRecord}
+ * <p>The raw XMP packet is read with StAX, the {@code XMPMeta} node tree is not built. The properties of the
+ * {@code book}, {@code work}, {@code author}, {@code sheets} and {@code text} namespaces fill the record builder,
+ * the other properties are skipped without value reading</p>
+ * <p>The RDF forms written by XMP serializers are supported: property elements, properties as attributes of
+ * {@code rdf:Description} or of the empty property element, {@code rdf:parseType="Resource"}, nested
+ * {@code rdf:Description}, {@code rdf:value}, {@code rdf:Bag}, {@code rdf:Seq} and {@code rdf:Alt} arrays</p>
+ */
+public class BookRecordReader {
+    private static final String RDF_NS = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final Set<String> BOOK_NAMESPACES = Set.of(BookXMPSchema.NS, WorkStruct.NS, AuthorStruct.NS,
+            MusicStruct.NS, LocalizedText.NS);
+    private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    });
+
+    private final XMLStreamReader reader;
+    private final BookRecordDecoder.BookBuilder book = new BookRecordDecoder.BookBuilder();
+    private final BookRecordDecoder.PathCursor cursor = new BookRecordDecoder.PathCursor();
+
+    private BookRecordReader(XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the book schema from the serialized XMP packet
+     * <p>The packet encoding is detected by the leading bytes as {@code XMPMetaFactory} does:
+     * UTF-8, UTF-16 or UTF-32 with or without byte order mark</p>
+     *
+     * @param xmp XMP packet bytes
+     * @return book record. The fields which are not defined have empty values
+     * @throws XMPException XML parsing error
+     */
+    public static BookRecord read(byte[] xmp) throws XMPException {
+        try {
+            XMLStreamReader reader = FACTORY.get().createXMLStreamReader(new ByteArrayInputStream(xmp), encoding(xmp));
+            try {
+                return new BookRecordReader(reader).readPacket();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IllegalArgumentException e) {
+            throw new XMPException("XML parsing error", XMPError.BADXML, e);
+        }
+    }
+
+    /**
+     * Detects the packet encoding. The first char of the packet is {@code '<'} or byte order mark
+     */
+    private static String encoding(byte[] xmp) {
+        if (xmp.length < 4) return "UTF-8";
+        if (xmp[0] == 0)
+            return xmp[1] == 0 ? "UTF-32BE" : "UTF-16BE";
+        if ((xmp[0] & 0xFF) == 0xFE && (xmp[1] & 0xFF) == 0xFF)
+            return "UTF-16BE";
+        if ((xmp[0] & 0xFF) == 0xFF && (xmp[1] & 0xFF) == 0xFE)
+            return xmp[2] == 0 && xmp[3] == 0 ? "UTF-32LE" : "UTF-16LE";
+        if (xmp[1] == 0)
+            return xmp[2] == 0 ? "UTF-32LE" : "UTF-16LE";
+        return "UTF-8";
+    }
+
+    /**
+     * Reads the top level {@code rdf:Description} elements
+     */
+    private BookRecord readPacket() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && isRDF("Description"))
+                readNode(true);
+        }
+        return book.build();
+    }
+
+    /**
+     * Reads the node element content: the attribute and element properties.
+     * The reader is positioned at the start element, it is moved to the end element
+     *
+     * @param topLevel {@code true} for the top level description, only the book schema properties are read
+     */
+    private void readNode(boolean topLevel) throws XMLStreamException {
+        readAttributeProperties(topLevel);
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!topLevel && isRDF("value"))
+                readValue();
+            else
+                readProperty(topLevel);
+        }
+    }
+
+    /**
+     * Reads the property element. The reader is positioned at the start element, it is moved to the end element
+     *
+     * @param topLevel {@code true} for the top level property, only the book schema properties are read
+     */
+    private void readProperty(boolean topLevel) throws XMLStreamException {
+        String ns = reader.getNamespaceURI();
+        if (topLevel ? !BookXMPSchema.NS.equals(ns) : !BOOK_NAMESPACES.contains(ns)) {
+            skipElement();
+            return;
+        }
+        cursor.push(reader.getLocalName(), 0);
+        readValue();
+        cursor.pop();
+    }
+
+    /**
+     * Reads the value of the property element or of the array item at the cursor path.
+     * The reader is positioned at the start element, it is moved to the end element
+     */
+    private void readValue() throws XMLStreamException {
+        String resource = null;
+        boolean struct = false;
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String ns = reader.getAttributeNamespace(i);
+            if (RDF_NS.equals(ns)) {
+                switch (reader.getAttributeLocalName(i)) {
+                    case "parseType" -> struct = "Resource".equals(reader.getAttributeValue(i));
+                    case "resource" -> resource = reader.getAttributeValue(i);
+                    default -> {
+                    }
+                }
+            } else if (!XMLConstants.XML_NS_URI.equals(ns)) {
+                struct = true;
+            }
+        }
+        if (struct) {
+            readNode(false);
+            return;
+        }
+        String text = null;
+        boolean children = false;
+        for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        text = text == null ? reader.getText() : text + reader.getText();
+                case XMLStreamConstants.START_ELEMENT -> {
+                    children = true;
+                    readChild();
+                }
+                default -> {
+                }
+            }
+        }
+        if (!children)
+            book.set(cursor.rewind(), resource != null ? resource : text == null ? "" : text);
+    }
+
+    /**
+     * Reads the child element of the property element: array, nested description, {@code rdf:value} or struct field
+     */
+    private void readChild() throws XMLStreamException {
+        if (!RDF_NS.equals(reader.getNamespaceURI())) {
+            readProperty(false);
+            return;
+        }
+        switch (reader.getLocalName()) {
+            case "Bag", "Seq", "Alt" -> readArray();
+            case "Description" -> readNode(false);
+            case "value" -> readValue();
+            default -> skipElement();
+        }
+    }
+
+    /**
+     * Reads the array items. The reader is positioned at the start element, it is moved to the end element
+     */
+    private void readArray() throws XMLStreamException {
+        int index = 0;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (isRDF("li")) {
+                cursor.setIndex(++index);
+                readValue();
+            } else {
+                skipElement();
+            }
+        }
+        cursor.setIndex(0);
+    }
+
+    /**
+     * Reads the properties written as the element attributes
+     */
+    private void readAttributeProperties(boolean topLevel) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String ns = reader.getAttributeNamespace(i);
+            if (ns == null || (topLevel ? !BookXMPSchema.NS.equals(ns) : !BOOK_NAMESPACES.contains(ns)))
+                continue;
+            cursor.push(reader.getAttributeLocalName(i), 0);
+            book.set(cursor.rewind(), reader.getAttributeValue(i));
+            cursor.pop();
+        }
+    }
+
+    /**
+     * Skips the element subtree. The reader is positioned at the start element, it is moved to the end element
+     */
+    private void skipElement() throws XMLStreamException {
+        for (int depth = 1; depth > 0; ) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private boolean isRDF(String localName) {
+        return RDF_NS.equals(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+    }
+}
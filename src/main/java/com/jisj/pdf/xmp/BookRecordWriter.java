@@ -0,0 +1,285 @@
+package com.jisj.pdf.xmp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Direct RDF/XML writer of {@link BookRecord} to the UTF-8 XMP packet
+ * <p>The packet is written to the internal buffer without {@code XMPMeta} building. The buffer is presized by
+ * the record size estimation and is reused by the next {@link #write(BookRecord)} call, so the writer object
+ * should be reused for the batch processing. The writer is not thread-safe</p>
+ * <p>The tree of the packet parsed by {@code XMPMetaFactory} is the tree built by {@link BookXMPSchema} setters.
+ * Empty strings and {@code null} values are not written</p>
+ */
+public class BookRecordWriter {
+    private static final String RDF_NS = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    private static final String BOOK = BookXMPSchema.PREFIX + ":";
+    private static final String WORK = WorkStruct.PREFIX + ":";
+    private static final String AUTHOR = AuthorStruct.PREFIX + ":";
+    private static final String SHEETS = MusicStruct.PREFIX + ":";
+    private static final String TEXT = LocalizedText.PREFIX + ":";
+    private static final String PACKET_HEADER = "<?xpacket begin=\"\uFEFF\" id=\"W5M0MpCehiHzreSzNTczkc9d\"?>\n" +
+            "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">\n" +
+            " <rdf:RDF xmlns:rdf=\"" + RDF_NS + "\">\n" +
+            "  <rdf:Description rdf:about=\"\"\n" +
+            "    xmlns:" + BookXMPSchema.PREFIX + "=\"" + BookXMPSchema.NS + "\"\n" +
+            "    xmlns:" + WorkStruct.PREFIX + "=\"" + WorkStruct.NS + "\"\n" +
+            "    xmlns:" + AuthorStruct.PREFIX + "=\"" + AuthorStruct.NS + "\"\n" +
+            "    xmlns:" + MusicStruct.PREFIX + "=\"" + MusicStruct.NS + "\"\n" +
+            "    xmlns:" + LocalizedText.PREFIX + "=\"" + LocalizedText.NS + "\">\n";
+    private static final String PACKET_FOOTER = " </rdf:RDF>\n</x:xmpmeta>\n<?xpacket end=\"w\"?>";
+    private static final int WORK_SIZE_ESTIMATE = 1024;
+
+    private byte[] buffer;
+    private int count;
+
+    /**
+     * Creates the writer with the default buffer size
+     */
+    public BookRecordWriter() {
+        this(8 * 1024);
+    }
+
+    /**
+     * Creates the writer
+     *
+     * @param initialSize initial buffer size in bytes
+     */
+    public BookRecordWriter(int initialSize) {
+        buffer = new byte[Math.max(initialSize, 256)];
+    }
+
+    /**
+     * Writes the XMP packet with the book schema only
+     *
+     * @param record book record
+     * @return this writer
+     */
+    public BookRecordWriter write(BookRecord record) {
+        return write(record, null);
+    }
+
+    /**
+     * Writes the XMP packet with the book schema and other schemas
+     *
+     * @param record          book record
+     * @param rdfDescriptions UTF-8 serialized {@code rdf:Description} elements of other schemas, they are
+     *                        copied to {@code rdf:RDF} element as is | {@code null}
+     * @return this writer
+     */
+    public BookRecordWriter write(BookRecord record, byte[] rdfDescriptions) {
+        count = 0;
+        ensureCapacity(estimateSize(record) + (rdfDescriptions == null ? 0 : rdfDescriptions.length));
+        ascii(PACKET_HEADER);
+        writeTitle(BOOK, BookXMPSchema.TITLE, record.title(), 3);
+        writeSimple(BOOK, BookXMPSchema.GUID, record.guid(), 3);
+        writeSimple(BOOK, BookXMPSchema.DATE_CREATED, record.dateCreated(), 3);
+        writeGenres(BOOK, BookXMPSchema.GENRES, record.genres(), 3);
+        writeAuthors(BOOK, BookXMPSchema.AUTHORS, "Bag", record.authors(), 3);
+        writeSheets(BOOK, BookXMPSchema.SHEETS, record.sheets(), 3);
+        if (!record.works().isEmpty()) {
+            openArray(BOOK, BookXMPSchema.WORKS, "Bag", 3);
+            for (BookRecord.Work work : record.works()) {
+                indent(6).ascii("<rdf:li rdf:parseType=\"Resource\">\n");
+                writeTitle(WORK, WorkStruct.TITLE, work.title(), 7);
+                writeSimple(WORK, WorkStruct.GUID, work.guid(), 7);
+                writeSimple(WORK, WorkStruct.DATE_CREATED, work.dateCreated(), 7);
+                writeGenres(WORK, WorkStruct.GENRES, work.genres(), 7);
+                writeAuthors(WORK, WorkStruct.AUTHORS, "Seq", work.authors(), 7);
+                writeSheets(WORK, WorkStruct.SHEETS, work.sheets(), 7);
+                indent(6).ascii("</rdf:li>\n");
+            }
+            closeArray(BOOK, BookXMPSchema.WORKS, "Bag", 3);
+        }
+        writeSimple(BOOK, BookXMPSchema.SHELF, record.preferredShelf(), 3);
+        ascii("  </rdf:Description>\n");
+        if (rdfDescriptions != null) {
+            ensureCapacity(count + rdfDescriptions.length);
+            System.arraycopy(rdfDescriptions, 0, buffer, count, rdfDescriptions.length);
+            count += rdfDescriptions.length;
+        }
+        ascii(PACKET_FOOTER);
+        return this;
+    }
+
+    /**
+     * Gives the packet size
+     *
+     * @return number of bytes written
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gives the copy of the packet bytes
+     *
+     * @return packet bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Writes the packet bytes to the output stream
+     *
+     * @param out output stream
+     * @throws IOException write error
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, count);
+    }
+
+    private static int estimateSize(BookRecord record) {
+        return PACKET_HEADER.length() + PACKET_FOOTER.length() + 2 * WORK_SIZE_ESTIMATE +
+                record.works().size() * WORK_SIZE_ESTIMATE;
+    }
+
+    private void writeTitle(String prefix, String name, BookRecord.Title title, int indent) {
+        if (title.content().isEmpty() && title.lang().isEmpty()) return;
+        openStruct(prefix, name, indent);
+        writeSimple(TEXT, LocalizedText.LANG, title.lang(), indent + 1);
+        writeSimple(TEXT, LocalizedText.CONTENT, title.content(), indent + 1);
+        closeElement(prefix, name, indent);
+    }
+
+    private void writeGenres(String prefix, String name, List<String> genres, int indent) {
+        if (genres.isEmpty()) return;
+        openArray(prefix, name, "Bag", indent);
+        for (String genre : genres) {
+            indent(indent + 2).ascii("<rdf:li>").text(genre).ascii("</rdf:li>\n");
+        }
+        closeArray(prefix, name, "Bag", indent);
+    }
+
+    private void writeAuthors(String prefix, String name, String arrayType, List<BookRecord.Author> authors, int indent) {
+        if (authors.isEmpty()) return;
+        openArray(prefix, name, arrayType, indent);
+        for (BookRecord.Author author : authors) {
+            indent(indent + 2).ascii("<rdf:li rdf:parseType=\"Resource\">\n");
+            writeSimple(AUTHOR, AuthorStruct.NAME, author.name(), indent + 3);
+            writeSimple(AUTHOR, AuthorStruct.LANG, author.lang(), indent + 3);
+            writeSimple(AUTHOR, AuthorStruct.GUID, author.guid(), indent + 3);
+            indent(indent + 2).ascii("</rdf:li>\n");
+        }
+        closeArray(prefix, name, arrayType, indent);
+    }
+
+    private void writeSheets(String prefix, String name, BookRecord.Sheets sheets, int indent) {
+        if (sheets.key().isEmpty() && sheets.instruments().isEmpty() && sheets.catalogNumber().isEmpty()
+                && sheets.arrangedBy().isEmpty()) return;
+        openStruct(prefix, name, indent);
+        writeSimple(SHEETS, MusicStruct.KEY, sheets.key(), indent + 1);
+        writeSimple(SHEETS, MusicStruct.INSTRUMENTS, sheets.instruments(), indent + 1);
+        writeSimple(SHEETS, MusicStruct.CATALOG_NUMBER, sheets.catalogNumber(), indent + 1);
+        writeSimple(SHEETS, MusicStruct.TRANSCRIPTION_BY, sheets.arrangedBy(), indent + 1);
+        closeElement(prefix, name, indent);
+    }
+
+    private void writeSimple(String prefix, String name, Object value, int indent) {
+        if (value == null) return;
+        String text = value.toString();
+        if (text.isEmpty()) return;
+        indent(indent).ascii("<").ascii(prefix).ascii(name).ascii(">").text(text);
+        ascii("</").ascii(prefix).ascii(name).ascii(">\n");
+    }
+
+    private void openStruct(String prefix, String name, int indent) {
+        indent(indent).ascii("<").ascii(prefix).ascii(name).ascii(" rdf:parseType=\"Resource\">\n");
+    }
+
+    private void openArray(String prefix, String name, String arrayType, int indent) {
+        indent(indent).ascii("<").ascii(prefix).ascii(name).ascii(">\n");
+        indent(indent + 1).ascii("<rdf:").ascii(arrayType).ascii(">\n");
+    }
+
+    private void closeArray(String prefix, String name, String arrayType, int indent) {
+        indent(indent + 1).ascii("</rdf:").ascii(arrayType).ascii(">\n");
+        closeElement(prefix, name, indent);
+    }
+
+    private void closeElement(String prefix, String name, int indent) {
+        indent(indent).ascii("</").ascii(prefix).ascii(name).ascii(">\n");
+    }
+
+    private BookRecordWriter indent(int level) {
+        ensureCapacity(count + level);
+        Arrays.fill(buffer, count, count + level, (byte) ' ');
+        count += level;
+        return this;
+    }
+
+    /**
+     * Writes the markup: ASCII chars only
+     */
+    private BookRecordWriter ascii(String s) {
+        int length = s.length();
+        ensureCapacity(count + length * 3);
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80)
+                buffer[count++] = (byte) c;
+            else
+                utf8(c);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the escaped text value in UTF-8
+     * <p>The control characters except the tab and the line ends are replaced by the space like the xmpcore
+     * serializer does: they are not allowed in XML</p>
+     */
+    private BookRecordWriter text(String s) {
+        int length = s.length();
+        ensureCapacity(count + length * 6);
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&' -> raw("&amp;");
+                case '<' -> raw("&lt;");
+                case '>' -> raw("&gt;");
+                case '\r' -> raw("&#xD;");
+                case '\t', '\n' -> buffer[count++] = (byte) c;
+                default -> {
+                    if (c < 0x20 || c == 0x7F) {
+                        buffer[count++] = ' ';
+                    } else if (c < 0x80) {
+                        buffer[count++] = (byte) c;
+                    } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                        buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                        buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else {
+                        utf8(Character.isSurrogate(c) ? '\uFFFD' : c);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    private void raw(String escape) {
+        for (int i = 0; i < escape.length(); i++)
+            buffer[count++] = (byte) escape.charAt(i);
+    }
+
+    private void utf8(char c) {
+        if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+        } else {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        }
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+    }
+}
@@ -8,6 +8,7 @@ import com.jisj.pdf.Utils;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Wrapper class for PDF book XMP schema
@@ -149,6 +150,24 @@ public class BookXMPSchema extends BaseXMPStructure {
         return getArrayStruct(getNS(), AUTHORS, p -> new AuthorStruct(getMetadata(), getNS(), p));
     }
 
+    /**
+     * Gives the lazy view of the authors list
+     *
+     * @return authors view, the author objects are created on demand
+     */
+    public List<AuthorStruct> getAuthorsView() {
+        return getArrayStructView(getNS(), AUTHORS, p -> new AuthorStruct(getMetadata(), getNS(), p));
+    }
+
+    /**
+     * Iterates the authors with one reusable accessor
+     *
+     * @param action author action. The accessor is valid during the call only
+     */
+    public void forEachAuthor(Consumer<AuthorStruct> action) {
+        forEachArrayStruct(getNS(), AUTHORS, new AuthorStruct(getMetadata(), getNS(), null), action);
+    }
+
     /**
      * Sets the music sheets metadata to XMP book(work)
      *
@@ -192,6 +211,141 @@ public class BookXMPSchema extends BaseXMPStructure {
         return getArrayStruct(getNS(), WORKS, p -> new WorkStruct(this, p));
     }
 
+    /**
+     * Gives the lazy view of the works list
+     * <p>The view doesn't allocate the work objects in advance, so the random access to an anthology with
+     * thousands of works is cheap</p>
+     *
+     * @return works view, the work objects are created on demand
+     */
+    public List<WorkStruct> getWorksView() {
+        return getArrayStructView(getNS(), WORKS, p -> new WorkStruct(this, p));
+    }
+
+    /**
+     * Iterates the works with one reusable accessor
+     *
+     * @param action work action. The accessor is valid during the call only
+     */
+    public void forEachWork(Consumer<WorkStruct> action) {
+        forEachArrayStruct(getNS(), WORKS, new WorkStruct(this, null), action);
+    }
+
+    /**
+     * Replaces the works in one pass
+     *
+     * @param works work list. The empty list removes the works
+     */
+    public void setWorks(List<BookRecord.Work> works) {
+        setArrayStruct(getNS(), WORKS, PropertyOptions.ARRAY, works, (p, w) -> new WorkStruct(this, p).setFields(w));
+    }
+
+    /**
+     * Replaces the work
+     *
+     * @param index work index, 0-based
+     * @param work  work properties
+     */
+    public void replaceWork(int index, BookRecord.Work work) {
+        new WorkStruct(this, resetArrayStructItem(getNS(), WORKS, index)).setFields(work);
+    }
+
+    /**
+     * Removes the work
+     *
+     * @param index work index, 0-based
+     */
+    public void removeWork(int index) {
+        removeArrayItem(getNS(), WORKS, index);
+    }
+
+    /**
+     * Moves the work to the new position
+     *
+     * @param from current index, 0-based
+     * @param to   new index, 0-based
+     */
+    public void moveWork(int from, int to) {
+        moveArrayItem(getNS(), WORKS, from, to);
+    }
+
+    /**
+     * Replaces the genres in one pass
+     *
+     * @param genres genre values. The empty collection removes the genres
+     */
+    public void setGenres(Collection<String> genres) {
+        setArray(getNS(), GENRES, PropertyOptions.ARRAY, genres);
+    }
+
+    /**
+     * Replaces the genre value
+     *
+     * @param index genre index, 0-based
+     * @param genre genre value
+     */
+    public void replaceGenre(int index, String genre) {
+        setArrayItem(getNS(), GENRES, index, genre);
+    }
+
+    /**
+     * Removes the genre
+     *
+     * @param index genre index, 0-based
+     */
+    public void removeGenre(int index) {
+        removeArrayItem(getNS(), GENRES, index);
+    }
+
+    /**
+     * Moves the genre to the new position
+     *
+     * @param from current index, 0-based
+     * @param to   new index, 0-based
+     */
+    public void moveGenre(int from, int to) {
+        moveArrayItem(getNS(), GENRES, from, to);
+    }
+
+    /**
+     * Replaces the authors in one pass
+     *
+     * @param authors author list. The empty list removes the authors
+     */
+    public void setAuthors(List<BookRecord.Author> authors) {
+        setArrayStruct(getNS(), AUTHORS, PropertyOptions.ARRAY, authors,
+                (p, a) -> new AuthorStruct(getMetadata(), getNS(), p).setFields(a));
+    }
+
+    /**
+     * Replaces the author
+     *
+     * @param index  author index, 0-based
+     * @param author author properties
+     */
+    public void replaceAuthor(int index, BookRecord.Author author) {
+        new AuthorStruct(getMetadata(), getNS(), resetArrayStructItem(getNS(), AUTHORS, index)).setFields(author);
+    }
+
+    /**
+     * Removes the author
+     *
+     * @param index author index, 0-based
+     */
+    public void removeAuthor(int index) {
+        removeArrayItem(getNS(), AUTHORS, index);
+    }
+
+    /**
+     * Moves the author to the new position
+     *
+     * @param from current index, 0-based
+     * @param to   new index, 0-based
+     */
+    public void moveAuthor(int from, int to) {
+        moveArrayItem(getNS(), AUTHORS, from, to);
+    }
+
     /**
      * Sets the preferred shelf property
      *
@@ -5,9 +5,11 @@ import com.adobe.internal.xmp.options.PropertyOptions;
 import com.adobe.internal.xmp.properties.XMPProperty;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Wrapper class for Work XMP structure
@@ -180,6 +182,26 @@ public class WorkStruct extends ChildXMPStruct {
                 p -> new AuthorStruct(getMetadata(), getSchemaNS(), p));
     }
 
+    /**
+     * Gives the lazy view of the work authors
+     *
+     * @return authors view, the author objects are created on demand
+     */
+    public List<AuthorStruct> getAuthorsView() {
+        return getArrayStructView(getSchemaNS(), getStructFieldPath(getNS(), AUTHORS),
+                p -> new AuthorStruct(getMetadata(), getSchemaNS(), p));
+    }
+
+    /**
+     * Iterates the work authors with one reusable accessor
+     *
+     * @param action author action. The accessor is valid during the call only
+     */
+    public void forEachAuthor(Consumer<AuthorStruct> action) {
+        forEachArrayStruct(getSchemaNS(), getStructFieldPath(getNS(), AUTHORS),
+                new AuthorStruct(getMetadata(), getSchemaNS(), null), action);
+    }
+
     /**
      * Sets the music sheets metadata to XMP book(work)
      *
@@ -206,4 +228,103 @@ public class WorkStruct extends ChildXMPStruct {
         return new MusicStruct(getMetadata(), getSchemaNS(), getStructFieldPath(getNS(), SHEETS));
     }
 
+    /**
+     * Replaces the work genres in one pass
+     *
+     * @param genres genre values. The empty collection removes the genres
+     */
+    public void setGenres(Collection<String> genres) {
+        setArray(getSchemaNS(), getStructFieldPath(getNS(), GENRES), PropertyOptions.ARRAY, genres);
+    }
+
+    /**
+     * Replaces the genre value
+     *
+     * @param index genre index, 0-based
+     * @param genre genre value
+     */
+    public void replaceGenre(int index, String genre) {
+        setArrayItem(getSchemaNS(), getStructFieldPath(getNS(), GENRES), index, genre);
+    }
+
+    /**
+     * Removes the genre
+     *
+     * @param index genre index, 0-based
+     */
+    public void removeGenre(int index) {
+        removeArrayItem(getSchemaNS(), getStructFieldPath(getNS(), GENRES), index);
+    }
+
+    /**
+     * Moves the genre to the new position
+     *
+     * @param from current index, 0-based
+     * @param to   new index, 0-based
+     */
+    public void moveGenre(int from, int to) {
+        moveArrayItem(getSchemaNS(), getStructFieldPath(getNS(), GENRES), from, to);
+    }
+
+    /**
+     * Replaces the work authors in one pass
+     *
+     * @param authors author list. The empty list removes the authors
+     */
+    public void setAuthors(List<BookRecord.Author> authors) {
+        setArrayStruct(getSchemaNS(), getStructFieldPath(getNS(), AUTHORS), PropertyOptions.ARRAY_ORDERED, authors,
+                (p, a) -> new AuthorStruct(getMetadata(), getSchemaNS(), p).setFields(a));
+    }
+
+    /**
+     * Replaces the author
+     *
+     * @param index  author index, 0-based
+     * @param author author properties
+     */
+    public void replaceAuthor(int index, BookRecord.Author author) {
+        String authorPath = resetArrayStructItem(getSchemaNS(), getStructFieldPath(getNS(), AUTHORS), index);
+        new AuthorStruct(getMetadata(), getSchemaNS(), authorPath).setFields(author);
+    }
+
+    /**
+     * Removes the author
+     *
+     * @param index author index, 0-based
+     */
+    public void removeAuthor(int index) {
+        removeArrayItem(getSchemaNS(), getStructFieldPath(getNS(), AUTHORS), index);
+    }
+
+    /**
+     * Moves the author to the new position
+     *
+     * @param from current index, 0-based
+     * @param to   new index, 0-based
+     */
+    public void moveAuthor(int from, int to) {
+        moveArrayItem(getSchemaNS(), getStructFieldPath(getNS(), AUTHORS), from, to);
+    }
+
+    /**
+     * Sets the work fields from the record. The empty values are not written
+     *
+     * @param work work properties
+     */
+    public void setFields(BookRecord.Work work) {
+        BookRecord.Title title = work.title();
+        if (!title.content().isEmpty() || !title.lang().isEmpty())
+            setTitle(title.content(), title.lang());
+        if (work.guid() != null)
+            setGUID(work.guid());
+        if (work.dateCreated() != null)
+            setDateCreated(work.dateCreated());
+        setGenres(work.genres());
+        setAuthors(work.authors());
+        BookRecord.Sheets sheets = work.sheets();
+        if (!sheets.key().isEmpty() || !sheets.instruments().isEmpty() || !sheets.catalogNumber().isEmpty()
+                || !sheets.arrangedBy().isEmpty())
+            setSheets(sheets.key(), sheets.instruments(), sheets.catalogNumber(), sheets.arrangedBy());
+    }
+
 }
@@ -0,0 +1,106 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BatchMetadataWriterTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path batch = Path.of("target/test-data/batch");
+    static final UUID AUTHOR_GUID = UUID.fromString("b47665da-6c75-4632-952d-a2ef26196000");
+    List<Path> files;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(batch);
+        try (Stream<Path> old = Files.list(batch)) {
+            for (Path p : old.toList()) Files.delete(p);
+        }
+        files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Path file = batch.resolve("book" + i + ".pdf");
+            Files.copy(sourcePdf, file, REPLACE_EXISTING);
+            files.add(file);
+        }
+    }
+
+    @Test
+    void write() throws IOException, PDFException {
+        MetadataEdits edits = new MetadataEdits()
+                .setTitle("Batch title", "en")
+                .setPreferredShelf("S3")
+                .setGenres(List.of("music", "music_sheets"))
+                .setAuthors(List.of(new BookRecord.Author("J.S. Bach", "en", AUTHOR_GUID)));
+        BatchMetadataWriter writer = new BatchMetadataWriter(3);
+        BatchMetadataWriter.Report report = writer.write(files, edits);
+        assertEquals(8, report.count(BatchMetadataWriter.Status.SUCCESS));
+        assertTrue(report.filesPerSecond() > 0);
+        assertTrue(report.bytesWritten() > 0);
+
+        try (PDFBook book = PDFFactory.readPDF(files.getFirst())) {
+            BookXMPSchema bs = book.getBookXMPSchema();
+            assertEquals("Batch title", bs.getTitle().getContent());
+            assertEquals("S3", bs.getPreferredShelf());
+            assertEquals(List.of("music", "music_sheets"), bs.getGenres());
+            assertEquals(AUTHOR_GUID, bs.getAuthors().getFirst().getGUID().orElseThrow());
+        }
+
+        report = writer.write(files, edits);
+        assertEquals(8, report.count(BatchMetadataWriter.Status.SKIPPED));
+        assertEquals(0L, report.bytesWritten());
+    }
+
+    @Test
+    void keepPermissions() throws IOException {
+        Path file = files.getFirst();
+        assumeTrue(Files.getFileStore(file).supportsFileAttributeView("posix"));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(file, permissions);
+        BatchMetadataWriter.Outcome outcome = BatchMetadataWriter.write(file, new MetadataEdits()
+                .setTitle("Permissions", "en"));
+        assertEquals(BatchMetadataWriter.Status.SUCCESS, outcome.status());
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    void writeWithFailures() throws IOException {
+        Path broken = batch.resolve("broken.pdf");
+        Files.writeString(broken, "not a pdf");
+        files.add(broken);
+        files.add(batch.resolve("missing.pdf"));
+        List<BatchMetadataWriter.Outcome> listened = new ArrayList<>();
+        BatchMetadataWriter writer = new BatchMetadataWriter();
+        writer.setListener(o -> {
+            synchronized (listened) {
+                listened.add(o);
+            }
+        });
+        BatchMetadataWriter.Report report = writer.write(Map.of(files.getFirst(), new MetadataEdits().setGUID(UUID.randomUUID()),
+                broken, new MetadataEdits().setGUID(UUID.randomUUID()),
+                batch.resolve("missing.pdf"), new MetadataEdits()));
+        assertEquals(1, report.count(BatchMetadataWriter.Status.SUCCESS));
+        assertEquals(2, report.count(BatchMetadataWriter.Status.FAILED));
+        assertEquals(3, listened.size());
+        assertEquals("not a pdf", Files.readString(broken));
+        try (Stream<Path> list = Files.list(batch)) {
+            assertTrue(list.noneMatch(p -> p.toString().endsWith(".tmp")));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.BookRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCacheTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path dir = Path.of("target/test-data/cache");
+
+    static BookRecord newRecord(String title) {
+        BookRecord.Sheets sheets = new BookRecord.Sheets("F-dur", "piano", "BWV 785", "");
+        BookRecord.Author author = new BookRecord.Author("J.S. Bach", "en", UUID.randomUUID());
+        BookRecord.Work work = new BookRecord.Work(new BookRecord.Title("Work #1", "de"), UUID.randomUUID(),
+                LocalDate.of(1720, 1, 1), List.of("music_barocca"), List.of(author), sheets);
+        return new BookRecord(new BookRecord.Title(title, "ru"), UUID.randomUUID(), null,
+                List.of("music", "music_sheets"), List.of(author, new BookRecord.Author("Аноним", "ru", null)),
+                sheets, List.of(work, work), "S3");
+    }
+
+    @Test
+    void saveAndLoad() throws IOException {
+        Path book = Files.createDirectories(dir).resolve("book.pdf");
+        Files.copy(sourcePdf, book, REPLACE_EXISTING);
+        Path cacheFile = dir.resolve("books.cache");
+
+        BookSummary read = LibraryScanner.summarize(book);
+        BookSummary summary = new BookSummary(book, read.fileSize(), read.lastModified(), "ru", read.info(),
+                newRecord("Книга"), null);
+        BookCache cache = new BookCache();
+        cache.put(summary);
+        cache.put(new BookSummary(dir.resolve("failed.pdf"), 0, 0, null, null, null, new IOException()));
+        assertEquals(1, cache.size());
+        cache.save(cacheFile);
+
+        BookCache loaded = BookCache.load(cacheFile);
+        assertEquals(1, loaded.size());
+        BookSummary cached = loaded.get(book);
+        assertSame(cached, loaded.get(book));
+        assertEquals(summary.book(), cached.book());
+        assertEquals(summary.language(), cached.language());
+        assertEquals(summary.info().title(), cached.info().title());
+        assertEquals(summary.info().subject(), cached.info().subject());
+        assertEquals(summary.info().creationDate().getTimeInMillis(), cached.info().creationDate().getTimeInMillis());
+        // the loaded cache replaces its own file
+        loaded.save(cacheFile);
+        assertEquals(summary.book(), BookCache.load(cacheFile).get(book).book());
+
+        Files.setLastModifiedTime(book, FileTime.fromMillis(read.lastModified() + 10_000));
+        assertNull(loaded.get(book));
+        assertNull(BookCache.load(dir.resolve("missing.cache")).get(book));
+    }
+
+    @Test
+    void verifyContent() throws IOException {
+        Path book = Files.createDirectories(dir).resolve("verified.pdf");
+        Files.copy(sourcePdf, book, REPLACE_EXISTING);
+        BookCache cache = new BookCache();
+        cache.setVerifyContent(true);
+        BookSummary summary = LibraryScanner.summarize(book);
+        cache.put(summary);
+        assertNotNull(cache.get(book));
+
+        Files.setLastModifiedTime(book, FileTime.fromMillis(summary.lastModified() + 10_000));
+        BookSummary touched = cache.get(book);
+        assertNotNull(touched);
+        assertEquals(summary.lastModified() + 10_000, touched.lastModified());
+        assertSame(touched, cache.get(book));
+
+        byte[] bytes = Files.readAllBytes(book);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(book, bytes);
+        Files.setLastModifiedTime(book, FileTime.fromMillis(summary.lastModified() + 20_000));
+        assertNull(cache.get(book));
+
+        cache.setVerifyContent(false);
+        Files.setLastModifiedTime(book, FileTime.fromMillis(summary.lastModified() + 30_000));
+        assertNull(cache.get(book));
+    }
+
+    @Test
+    void rescanSkipsUnchanged() throws IOException {
+        Path library = Files.createDirectories(dir.resolve("library"));
+        Path a = library.resolve("a.pdf");
+        Path b = library.resolve("b.pdf");
+        Files.copy(sourcePdf, a, REPLACE_EXISTING);
+        Files.copy(sourcePdf, b, REPLACE_EXISTING);
+        Path cacheFile = dir.resolve("library.cache");
+        Files.deleteIfExists(cacheFile);
+
+        LibraryScanner scanner = new LibraryScanner(2);
+        scanner.setCache(BookCache.load(cacheFile));
+        scan(scanner, library);
+        BookSummary fake = new BookSummary(a, Files.size(a), Files.getLastModifiedTime(a).toMillis(), null, null,
+                newRecord("From cache"), null);
+        scanner.getCache().put(fake);
+        scanner.getCache().put(new BookSummary(library.resolve("deleted.pdf"), 1, 1, null, null, null, null));
+        scanner.getCache().save(cacheFile);
+
+        scanner.setCache(BookCache.load(cacheFile));
+        Map<Path, BookSummary> rescanned = scan(scanner, library);
+        assertEquals("From cache", rescanned.get(a).book().title().content());
+        assertEquals("An American In Paris", rescanned.get(b).info().title());
+        assertEquals(1, scanner.getCache().prune());
+        assertEquals(2, scanner.getCache().size());
+    }
+
+    private static Map<Path, BookSummary> scan(LibraryScanner scanner, Path library) throws IOException {
+        try (Stream<BookSummary> books = scanner.scan(library)) {
+            return books.collect(Collectors.toMap(BookSummary::path, Function.identity()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jisj.pdf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverThumbnailsTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path cacheDir = Path.of("target/test-data/thumbnails");
+
+    @BeforeEach
+    void clean() throws IOException {
+        if (!Files.exists(cacheDir)) return;
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    @Test
+    void getThumbnail() throws IOException {
+        try (CoverThumbnails thumbnails = new CoverThumbnails(cacheDir, 2)) {
+            thumbnails.setMaxSize(120, 160);
+            assertNull(thumbnails.getCached(sourcePdf));
+            Path image = thumbnails.getThumbnail(sourcePdf);
+            BufferedImage cover = ImageIO.read(image.toFile());
+            assertTrue(cover.getWidth() <= 120 && cover.getHeight() <= 160);
+            assertTrue(cover.getWidth() == 120 || cover.getHeight() == 160);
+            assertEquals(Files.size(image), thumbnails.getCacheBytes());
+
+            assertEquals(image, thumbnails.getCached(sourcePdf));
+            assertTrue(thumbnails.submit(sourcePdf).isDone());
+        }
+        try (CoverThumbnails reopened = new CoverThumbnails(cacheDir, 1)) {
+            reopened.setMaxSize(120, 160);
+            assertTrue(reopened.getCacheBytes() > 0);
+            assertNotNull(reopened.getCached(sourcePdf));
+        }
+    }
+
+    @Test
+    void getThumbnails() throws IOException {
+        try (CoverThumbnails thumbnails = new CoverThumbnails(cacheDir, 2)) {
+            List<CoverThumbnails.Thumbnail> result = thumbnails.getThumbnails(
+                    List.of(sourcePdf, Path.of("src/test/resources/not-found.pdf"), sourcePdf));
+            assertEquals(3, result.size());
+            assertFalse(result.get(0).isFailed());
+            assertTrue(result.get(1).isFailed());
+            assertInstanceOf(IOException.class, result.get(1).error());
+            assertEquals(result.get(0).image(), result.get(2).image());
+        }
+    }
+
+    @Test
+    void eviction() throws IOException {
+        try (CoverThumbnails thumbnails = new CoverThumbnails(cacheDir, 1)) {
+            thumbnails.setMaxSize(100, 100);
+            Path small = thumbnails.getThumbnail(sourcePdf);
+            thumbnails.setMaxCacheBytes(Files.size(small) + 1);
+            thumbnails.setMaxSize(200, 200);
+            Path large = thumbnails.getThumbnail(sourcePdf);
+            assertNotEquals(small, large);
+            assertTrue(Files.exists(large));
+            assertFalse(Files.exists(small));
+            assertEquals(Files.size(large), thumbnails.getCacheBytes());
+            assertThrows(IllegalArgumentException.class, () -> thumbnails.setMaxCacheBytes(0));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPConst;
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentInfoSyncTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+
+    @Test
+    void infoToMetadata() throws Exception {
+        try (PDFBook book = new PDFBook(PDFFactory.read(sourcePdf))) {
+            PDFBook.PDFInfo info = book.getDocumentInfo();
+            DocumentInfoSync.infoToMetadata(book);
+            PDFBook.PDFInfo synced = DocumentInfoSync.fromMetadata(book.getMetadata());
+            assertEquals(info.title(), synced.title());
+            assertEquals(info.title(), book.getMetadata().getLocalizedText(XMPConst.NS_DC, "title", null,
+                    XMPConst.X_DEFAULT).getValue());
+            assertEquals(info.author(), synced.author());
+            assertEquals(info.subject(), synced.subject());
+            assertTrue(PDFBook.PDFInfo.sameDate(info.creationDate(), synced.creationDate()));
+
+            book.flushMetadata();
+            assertFalse(DocumentInfoSync.infoToMetadata(book));
+            assertFalse(book.isMetadataDirty());
+        }
+    }
+
+    @Test
+    void metadataToInfo() throws Exception {
+        try (PDFBook book = new PDFBook(PDFFactory.read(sourcePdf))) {
+            DocumentInfoSync.infoToMetadata(book);
+            book.getBookXMPSchema().getTitle().setContent("XMP title");
+            book.setMetadata(book.getMetadata());
+            assertTrue(DocumentInfoSync.metadataToInfo(book));
+            assertEquals("XMP title", book.getDocumentInfo().title());
+
+            COSDictionary dictionary = book.getDocument().getDocumentInformation().getCOSObject();
+            dictionary.setNeedToBeUpdated(false);
+            assertFalse(DocumentInfoSync.metadataToInfo(book));
+            assertFalse(book.setDocumentInfo(book.getDocumentInfo()));
+            assertFalse(dictionary.isNeedToBeUpdated());
+        }
+    }
+
+    @Test
+    void dates() throws XMPException {
+        Calendar created = new GregorianCalendar(TimeZone.getTimeZone("GMT+03:00"));
+        created.clear();
+        created.set(2025, Calendar.NOVEMBER, 1, 10, 15, 30);
+        assertEquals("2025-11-01T10:15:30.000+03:00", Utils.formatCalendarToISO8601(created));
+
+        XMPMeta metadata = XMPMetaFactory.create();
+        PDFBook.PDFInfo info = new PDFBook.PDFInfo("Title", "Bach", null, "suite", null, created, null);
+        assertTrue(DocumentInfoSync.toMetadata(info, metadata));
+        assertFalse(DocumentInfoSync.toMetadata(info, metadata));
+        Calendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(created.getTimeInMillis());
+        assertFalse(DocumentInfoSync.toMetadata(new PDFBook.PDFInfo(null, null, null, null, null, utc, null), metadata));
+
+        PDFBook.PDFInfo read = DocumentInfoSync.fromMetadata(metadata);
+        assertEquals("Bach", read.author());
+        assertEquals("suite", read.keywords());
+        assertNull(read.subject());
+        assertTrue(PDFBook.PDFInfo.sameDate(created, read.creationDate()));
+    }
+
+    @Test
+    void authors() throws XMPException {
+        XMPMeta metadata = XMPMetaFactory.create();
+        PDFBook.PDFInfo info = new PDFBook.PDFInfo(null, "J.S. Bach; G.F. Händel", null, null, null, null, null);
+        assertTrue(DocumentInfoSync.toMetadata(info, metadata));
+        assertEquals(2, metadata.countArrayItems(XMPConst.NS_DC, "creator"));
+        assertEquals("G.F. Händel", metadata.getArrayItem(XMPConst.NS_DC, "creator", 2).getValue());
+        assertEquals(info.author(), DocumentInfoSync.fromMetadata(metadata).author());
+        assertFalse(DocumentInfoSync.toMetadata(info, metadata));
+        assertEquals(2, metadata.countArrayItems(XMPConst.NS_DC, "creator"));
+    }
+}
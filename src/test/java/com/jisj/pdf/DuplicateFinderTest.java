@@ -0,0 +1,139 @@
+package com.jisj.pdf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class DuplicateFinderTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path libraryDir = Path.of("target/test-data/duplicates");
+    static UUID resavedGuid = UUID.randomUUID();
+
+    @BeforeAll
+    static void setUp() throws IOException, PDFException {
+        if (Files.exists(libraryDir))
+            try (Stream<Path> files = Files.walk(libraryDir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                    Files.delete(file);
+            }
+        Files.createDirectories(libraryDir.resolve("copies"));
+        Files.copy(sourcePdf, libraryDir.resolve("a.pdf"));
+        Files.copy(sourcePdf, libraryDir.resolve("copies/b.pdf"), StandardCopyOption.REPLACE_EXISTING);
+        try (PDFBook book = PDFFactory.readPDF(sourcePdf)) {
+            book.getBookXMPSchema().setGUID(resavedGuid);
+            book.setMetadata(book.getMetadata());
+            book.saveAs(libraryDir.resolve("c-resaved.pdf"));
+        }
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(libraryDir.resolve("d-other.pdf").toFile());
+        }
+        Files.writeString(libraryDir.resolve("e-broken.pdf"), "not a PDF");
+    }
+
+    @Test
+    void find() throws Exception {
+        try (DuplicateFinder finder = new DuplicateFinder(3)) {
+            DuplicateFinder.Result result = finder.find(libraryDir);
+            List<DuplicateFinder.Candidate> identical = result.candidates().stream()
+                    .filter(c -> c.kind() == DuplicateFinder.Kind.IDENTICAL).toList();
+            assertEquals(1, identical.size());
+            assertEquals(List.of("a.pdf", "b.pdf"), Stream.of(identical.getFirst().first(), identical.getFirst().second())
+                    .map(s -> s.path().getFileName().toString()).sorted().toList());
+
+            List<DuplicateFinder.Candidate> similar = result.candidates().stream()
+                    .filter(c -> c.kind() != DuplicateFinder.Kind.IDENTICAL).toList();
+            assertEquals(1, similar.size());
+            DuplicateFinder.Candidate resaved = similar.getFirst();
+            assertEquals(DuplicateFinder.Kind.SIMILAR_SAME_INFO, resaved.kind());
+            DuplicateFinder.Side copy = resaved.first().path().endsWith("c-resaved.pdf") ? resaved.first() : resaved.second();
+            assertEquals(resavedGuid, copy.guid());
+            assertTrue(resaved.distance() <= 6);
+
+            assertEquals(1, result.errors().size());
+            assertTrue(result.errors().containsKey(libraryDir.resolve("e-broken.pdf")));
+        }
+    }
+
+    @Test
+    void findWithUnreadableDirectory() throws Exception {
+        Path root = Path.of("target/test-data/duplicates-unreadable");
+        Path locked = root.resolve("locked");
+        Files.createDirectories(locked);
+        Files.copy(sourcePdf, root.resolve("a.pdf"), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(sourcePdf, root.resolve("b.pdf"), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(sourcePdf, locked.resolve("c.pdf"), StandardCopyOption.REPLACE_EXISTING);
+        Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("---------"));
+        try (DuplicateFinder finder = new DuplicateFinder(2)) {
+            assumeFalse(Files.isReadable(locked), "the directory permissions are not enforced");
+            DuplicateFinder.Result result = finder.find(root);
+            assertEquals(1, result.candidates().size());
+            assertInstanceOf(IOException.class, result.errors().get(locked));
+        } finally {
+            Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+    }
+
+    @Test
+    void findIdenticalOnly() throws Exception {
+        try (DuplicateFinder finder = new DuplicateFinder(2)) {
+            finder.setNearDuplicates(false);
+            DuplicateFinder.Result result = finder.find(List.of(libraryDir.resolve("a.pdf"),
+                    libraryDir.resolve("copies/b.pdf"), libraryDir.resolve("c-resaved.pdf"), libraryDir.resolve("missing.pdf")));
+            assertEquals(1, result.candidates().size());
+            assertEquals(DuplicateFinder.Kind.IDENTICAL, result.candidates().getFirst().kind());
+            assertTrue(result.errors().containsKey(libraryDir.resolve("missing.pdf")));
+        }
+    }
+
+    @Test
+    void fingerprint() throws IOException {
+        try (DuplicateFinder finder = new DuplicateFinder(1)) {
+            DuplicateFinder.Fingerprint a = finder.fingerprint(libraryDir.resolve("a.pdf"));
+            DuplicateFinder.Fingerprint c = finder.fingerprint(libraryDir.resolve("c-resaved.pdf"));
+            DuplicateFinder.Fingerprint d = finder.fingerprint(libraryDir.resolve("d-other.pdf"));
+            assertEquals(a.pageCount(), c.pageCount());
+            assertEquals(0, a.distance(c));
+            assertTrue(a.sameInfo(c) || a.title() == null && a.author() == null);
+            assertFalse(d.sameInfo(d));
+            assertEquals(1, d.pageCount());
+        }
+    }
+
+    @Test
+    void bands() {
+        Random random = new Random(42);
+        for (int maxDistance = 0; maxDistance <= 16; maxDistance++) {
+            int bands = maxDistance + 1;
+            for (int n = 0; n < 1000; n++) {
+                long a = random.nextLong();
+                long b = a;
+                for (int bit = 0; bit < maxDistance; bit++)
+                    b ^= 1L << random.nextInt(Long.SIZE);
+                long[] x = DuplicateFinder.bands(a, bands);
+                long[] y = DuplicateFinder.bands(b, bands);
+                boolean equalBand = false;
+                for (int band = 0; band < bands; band++)
+                    equalBand |= x[band] == y[band];
+                assertTrue(equalBand, "maxDistance = " + maxDistance);
+            }
+        }
+        assertArrayEquals(new long[]{-1L}, DuplicateFinder.bands(-1L, 1));
+        assertEquals(0xFFL, DuplicateFinder.bands(-1L, 8)[7]);
+    }
+}
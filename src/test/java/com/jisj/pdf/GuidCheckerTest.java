@@ -0,0 +1,145 @@
+package com.jisj.pdf;
+
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuidCheckerTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path libraryDir = Path.of("target/test-data/guids");
+    static final UUID BOOK_GUID = UUID.fromString("0b6d4a0e-64b4-4c7a-9d3c-3c1b9f2a7e01");
+    static final UUID BACH_GUID = UUID.fromString("b47665da-6c75-4632-952d-a2ef26196000");
+    static final UUID OTHER_BACH_GUID = UUID.fromString("b47665da-6c75-4632-952d-a2ef26196001");
+
+    @BeforeEach
+    void setUp() throws IOException, PDFException {
+        Files.createDirectories(libraryDir);
+        try (Stream<Path> old = Files.list(libraryDir)) {
+            for (Path p : old.toList()) Files.delete(p);
+        }
+        prepare("a.pdf", BOOK_GUID, new BookRecord.Author("J.S. Bach", "en", BACH_GUID));
+        prepare("b.pdf", BOOK_GUID, new BookRecord.Author("j.s.  bach", "en", BACH_GUID));
+        prepare("c.pdf", UUID.randomUUID(), new BookRecord.Author("J.S. Bach", "en", OTHER_BACH_GUID));
+        prepare("d.pdf", UUID.randomUUID(), new BookRecord.Author("Anonymous", "en", null));
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(libraryDir.resolve("e-no-metadata.pdf").toFile());
+        }
+        Files.writeString(libraryDir.resolve("f-broken.pdf"), "not a PDF");
+    }
+
+    static void prepare(String name, UUID guid, BookRecord.Author author) throws IOException {
+        Path file = libraryDir.resolve(name);
+        Files.copy(sourcePdf, file, REPLACE_EXISTING);
+        BatchMetadataWriter.Outcome outcome = BatchMetadataWriter.write(file, new MetadataEdits()
+                .setGUID(guid)
+                .setAuthors(List.of(author))
+                .setWorks(List.of()));
+        assertNull(outcome.error());
+    }
+
+    @Test
+    void check() throws IOException {
+        GuidChecker.Report report = new GuidChecker().check(libraryDir);
+        assertEquals(5, report.books());
+        assertEquals(1, report.failed().size());
+        assertTrue(report.failed().getFirst().path().endsWith("f-broken.pdf"));
+
+        List<GuidChecker.Issue> missing = report.issues(GuidChecker.IssueType.MISSING_BOOK_GUID);
+        assertEquals(1, missing.size());
+        assertTrue(missing.getFirst().paths().getFirst().endsWith("e-no-metadata.pdf"));
+
+        List<GuidChecker.Issue> duplicates = report.issues(GuidChecker.IssueType.DUPLICATE_BOOK_GUID);
+        assertEquals(1, duplicates.size());
+        assertEquals(List.of("a.pdf", "b.pdf"), fileNames(duplicates.getFirst().paths()));
+        assertEquals(List.of(BOOK_GUID), duplicates.getFirst().guids());
+
+        List<GuidChecker.Issue> conflicts = report.issues(GuidChecker.IssueType.AUTHOR_GUID_CONFLICT);
+        assertEquals(1, conflicts.size());
+        assertEquals(List.of(BACH_GUID, OTHER_BACH_GUID), conflicts.getFirst().guids());
+        assertEquals(List.of("c.pdf"), fileNames(conflicts.getFirst().paths()));
+
+        List<GuidChecker.Issue> missingAuthors = report.issues(GuidChecker.IssueType.MISSING_AUTHOR_GUID);
+        assertEquals(1, missingAuthors.size());
+        assertEquals("Anonymous", missingAuthors.getFirst().authorName());
+        assertEquals(List.of(), missingAuthors.getFirst().guids());
+    }
+
+    @Test
+    void repair() throws IOException, PDFException {
+        GuidChecker checker = new GuidChecker();
+        GuidChecker.Report report = checker.check(libraryDir);
+        BatchMetadataWriter.Report written = checker.repair(report, new BatchMetadataWriter(2));
+        assertEquals(4, written.count(BatchMetadataWriter.Status.SUCCESS));
+
+        report = checker.check(libraryDir);
+        assertEquals(List.of(), report.issues());
+        try (PDFBook a = PDFFactory.readPDF(libraryDir.resolve("a.pdf"));
+             PDFBook c = PDFFactory.readPDF(libraryDir.resolve("c.pdf"))) {
+            assertEquals(BOOK_GUID, a.getBookXMPSchema().getGUID().orElseThrow());
+            BookXMPSchema schema = c.getBookXMPSchema();
+            assertEquals(BACH_GUID, schema.getAuthors().getFirst().getGUID().orElseThrow());
+        }
+    }
+
+    @Test
+    void unnamedAuthors() throws IOException, PDFException {
+        prepare("g-unnamed.pdf", UUID.randomUUID(), new BookRecord.Author(" ", "en", null));
+        prepare("h-unnamed.pdf", UUID.randomUUID(), new BookRecord.Author(" ", "en", OTHER_BACH_GUID));
+        GuidChecker checker = new GuidChecker();
+        GuidChecker.Report report = checker.check(libraryDir);
+        List<GuidChecker.Issue> authorIssues = new ArrayList<>(report.issues(GuidChecker.IssueType.MISSING_AUTHOR_GUID));
+        authorIssues.addAll(report.issues(GuidChecker.IssueType.AUTHOR_GUID_CONFLICT));
+        for (GuidChecker.Issue issue : authorIssues) {
+            assertFalse(issue.authorName().isBlank());
+            assertFalse(fileNames(issue.paths()).contains("g-unnamed.pdf"));
+            assertFalse(fileNames(issue.paths()).contains("h-unnamed.pdf"));
+        }
+
+        checker.repair(report, new BatchMetadataWriter(2));
+        try (PDFBook g = PDFFactory.readPDF(libraryDir.resolve("g-unnamed.pdf"));
+             PDFBook h = PDFFactory.readPDF(libraryDir.resolve("h-unnamed.pdf"))) {
+            assertNull(g.getBookRecord().authors().getFirst().guid());
+            assertEquals(OTHER_BACH_GUID, h.getBookRecord().authors().getFirst().guid());
+        }
+    }
+
+    @Test
+    void uuidTable() {
+        UuidTable table = new UuidTable(4);
+        List<UUID> keys = new ArrayList<>();
+        Set<UUID> unique = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            UUID key = new UUID(i, i % 7);
+            keys.add(key);
+            unique.add(key);
+            assertEquals(-1, table.putIfAbsent(key, i));
+        }
+        assertEquals(unique.size(), table.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, table.get(keys.get(i)));
+            assertEquals(i, table.putIfAbsent(keys.get(i), 0));
+        }
+        assertEquals(-1, table.get(UUID.randomUUID()));
+    }
+
+    static List<String> fileNames(List<Path> paths) {
+        return paths.stream().map(p -> p.getFileName().toString()).toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPMeta;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class LibraryScannerTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path library = Path.of("target/test-data/library");
+    static final UUID GUID = UUID.fromString("b47665da-6c75-4632-952d-a2ef2619600c");
+
+    @BeforeAll
+    static void setUp() throws IOException, PDFException {
+        Files.createDirectories(library.resolve("sub"));
+        Files.copy(sourcePdf, library.resolve("a.pdf"), REPLACE_EXISTING);
+        Files.copy(sourcePdf, library.resolve("sub/b.PDF"), REPLACE_EXISTING);
+        Files.writeString(library.resolve("sub/broken.pdf"), "not a pdf");
+        Files.writeString(library.resolve("notes.txt"), "skipped");
+        try (PDFBook book = PDFFactory.readPDF(sourcePdf)) {
+            XMPMeta meta = book.getMetadata();
+            BookXMPSchema bs = new BookXMPSchema(meta);
+            bs.setTitle("Scanned book", "en");
+            bs.setGUID(GUID);
+            bs.addWork().setTitle("Work #1", "en");
+            book.setMetadata(meta);
+            book.saveAs(library.resolve("sub/c.pdf"));
+        }
+    }
+
+    @Test
+    void scan() throws IOException {
+        List<BookSummary> summaries;
+        try (Stream<BookSummary> books = new LibraryScanner(2).scan(library)) {
+            summaries = books.toList();
+        }
+        assertEquals(4, summaries.size());
+        assertEquals(1, summaries.stream().filter(BookSummary::isFailed).count());
+        BookSummary c = summaries.stream()
+                .filter(s -> s.path().endsWith("c.pdf"))
+                .findFirst().orElseThrow();
+        assertEquals("Scanned book", c.book().title().content());
+        assertEquals(GUID, c.book().guid());
+        assertEquals(1, c.book().works().size());
+        assertEquals(Files.size(c.path()), c.fileSize());
+        assertEquals("An American In Paris", c.info().title());
+    }
+
+    @Test
+    void slowConsumerAndEarlyClose() throws IOException {
+        LibraryScanner scanner = new LibraryScanner(1);
+        scanner.setQueueCapacity(1);
+        try (Stream<BookSummary> books = scanner.scan(library)) {
+            assertEquals(1, books.limit(1).count());
+        }
+    }
+
+    @Test
+    void notDirectory() {
+        assertThrows(IOException.class, () -> new LibraryScanner().scan(sourcePdf));
+    }
+
+    @Test
+    void unreadableDirectory() throws IOException {
+        Path root = Path.of("target/test-data/library-unreadable");
+        Path locked = root.resolve("locked");
+        Files.createDirectories(locked);
+        Files.copy(sourcePdf, root.resolve("a.pdf"), REPLACE_EXISTING);
+        Files.copy(sourcePdf, locked.resolve("b.pdf"), REPLACE_EXISTING);
+        Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("---------"));
+        try {
+            assumeFalse(Files.isReadable(locked), "the directory permissions are not enforced");
+            List<BookSummary> summaries;
+            try (Stream<BookSummary> books = new LibraryScanner(2).scan(root)) {
+                summaries = books.toList();
+            }
+            assertEquals(2, summaries.size());
+            BookSummary failed = summaries.stream().filter(BookSummary::isFailed).findFirst().orElseThrow();
+            assertEquals(locked, failed.path());
+            assertInstanceOf(IOException.class, failed.error());
+            assertTrue(summaries.stream().anyMatch(s -> s.path().endsWith("a.pdf") && !s.isFailed()));
+        } finally {
+            Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+    }
+}
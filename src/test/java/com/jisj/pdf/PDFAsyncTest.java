@@ -0,0 +1,100 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPMeta;
+import com.jisj.pdf.xmp.BookXMPSchema;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PDFAsyncTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path testData = Path.of("target/test-data");
+    static ExecutorService io = Executors.newFixedThreadPool(2);
+    static ExecutorService cpu = Executors.newFixedThreadPool(2);
+    static AtomicInteger ioTasks = new AtomicInteger();
+    static AtomicInteger cpuTasks = new AtomicInteger();
+    static PDFAsync async = new PDFAsync(r -> {
+        ioTasks.incrementAndGet();
+        io.execute(r);
+    }, r -> {
+        cpuTasks.incrementAndGet();
+        cpu.execute(r);
+    });
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        Files.createDirectories(testData);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        async.close();
+        assertFalse(io.isShutdown());
+        io.shutdown();
+        cpu.shutdown();
+    }
+
+    @Test
+    void readAndSave() throws Exception {
+        Path target = testData.resolve("pdf-async.pdf");
+        Files.deleteIfExists(target);
+        UUID guid = UUID.randomUUID();
+        int ioBefore = ioTasks.get();
+        int cpuBefore = cpuTasks.get();
+        PDFBook book = async.readPDF(sourcePdf).get(30, TimeUnit.SECONDS);
+        try {
+            BookXMPSchema schema = async.getBookXMPSchema(book).get(30, TimeUnit.SECONDS);
+            assertEquals(ioBefore + 1, ioTasks.get());
+            assertEquals(cpuBefore + 1, cpuTasks.get());
+            schema.setGUID(guid);
+            XMPMeta metadata = book.getMetadata();
+            async.setMetadata(book, metadata)
+                    .thenCompose(v -> {
+                        assertFalse(book.isMetadataDirty());
+                        return async.saveAs(book, target);
+                    }).get(30, TimeUnit.SECONDS);
+            assertEquals(ioBefore + 2, ioTasks.get());
+            assertEquals(cpuBefore + 2, cpuTasks.get());
+        } finally {
+            async.close(book).get(30, TimeUnit.SECONDS);
+        }
+        try (PDFBook saved = PDFFactory.readPDF(target)) {
+            assertEquals(guid, saved.getBookXMPSchema().getGUID().orElseThrow());
+        }
+    }
+
+    @Test
+    void updateBookXMPSchema() throws Exception {
+        Path target = testData.resolve("pdf-async-update.pdf");
+        async.updateBookXMPSchema(sourcePdf, target, schema -> schema.setTitle("Async title", "en"))
+                .get(30, TimeUnit.SECONDS);
+        try (PDFBook saved = PDFFactory.readPDF(target)) {
+            assertEquals("Async title", saved.getBookXMPSchema().getTitle().getContent());
+        }
+    }
+
+    @Test
+    void errors() {
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> async.readPDF(testData.resolve("not-found.pdf")).join());
+        assertInstanceOf(IOException.class, e.getCause());
+        e = assertThrows(CompletionException.class, () -> async.updateBookXMPSchema(sourcePdf,
+                testData.resolve("pdf-async-error.pdf"), schema -> {
+                    throw new IllegalStateException("Edit error");
+                }).join());
+        assertEquals("Edit error", e.getCause().getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new PDFAsync(null, cpu));
+    }
+}
@@ -1,15 +1,28 @@
 package com.jisj.pdf;
 
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPIterator;
 import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.adobe.internal.xmp.properties.XMPPropertyInfo;
+import com.jisj.pdf.xmp.BookRecord;
+import com.jisj.pdf.xmp.BookRecordDecoder;
 import com.jisj.pdf.xmp.BookXMPSchema;
 import com.jisj.pdf.xmp.WorkStruct;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import static com.jisj.pdf.PDFFactory.readPDF;
@@ -19,6 +32,7 @@ class PDFBookTest {
     static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
     static Path targetPdf = Path.of("src/test/resources/pdf-test-target.pdf");
     static Path enryptPdf = Path.of("src/test/resources/BWV998.PDF");
+    static Path testData = Path.of("target/test-data");
     static PDFBook book;
 
     //book test data
@@ -137,6 +151,189 @@ class PDFBookTest {
 
     }
 
+    @Test
+    void metadataCache() throws PDFException, IOException {
+        Path file = Files.createDirectories(testData).resolve("cached.pdf");
+        try (PDFBook mBook = readPDF(sourcePdf)) {
+            XMPMeta meta = mBook.getMetadata();
+            assertSame(meta, mBook.getMetadata());
+            assertSame(mBook.getBookXMPSchema(), mBook.getBookXMPSchema());
+            assertFalse(mBook.isMetadataDirty());
+
+            byte[] stream = mBook.getDocument().getDocumentCatalog().getMetadata().toByteArray();
+            XMPMeta replaced = XMPMetaFactory.create();
+            new BookXMPSchema(replaced).setTitle(TITLE, "en");
+            mBook.setMetadata(replaced);
+            assertFalse(mBook.isMetadataDirty());
+            assertSame(replaced, mBook.getBookXMPSchema().getMetadata());
+            assertFalse(Arrays.equals(stream, mBook.getDocument().getDocumentCatalog().getMetadata().toByteArray()));
+
+            mBook.getDocument().save(file.toFile());
+        }
+        try (PDFBook mBook = readPDF(file)) {
+            assertEquals(TITLE, mBook.getBookXMPSchema().getTitle().getContent());
+        }
+    }
+
+    @Test
+    void setBookRecord() throws PDFException, IOException {
+        Path file = Files.createDirectories(testData).resolve("book-record.pdf");
+        Map<String, String> others;
+        BookRecord record;
+        try (PDFBook mBook = readPDF(sourcePdf)) {
+            others = otherProperties(mBook.getMetadata());
+            XMPMeta meta = XMPMetaFactory.create();
+            record = BookRecordDecoder.decode(newTestBookData(meta));
+            mBook.setBookRecord(record);
+            assertFalse(mBook.isMetadataDirty());
+            assertEquals(record, mBook.getBookRecord());
+            assertEquals(others, otherProperties(mBook.getMetadata()));
+
+            BookRecord renamed = new BookRecord(new BookRecord.Title("Renamed", "en"), record.guid(),
+                    record.dateCreated(), record.genres(), record.authors(), record.sheets(), record.works(), "S1");
+            mBook.setBookRecord(renamed);
+            record = renamed;
+            mBook.saveAs(file);
+        }
+        try (PDFBook mBook = readPDF(file)) {
+            assertEquals(record, mBook.getBookRecord());
+            assertEquals("Renamed", mBook.getBookXMPSchema().getTitle().getContent());
+            assertEquals(others, otherProperties(mBook.getMetadata()));
+        }
+    }
+
+    @Test
+    void bookRecordWithoutMetadata() throws PDFException, IOException {
+        Path file = Files.createDirectories(testData).resolve("no-xmp.pdf");
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(file.toFile());
+        }
+        try (PDFBook mBook = readPDF(file)) {
+            assertNull(mBook.getMetadata());
+            assertNull(mBook.getBookRecord());
+        }
+        assertNull(PDFFactory.readMetadataOnly(file).getBookRecord());
+    }
+
+    private static Map<String, String> otherProperties(XMPMeta meta) throws PDFException {
+        Map<String, String> properties = new TreeMap<>();
+        try {
+            XMPIterator i = meta.iterator();
+            while (i.hasNext()) {
+                XMPPropertyInfo info = (XMPPropertyInfo) i.next();
+                if (info.getPath() != null && !info.getPath().startsWith(BookXMPSchema.PREFIX + ":"))
+                    properties.put(info.getPath(), info.getValue());
+            }
+        } catch (XMPException e) {
+            throw new PDFException("Metadata iteration error", e);
+        }
+        return properties;
+    }
+
+    @Test
+    void saveIncremental_inPlace() throws PDFException, IOException {
+        Path file = Files.createDirectories(testData).resolve("incremental.pdf");
+        Files.copy(sourcePdf, file, StandardCopyOption.REPLACE_EXISTING);
+        byte[] original = Files.readAllBytes(file);
+        long appended;
+        try (PDFBook mBook = readPDF(file)) {
+            XMPMeta meta = mBook.getMetadata();
+            new BookXMPSchema(meta).setTitle("Incremental title", "en");
+            mBook.setMetadata(meta);
+            mBook.setDocumentInfo(new PDFBook.PDFInfo("Info title", null, null, null, null, null, null), "title");
+            appended = mBook.saveIncremental();
+            PDFException e = assertThrows(PDFException.class, mBook::saveIncremental);
+            assertTrue(e.getMessage().startsWith("Book file was already saved incrementally"));
+            assertThrows(PDFException.class, () -> mBook.saveIncremental(testData.resolve("incremental-copy.pdf")));
+        }
+        assertEquals(original.length + appended, Files.size(file));
+        try (PDFBook mBook = readPDF(file)) {
+            mBook.setDocumentInfo(new PDFBook.PDFInfo("Second title", null, null, null, null, null, null), "title");
+            appended += mBook.saveIncremental();
+        }
+        byte[] saved = Files.readAllBytes(file);
+        assertEquals(original.length + appended, saved.length);
+        assertArrayEquals(original, Arrays.copyOf(saved, original.length));
+        try (PDFBook mBook = new PDFBook(PDFFactory.read(file))) {
+            assertEquals("Incremental title", mBook.getBookXMPSchema().getTitle().getContent());
+            assertEquals("Second title", mBook.getDocumentInfo().title());
+            assertEquals(AUTHOR, mBook.getDocumentInfo().author());
+        }
+    }
+
+    @Test
+    void saveIncremental_scalesWithMetadata() throws PDFException, IOException {
+        Path small = Files.createDirectories(testData).resolve("incremental-small.pdf");
+        Path large = testData.resolve("incremental-large.pdf");
+        Files.copy(sourcePdf, small, StandardCopyOption.REPLACE_EXISTING);
+        try (PDDocument doc = PDFFactory.read(sourcePdf)) {
+            for (int i = 0; i < 300; i++)
+                doc.importPage(doc.getPage(0));
+            doc.save(large.toFile());
+        }
+        assertTrue(Files.size(large) > 10 * Files.size(small));
+
+        long smallAppended = saveTitleIncremental(small, 1);
+        long largeAppended = saveTitleIncremental(large, 1);
+        long manyWorksAppended = saveTitleIncremental(small, 200);
+        assertTrue(smallAppended < Files.size(small) / 4);
+        assertTrue(Math.abs(largeAppended - smallAppended) < 1024,
+                "appended: small=" + smallAppended + ", large=" + largeAppended);
+        assertTrue(manyWorksAppended > 4 * smallAppended,
+                "appended: 1 work=" + smallAppended + ", 200 works=" + manyWorksAppended);
+
+        Path target = testData.resolve("incremental-copy.pdf");
+        try (PDFBook mBook = readPDF(large)) {
+            XMPMeta meta = mBook.getMetadata();
+            new BookXMPSchema(meta).setPreferredShelf("S3");
+            mBook.setMetadata(meta);
+            assertTrue(mBook.saveIncremental(target) < 10_000);
+        }
+        try (PDFBook mBook = readPDF(target)) {
+            assertEquals("S3", mBook.getBookXMPSchema().getPreferredShelf());
+            assertEquals(301, mBook.getDocument().getNumberOfPages());
+        }
+    }
+
+    private long saveTitleIncremental(Path file, int works) throws PDFException, IOException {
+        try (PDFBook mBook = readPDF(file)) {
+            XMPMeta meta = mBook.getMetadata();
+            BookXMPSchema bs = new BookXMPSchema(meta);
+            bs.setTitle("Incremental title", "en");
+            for (int i = 0; i < works; i++)
+                bs.addWork().setTitle("Work #" + i, "en");
+            mBook.setMetadata(meta);
+            return mBook.saveIncremental();
+        }
+    }
+
+    @Test
+    void saveIncremental_newMetadata() throws PDFException, IOException {
+        Path file = Files.createDirectories(testData).resolve("incremental-new.pdf");
+        try (PDDocument doc = new PDDocument()) {
+            doc.addPage(new PDPage());
+            doc.save(file.toFile());
+        }
+        try (PDFBook mBook = readPDF(file)) {
+            assertNull(mBook.getMetadata());
+            BookXMPSchema bs = new BookXMPSchema(XMPMetaFactory.create());
+            bs.setTitle(TITLE, "en");
+            mBook.setMetadata(bs.getMetadata());
+            mBook.saveIncremental();
+        }
+        try (PDFBook mBook = readPDF(file)) {
+            assertEquals(TITLE, mBook.getBookXMPSchema().getTitle().getContent());
+        }
+    }
+
+    @Test
+    void saveIncremental_withoutPath() throws IOException {
+        try (PDFBook mBook = new PDFBook(PDFFactory.read(sourcePdf))) {
+            assertThrows(PDFException.class, mBook::saveIncremental);
+        }
+    }
+
     private XMPMeta newTestBookData(XMPMeta metadata) {
         BookXMPSchema bs = new BookXMPSchema(metadata);
         bs.setTitle(TITLE, "ru");
@@ -0,0 +1,70 @@
+package com.jisj.pdf;
+
+import com.adobe.internal.xmp.XMPMeta;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PDFEventsTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path testData = Path.of("target/test-data");
+
+    @Test
+    void events() throws IOException, PDFException {
+        Files.createDirectories(testData);
+        Path target = testData.resolve("pdf-events.pdf");
+        Path dump = testData.resolve("pdf-events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("Read", "MetadataParse", "MetadataSerialize", "BookSchema", "Save"))
+                recording.enable("com.jisj.pdf." + name);
+            recording.start();
+            try (PDFBook book = PDFFactory.readPDF(sourcePdf)) {
+                book.getBookXMPSchema().setGUID(UUID.randomUUID());
+                XMPMeta metadata = book.getMetadata();
+                book.setMetadata(metadata);
+                book.saveAs(target);
+            }
+            PDFFactory.readMetadataOnly(target);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.jisj.pdf."))
+                .toList();
+        List<RecordedEvent> reads = byName(events, "com.jisj.pdf.Read");
+        assertEquals(2, reads.size());
+        assertEquals(Files.size(sourcePdf), reads.getFirst().getLong("fileSize"));
+        assertFalse(reads.getFirst().getBoolean("metadataOnly"));
+        assertTrue(reads.get(1).getBoolean("metadataOnly"));
+
+        RecordedEvent parse = byName(events, "com.jisj.pdf.MetadataParse").getFirst();
+        assertEquals(sourcePdf.toString(), parse.getString("path"));
+        assertTrue(parse.getLong("packetSize") > 0);
+        assertTrue(parse.getInt("authors") >= 0);
+
+        RecordedEvent serialize = byName(events, "com.jisj.pdf.MetadataSerialize").getFirst();
+        assertTrue(serialize.getLong("packetSize") > 0);
+        assertFalse(serialize.getBoolean("recordWriter"));
+        assertEquals(1, byName(events, "com.jisj.pdf.BookSchema").size());
+
+        RecordedEvent save = byName(events, "com.jisj.pdf.Save").getFirst();
+        assertEquals(target.toString(), save.getString("path"));
+        assertEquals(Files.size(target), save.getLong("bytesWritten"));
+        assertFalse(save.getBoolean("incremental"));
+        assertFalse(save.getDuration().isNegative());
+    }
+
+    static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+    }
+}
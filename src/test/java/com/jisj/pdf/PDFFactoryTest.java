@@ -1,18 +1,127 @@
 package com.jisj.pdf;
 
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
 import static com.jisj.pdf.PDFFactory.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class PDFFactoryTest {
     static Path sourcePdf = Path.of("src/test/resources/BWV998.pdf");
+    static Path bookPdf = Path.of("src/test/resources/pdf-test.pdf");
 
 
     @Test
     void readPdf() throws Exception {
         assertNotNull(read(sourcePdf));
     }
+
+    @Test
+    void readMetadataOnlyTest() throws Exception {
+        PDFMetadata meta = readMetadataOnly(bookPdf);
+        assertFalse(meta.metadataEncrypted());
+        assertNotNull(meta.xmp());
+        try (PDFBook book = readPDF(bookPdf)) {
+            assertEquals(book.getDocumentInfo(), meta.info());
+            assertEquals(book.getLanguage(), meta.language());
+            assertEquals(book.getMetadata().dumpObject(), meta.getXMPMeta().dumpObject());
+        }
+        assertNotNull(meta.getBookXMPSchema());
+    }
+
+    @Test
+    void readWithLoadOptions() throws Exception {
+        Path tempDir = Files.createDirectories(Path.of("target/test-data/scratch"));
+        try (PDFBook book = readPDF(bookPdf, LoadOptions.tempFileOnly().setTempDir(tempDir))) {
+            writeStream(book, 100_000);
+            assertEquals(0L, book.getMemoryUsage().heapBytes());
+            assertTrue(book.getMemoryUsage().offHeapBytes() >= 100_000);
+        }
+        try (PDFBook book = readPDF(bookPdf, LoadOptions.heapOnly(1_000_000))) {
+            writeStream(book, 100_000);
+            assertTrue(book.getMemoryUsage().heapBytes() >= 100_000);
+            assertEquals(0L, book.getMemoryUsage().offHeapBytes());
+        }
+        try (PDFBook book = readPDF(bookPdf, LoadOptions.mixed(4096).setTempDir(tempDir))) {
+            writeStream(book, 100_000);
+            assertEquals(4096, book.getMemoryUsage().heapBytes());
+            assertTrue(book.getMemoryUsage().offHeapBytes() > 0);
+        }
+        try (PDFBook book = readPDF(bookPdf)) {
+            assertNull(book.getMemoryUsage());
+        }
+    }
+
+    @Test
+    void readEncryptedWithPasswordProvider() throws Exception {
+        Path dir = Files.createDirectories(Path.of("target/test-data/encrypted"));
+        Path userPassword = encrypt(dir.resolve("user-password.pdf"), "user");
+        Path ownerOnly = encrypt(dir.resolve("owner-only.pdf"), "");
+        String guid;
+        try (PDFBook book = readPDF(bookPdf)) {
+            guid = book.getBookXMPSchema().getGUID().map(Object::toString).orElse(null);
+        }
+
+        assertThrows(InvalidPasswordException.class, () -> readPDF(userPassword));
+        try (PDFBook book = readPDF(ownerOnly)) {
+            assertTrue(book.isMetaDataEncrypted());
+            assertThrowsExactly(PDFEncryptedMetadata.class, book::getMetadata);
+        }
+        assertTrue(readMetadataOnly(ownerOnly).metadataEncrypted());
+
+        setPasswordProvider(PasswordProvider.of(Map.of("user-password.pdf", "user")));
+        try {
+            try (PDFBook book = readPDF(userPassword)) {
+                assertFalse(book.isMetaDataEncrypted());
+                assertEquals(guid, book.getBookXMPSchema().getGUID().map(Object::toString).orElse(null));
+            }
+            try (PDFBook book = readPDF(ownerOnly)) {
+                assertTrue(book.isMetaDataEncrypted());
+                assertThrowsExactly(PDFEncryptedMetadata.class, book::getMetadata);
+            }
+            assertTrue(readMetadataOnly(ownerOnly).metadataEncrypted());
+            PDFMetadata meta = readMetadataOnly(userPassword);
+            assertFalse(meta.metadataEncrypted());
+            assertNotNull(meta.getBookXMPSchema());
+            assertEquals(readMetadataOnly(bookPdf).info(), meta.info());
+        } finally {
+            setPasswordProvider(null);
+        }
+        assertNull(getPasswordProvider());
+
+        setPasswordProvider(PasswordProvider.of(Map.of("owner-only.pdf", "owner")));
+        try (PDFBook book = readPDF(ownerOnly)) {
+            assertFalse(book.isMetaDataEncrypted());
+            assertNotNull(book.getMetadata());
+        } finally {
+            setPasswordProvider(null);
+        }
+    }
+
+    private static Path encrypt(Path target, String userPassword) throws IOException {
+        try (PDDocument document = read(bookPdf)) {
+            StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", userPassword, new AccessPermission());
+            policy.setEncryptionKeyLength(256);
+            document.protect(policy);
+            document.save(target.toFile());
+        }
+        return target;
+    }
+
+    private static void writeStream(PDFBook book, int size) throws IOException {
+        COSStream stream = book.getDocument().getDocument().createCOSStream();
+        try (OutputStream os = stream.createRawOutputStream()) {
+            os.write(new byte[size]);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.jisj.pdf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PDFMetricsTest {
+    static Path sourcePdf = Path.of("src/test/resources/pdf-test.pdf");
+    static Path testData = Path.of("target/test-data");
+    static PDFMetrics metrics = PDFMetrics.get();
+
+    @Test
+    void readAndSave() throws IOException, PDFException {
+        Files.createDirectories(testData);
+        long opened = metrics.getDocumentsOpened();
+        long bytes = metrics.getBytesRead();
+        long openBooks = metrics.getOpenBooks();
+        long parsed = metrics.getParseLatency().getCount();
+        long saved = metrics.getSaveLatency().getCount();
+        try (PDFBook book = PDFFactory.readPDF(sourcePdf)) {
+            assertEquals(openBooks + 1, metrics.getOpenBooks());
+            book.getBookXMPSchema();
+            book.setMetadata(book.getMetadata());
+            book.saveAs(testData.resolve("pdf-metrics.pdf"));
+            book.close();
+        }
+        assertEquals(openBooks, metrics.getOpenBooks());
+        assertEquals(opened + 1, metrics.getDocumentsOpened());
+        assertEquals(bytes + Files.size(sourcePdf), metrics.getBytesRead());
+        assertEquals(parsed + 1, metrics.getParseLatency().getCount());
+        assertEquals(saved + 1, metrics.getSaveLatency().getCount());
+        assertTrue(metrics.getSaveLatency().quantile(0.99) > 0);
+
+        try (PDDocument document = PDFFactory.read(sourcePdf)) {
+            new PDFBook(document).getMetadata();
+        }
+        assertEquals(openBooks, metrics.getOpenBooks());
+    }
+
+    @Test
+    void failures() {
+        long failed = readFailures();
+        assertThrows(IOException.class, () -> PDFFactory.readPDF(testData.resolve("metrics-not-found.pdf")));
+        assertThrows(IOException.class, () -> PDFFactory.readMetadataOnly(testData.resolve("metrics-not-found.pdf")));
+        assertEquals(failed + 2, readFailures());
+        assertTrue(metrics.scrape().contains("pdfbook_failures_total{operation=\"read\",type=\""));
+    }
+
+    static long readFailures() {
+        return metrics.getFailures().entrySet().stream()
+                .filter(e -> e.getKey().operation().equals(PDFMetrics.READ))
+                .mapToLong(Map.Entry::getValue).sum();
+    }
+
+    @Test
+    void histogram() throws InterruptedException {
+        PDFMetrics.Histogram histogram = new PDFMetrics.Histogram();
+        assertEquals(0.0, histogram.quantile(0.99));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++)
+            pool.execute(() -> {
+                for (int i = 0; i < 25_000; i++)
+                    histogram.observe(i % 100 == 0 ? 2_000_000_000L : 3_000_000L);
+            });
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(0.005, histogram.quantile(0.5));
+        assertEquals(0.005, histogram.quantile(0.99));
+        assertEquals(2.5, histogram.quantile(0.995));
+        PDFMetrics.Histogram fast = new PDFMetrics.Histogram();
+        fast.observe(20_000L);
+        fast.observe(200_000L);
+        assertEquals(0.000025, fast.quantile(0.5));
+        assertEquals(0.00025, fast.quantile(1.0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.quantile(1.5));
+    }
+
+    @Test
+    void export() throws IOException {
+        String text = metrics.scrape();
+        assertTrue(text.contains("# TYPE pdfbook_documents_opened_total counter\n"));
+        assertTrue(text.contains("# TYPE pdfbook_open_books gauge\n"));
+        assertTrue(text.contains("# TYPE pdfbook_save_seconds histogram\n"));
+        assertTrue(text.contains("pdfbook_save_seconds_bucket{le=\"0.001\"} "));
+        assertTrue(text.contains("pdfbook_parse_seconds_bucket{le=\"0.00001\"} "));
+        assertTrue(text.contains("pdfbook_parse_seconds_bucket{le=\"10\"} "));
+        assertTrue(text.contains("pdfbook_save_seconds_bucket{le=\"+Inf\"} "));
+        assertTrue(text.contains("pdfbook_parse_seconds_count "));
+
+        Files.createDirectories(testData);
+        Path file = testData.resolve("metrics.prom");
+        metrics.exportTo(file);
+        assertTrue(Files.readString(file).startsWith("# HELP pdfbook_documents_opened_total "));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> exports = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+            exports.add(pool.submit(() -> {
+                metrics.exportTo(file);
+                return null;
+            }));
+        pool.shutdown();
+        for (Future<?> export : exports)
+            assertDoesNotThrow(() -> export.get());
+        try (Stream<Path> files = Files.list(testData)) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith(".metrics.prom")));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jisj.pdf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+
+import javax.print.PrintService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrintQueueTest {
+    static Path testData = Path.of("target/test-data");
+
+    static PDDocument blankDocument(int pages) {
+        PDDocument document = new PDDocument();
+        for (int i = 0; i < pages; i++)
+            document.addPage(new PDPage());
+        return document;
+    }
+
+    @Test
+    void printToFile() throws Exception {
+        Files.createDirectories(testData);
+        Path target = testData.resolve("print-queue.ps");
+        Files.deleteIfExists(target);
+        Set<Integer> progress = ConcurrentHashMap.newKeySet();
+        try (PDDocument document = PDFFactory.read(Path.of("src/test/resources/pdf-test.pdf"));
+             PrintQueue queue = new PrintQueue()) {
+            queue.setProgressListener(job -> progress.add(job.getPagesPrinted()));
+            PDFPrint print = PDFFactory.newPDFPrint(document);
+            print.setFileName(target);
+            PrintQueue.Job job = queue.submit(print);
+            assertEquals(document.getNumberOfPages(), job.getPageCount());
+            assertEquals(PrintQueue.State.DONE, job.getCompletion().get(60, TimeUnit.SECONDS));
+            assertEquals(job.getPageCount(), job.getPagesPrinted());
+            assertTrue(progress.contains(0));
+            assertTrue(progress.contains(job.getPageCount()));
+            assertFalse(job.cancel());
+            assertTrue(queue.getJobs().isEmpty());
+        }
+        assertTrue(Files.readString(target).startsWith("%!PS"));
+    }
+
+    @Test
+    void cancel() throws Exception {
+        Files.createDirectories(testData);
+        Path printing = testData.resolve("print-queue-cancelled.ps");
+        Path queued = testData.resolve("print-queue-queued.ps");
+        Files.deleteIfExists(queued);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        try (PDDocument document = blankDocument(50);
+             PrintQueue queue = new PrintQueue()) {
+            queue.setProgressListener(job -> {
+                if (job.getPagesPrinted() != 3) return;
+                started.countDown();
+                try {
+                    cancelled.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            PDFPrint first = PDFFactory.newPDFPrint(document);
+            first.setFileName(printing);
+            PDFPrint second = PDFFactory.newPDFPrint(document);
+            second.setFileName(queued);
+            PrintQueue.Job firstJob = queue.submit(first);
+            PrintQueue.Job secondJob = queue.submit(second);
+            assertEquals(List.of(firstJob, secondJob), queue.getJobs());
+
+            assertTrue(started.await(60, TimeUnit.SECONDS));
+            assertEquals(PrintQueue.State.PRINTING, firstJob.getState());
+            assertTrue(secondJob.cancel());
+            assertEquals(PrintQueue.State.CANCELLED, secondJob.getState());
+            assertTrue(firstJob.cancel());
+            cancelled.countDown();
+
+            assertEquals(PrintQueue.State.CANCELLED, firstJob.getCompletion().get(60, TimeUnit.SECONDS));
+            assertEquals(PrintQueue.State.CANCELLED, secondJob.getCompletion().get(60, TimeUnit.SECONDS));
+            assertTrue(firstJob.getPagesPrinted() < firstJob.getPageCount());
+        }
+        assertFalse(Files.exists(printing));
+        assertFalse(Files.exists(queued));
+    }
+
+    @Test
+    void printServices() {
+        List<PrintService> services = PrintServices.list();
+        assertSame(services, PrintServices.list());
+        for (PrintService service : services)
+            assertSame(service, PrintServices.find(service.getName().toUpperCase()));
+        assertNull(PrintServices.find("Printer which doesn't exist"));
+        assertNull(PrintServices.find(null));
+        assertEquals(services.size(), PrintServices.refresh().size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.jisj.pdf.catalog;
+
+import com.jisj.pdf.BookSummary;
+import com.jisj.pdf.xmp.BookRecord;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCatalogTest {
+    static final String[] GENRES = {"Baroque", "Classic", "Romantic", "Jazz", "Folk"};
+    static final String[] INSTRUMENTS = {"Lute", "piano", "Guitar", "violin; piano", "Lute,voice"};
+    static final String[] SHELVES = {"S1", "S2", "S3"};
+    static final int BOOKS = 100_000;
+    static final UUID[] AUTHORS = IntStream.range(0, 500).mapToObj(i -> UUID.randomUUID()).toArray(UUID[]::new);
+    static BookCatalog catalog;
+
+    @BeforeAll
+    static void setUp() {
+        Random random = new Random(1);
+        catalog = new BookCatalog();
+        for (int i = 0; i < BOOKS; i++) {
+            BookRecord.Author author = new BookRecord.Author("Author " + i % 500, "en", AUTHORS[i % 500]);
+            BookRecord.Sheets sheets = new BookRecord.Sheets("F-dur", INSTRUMENTS[random.nextInt(INSTRUMENTS.length)], "", "");
+            BookRecord.Work work = new BookRecord.Work(new BookRecord.Title("Work " + i, "en"), UUID.randomUUID(), null,
+                    List.of(GENRES[random.nextInt(GENRES.length)]), List.of(author),
+                    new BookRecord.Sheets("C-moll", "", "BWV " + i % 1000, ""));
+            BookRecord book = new BookRecord(new BookRecord.Title("Book " + i, "en"), UUID.randomUUID(), null,
+                    List.of(GENRES[random.nextInt(GENRES.length)]), List.of(author), sheets, List.of(work),
+                    SHELVES[random.nextInt(SHELVES.length)]);
+            catalog.add(new BookSummary(Path.of("book" + i + ".pdf"), 0, 0, null, null, book, null));
+        }
+        catalog.add(new BookSummary(Path.of("failed.pdf"), 0, 0, null, null, null, new Exception()));
+    }
+
+    @Test
+    void queries() {
+        assertQuery(Query.author(AUTHORS[7]), b -> b.authors().getFirst().guid().equals(AUTHORS[7]));
+        assertQuery(Query.shelf("s3"), b -> b.preferredShelf().equals("S3"));
+        assertQuery(Query.and(Query.genre("baroque"), Query.instrument("LUTE")),
+                b -> (b.genres().contains("Baroque") || b.works().getFirst().genres().contains("Baroque"))
+                        && b.sheets().instruments().startsWith("Lute"));
+        assertQuery(Query.and(Query.shelf("S1"), Query.author(AUTHORS[3]), Query.instrument("piano")),
+                b -> b.preferredShelf().equals("S1") && b.authors().getFirst().guid().equals(AUTHORS[3])
+                        && b.sheets().instruments().contains("piano"));
+        assertQuery(Query.or(Query.catalogNumber("BWV 1"), Query.catalogNumber("BWV 2")),
+                b -> List.of("BWV 1", "BWV 2").contains(b.works().getFirst().sheets().catalogNumber()));
+        assertQuery(Query.and(Query.key("c-moll"), Query.genre("unknown")), b -> false);
+        assertEquals(Query.genre("baroque"), new Query.Term(Field.GENRE, " Baroque"));
+        assertArrayEquals(catalog.find(Query.genre("baroque")), catalog.find(new Query.Term(Field.GENRE, "Baroque")));
+        assertEquals(BOOKS / 500, catalog.count(Field.AUTHOR_NAME, "author 1"));
+    }
+
+    @Test
+    void queryTime() {
+        Query query = Query.and(Query.genre("Baroque"), Query.instrument("Lute"), Query.shelf("S2"));
+        for (int i = 0; i < 1000; i++) catalog.find(query);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) catalog.find(query);
+        System.out.printf("Query time: %.3f ms%n", (System.nanoTime() - start) / 1000 / 1e6);
+    }
+
+    private static void assertQuery(Query query, Predicate<BookRecord> expected) {
+        int[] ids = catalog.find(query);
+        int[] brute = IntStream.range(0, catalog.size())
+                .filter(i -> catalog.get(i).book() != null && expected.test(catalog.get(i).book()))
+                .toArray();
+        assertArrayEquals(brute, ids, query.toString());
+        assertEquals(ids.length, catalog.search(query).size());
+    }
+}
@@ -0,0 +1,178 @@
+package com.jisj.pdf.text;
+
+import com.jisj.pdf.PDFException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullTextIndexTest {
+    static final String[] WORDS = {"соната", "партита", "скрипка", "лютня", "fuga", "prelude", "allemande", "ёлка",
+            "gigue", "менуэт", "bourrée", "chaconne"};
+    static Path indexDir = Path.of("target/test-data/full-text-index");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        if (Files.exists(indexDir))
+            try (Stream<Path> files = Files.list(indexDir)) {
+                for (Path file : files.toList())
+                    Files.delete(file);
+            }
+    }
+
+    @Test
+    void tokenize() {
+        List<String> terms = new ArrayList<>();
+        Tokenizer.tokenize("Сонаты и ПАРТИТЫ для скрипки-соло, BWV 1001; Ёлка «Bourrée» a1", terms::add);
+        assertEquals(List.of("сонаты", "партиты", "для", "скрипки", "соло", "bwv", "1001", "елка", "bourrée", "a1"), terms);
+    }
+
+    @Test
+    void search() throws IOException {
+        UUID guid = UUID.randomUUID();
+        try (FullTextIndex index = FullTextIndex.open(indexDir)) {
+            add(index, Path.of("bach.pdf"), guid, "Сонаты и партиты для скрипки соло", "Партита ре-минор, Чакона",
+                    "Ёлка");
+            add(index, Path.of("weiss.pdf"), null, "Sonata for lute", "Партита для лютни");
+            assertEquals(List.of(new FullTextIndex.Hit(Path.of("bach.pdf"), guid, 1),
+                    new FullTextIndex.Hit(Path.of("weiss.pdf"), null, 1)), index.search("ПАРТИТА"));
+            assertEquals(List.of(new FullTextIndex.Hit(Path.of("bach.pdf"), guid, 0)), index.search("партиты"));
+            assertEquals(List.of(new FullTextIndex.Hit(Path.of("bach.pdf"), guid, 2)), index.search("елка"));
+            assertEquals(List.of(new FullTextIndex.Hit(Path.of("weiss.pdf"), null, 1)), index.search("партита ДЛЯ"));
+            assertTrue(index.search("партита lute").isEmpty());
+            assertTrue(index.search(" , ").isEmpty());
+        }
+        try (FullTextIndex index = FullTextIndex.open(indexDir)) {
+            assertEquals(1, index.getSegmentCount());
+            assertEquals(2, index.size());
+            assertEquals(List.of(new FullTextIndex.Hit(Path.of("bach.pdf"), guid, 2)), index.search("Ёлка"));
+            assertTrue(index.remove(Path.of("bach.pdf")));
+            assertFalse(index.contains(Path.of("bach.pdf")));
+            assertTrue(index.search("Ёлка").isEmpty());
+        }
+        try (FullTextIndex index = FullTextIndex.open(indexDir)) {
+            assertEquals(1, index.size());
+            assertTrue(index.search("Ёлка").isEmpty());
+        }
+    }
+
+    @Test
+    void segmentsMerge() throws IOException {
+        Random random = new Random(1);
+        List<List<String>> books = new ArrayList<>();
+        try (FullTextIndex index = FullTextIndex.open(indexDir)) {
+            index.setMaxBufferedPostings(200);
+            index.setMergeFactor(3);
+            for (int b = 0; b < 300; b++) {
+                List<String> pages = new ArrayList<>();
+                for (int p = 0; p < 1 + random.nextInt(10); p++)
+                    pages.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+                books.add(pages);
+                add(index, Path.of("book" + b + ".pdf"), null, pages.toArray(String[]::new));
+            }
+            // re-indexed book replaces the old postings
+            books.set(7, List.of("chaconne"));
+            add(index, Path.of("book7.pdf"), null, "chaconne");
+            assertTrue(index.getSegmentCount() < 20, "segments: " + index.getSegmentCount());
+            assertSearch(index, books);
+        }
+        try (FullTextIndex index = FullTextIndex.open(indexDir)) {
+            assertEquals(300, index.size());
+            assertSearch(index, books);
+            long manifestSize = Files.size(indexDir.resolve(FullTextIndex.MANIFEST));
+            index.merge();
+            assertEquals(1, index.getSegmentCount());
+            assertSearch(index, books);
+            // the replaced book7 entry is dropped
+            assertTrue(Files.size(indexDir.resolve(FullTextIndex.MANIFEST)) < manifestSize);
+            List<Path> merged;
+            try (Stream<Path> files = Files.list(indexDir)) {
+                merged = files.sorted().toList();
+            }
+            index.merge();
+            try (Stream<Path> files = Files.list(indexDir)) {
+                assertEquals(merged, files.sorted().toList());
+            }
+        }
+        try (Stream<Path> files = Files.list(indexDir)) {
+            assertEquals(2, files.count());
+        }
+        try (FullTextIndex index = FullTextIndex.open(indexDir)) {
+            assertEquals(300, index.size());
+            assertSearch(index, books);
+            assertTrue(index.remove(Path.of("book3.pdf")));
+            books.set(3, List.of());
+            index.merge();
+            assertEquals(299, index.size());
+            assertSearch(index, books);
+            add(index, Path.of("book3.pdf"), null, "gigue");
+            books.set(3, List.of("gigue"));
+            assertSearch(index, books);
+        }
+    }
+
+    @Test
+    void addBook() throws IOException, PDFException {
+        Path book = Path.of("target/test-data/full-text-book.pdf");
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN);
+            for (String text : List.of("Prelude in C", "Fugue in C", "Prelude in D")) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.setFont(font, 12);
+                    content.beginText();
+                    content.newLineAtOffset(40, 750);
+                    content.showText(text);
+                    content.endText();
+                }
+            }
+            document.save(book.toFile());
+        }
+        try (FullTextIndex index = FullTextIndex.open(indexDir);
+             TextExtractor extractor = new TextExtractor(2)) {
+            assertEquals(3, index.add(extractor, book));
+            assertEquals(List.of(new FullTextIndex.Hit(book, null, 0), new FullTextIndex.Hit(book, null, 2)),
+                    index.search("prelude"));
+        }
+    }
+
+    static void add(FullTextIndex index, Path book, UUID guid, String... pages) throws IOException {
+        PageTextSink sink = index.sink(book, guid);
+        sink.begin(book, pages.length);
+        for (int p = pages.length - 1; p >= 0; p--)
+            sink.page(p, pages[p]);
+        sink.end();
+    }
+
+    static void assertSearch(FullTextIndex index, List<List<String>> books) {
+        for (String word : WORDS) {
+            String term = word.replace('ё', 'е');
+            List<FullTextIndex.Hit> expected = new ArrayList<>();
+            for (int b = 0; b < books.size(); b++)
+                for (int p = 0; p < books.get(b).size(); p++)
+                    if (List.of(books.get(b).get(p).replace('ё', 'е').split(" ")).contains(term))
+                        expected.add(new FullTextIndex.Hit(Path.of("book" + b + ".pdf"), null, p));
+            List<FullTextIndex.Hit> hits = new ArrayList<>(index.search(word));
+            // the re-indexed book is found at the end
+            hits.sort(Comparator.comparing((FullTextIndex.Hit h) -> Integer.parseInt(h.book().toString().replaceAll("\\D", "")))
+                    .thenComparingInt(FullTextIndex.Hit::pageIndex));
+            assertEquals(expected, hits, word);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.jisj.pdf.text;
+
+import com.jisj.pdf.PDFFactory;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextExtractorTest {
+    static Path testData = Path.of("target/test-data");
+    static Path book = testData.resolve("text-extractor-50p.pdf");
+    static List<String> expected = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        Files.createDirectories(testData);
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int p = 0; p < 50; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.setFont(font, 10);
+                    content.beginText();
+                    content.newLineAtOffset(40, 750);
+                    for (int line = 0; line < 5; line++) {
+                        content.showText("Page " + p + " line " + line);
+                        content.newLineAtOffset(0, -12);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(book.toFile());
+        }
+        try (PDDocument document = PDFFactory.read(book)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int p = 1; p <= document.getNumberOfPages(); p++) {
+                stripper.setStartPage(p);
+                stripper.setEndPage(p);
+                expected.add(stripper.getText(document));
+            }
+        }
+    }
+
+    @Test
+    void extract_callback() throws IOException {
+        try (TextExtractor extractor = new TextExtractor(4)) {
+            extractor.setQueueCapacity(2);
+            Map<Integer, String> pages = new TreeMap<>();
+            assertEquals(50, extractor.extract(book, (index, text) -> assertNull(pages.put(index, text))));
+            assertEquals(expected, List.copyOf(pages.values()));
+        }
+    }
+
+    @Test
+    void extract_file() throws IOException {
+        Path text = testData.resolve("text-extractor-50p.txt");
+        try (TextExtractor extractor = new TextExtractor(3)) {
+            extractor.extract(book, PageTextSink.toFile(text));
+        }
+        assertEquals(String.join("\f", expected) + "\f", Files.readString(text, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void extract_errors() throws IOException {
+        try (TextExtractor extractor = new TextExtractor(4)) {
+            assertThrows(IOException.class, () -> extractor.extract(testData.resolve("not-found.pdf"), (i, t) -> {
+            }));
+            boolean[] aborted = {false};
+            IOException e = assertThrows(IOException.class, () -> extractor.extract(book, new PageTextSink() {
+                @Override
+                public void page(int pageIndex, String text) throws IOException {
+                    if (pageIndex > 20) throw new IOException("Sink is full");
+                }
+
+                @Override
+                public void abort() {
+                    aborted[0] = true;
+                }
+            }));
+            assertEquals("Sink is full", e.getMessage());
+            assertTrue(aborted[0]);
+            // the range threads were released
+            int[] count = {0};
+            assertEquals(50, extractor.extract(book, (i, t) -> count[0]++));
+            assertEquals(50, count[0]);
+        }
+    }
+
+    @Test
+    void fileSink() throws IOException {
+        Path dir = testData.resolve("file-sink");
+        Files.createDirectories(dir);
+        Path text = dir.resolve("book.txt");
+        PageTextSink sink = PageTextSink.toFile(text);
+        sink.begin(book, 4);
+        sink.page(2, "c");
+        sink.page(0, "a");
+        sink.page(3, "d");
+        sink.page(1, "b");
+        sink.end();
+        assertEquals("a\fb\fc\fd\f", Files.readString(text, StandardCharsets.UTF_8));
+
+        sink.begin(book, 4);
+        sink.page(0, "a");
+        sink.page(2, "c");
+        sink.page(1, "b");
+        IOException e = assertThrows(IOException.class, sink::end);
+        assertTrue(e.getMessage().startsWith("Missing page 3 "));
+        assertEquals("a\fb\fc\fd\f", Files.readString(text, StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(text), files.toList());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.jisj.pdf.xmp;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookRecordDecoderTest {
+
+    static BookXMPSchema newSchema(int works) {
+        BookXMPSchema book = new BookXMPSchema(XMPMetaFactory.create());
+        book.setTitle("Партиты для клавира", "ru");
+        book.setGUID(UUID.fromString("b47665da-6c75-4632-952d-a2ef2619600c"));
+        book.setDateCreated(LocalDate.of(2025, 11, 1));
+        book.addGenre("music_sheets");
+        book.addGenre("music_barocca");
+        book.addAuthor("J.S. Bach", "en", UUID.fromString("b47665da-6c75-4632-952d-a2ef26196000"));
+        book.addAuthor("F. Busoni", "de", UUID.fromString("b47665da-6c75-4632-952d-a2ef26196001"));
+        book.setSheets("C-moll", "piano", "BWV 826", "Busoni");
+        for (int i = 1; i <= works; i++) {
+            WorkStruct work = book.addWork();
+            work.setTitle("Work #" + i, "en");
+            work.setGUID(new UUID(0x1000L, i));
+            work.setDateCreated(LocalDate.of(2025, 11, 1).plusDays(i));
+            work.addGenre("music_sheets");
+            work.addGenre("genre_" + i);
+            work.addAuthor("J.S. Bach", UUID.fromString("b47665da-6c75-4632-952d-a2ef26196000"));
+            work.setSheets("F-dur", "piano;violin", "BWV " + (770 + i), "author");
+        }
+        book.setPreferredShelf("ShelfOne");
+        return book;
+    }
+
+    @Test
+    void decode() {
+        BookXMPSchema book = newSchema(12);
+        BookRecord record = BookRecordDecoder.decode(book.getMetadata());
+        assertEquals(BookRecord.of(book), record);
+        assertEquals("Партиты для клавира", record.title().content());
+        assertEquals(List.of("music_sheets", "music_barocca"), record.genres());
+        assertEquals(12, record.works().size());
+        assertEquals("Work #12", record.works().getLast().title().content());
+        assertEquals(new UUID(0x1000L, 12), record.works().getLast().guid());
+        assertEquals("BWV 782", record.works().getLast().sheets().catalogNumber());
+        assertEquals("ShelfOne", record.preferredShelf());
+    }
+
+    @Test
+    void decode_parsed() throws XMPException {
+        BookXMPSchema book = newSchema(3);
+        XMPMeta parsed = XMPMetaFactory.parseFromBuffer(XMPMetaFactory.serializeToBuffer(book.getMetadata(), null));
+        assertEquals(BookRecord.of(new BookXMPSchema(parsed)), BookRecordDecoder.decode(parsed));
+    }
+
+    @Test
+    void decode_partial() {
+        BookXMPSchema book = new BookXMPSchema(XMPMetaFactory.create());
+        book.setTitle("Only title", "en");
+        book.addWork().setTitle("Work #1", "ru");
+        BookRecord record = BookRecordDecoder.decode(book.getMetadata());
+        assertEquals(BookRecord.of(book), record);
+        assertNull(record.guid());
+        assertNull(record.works().getFirst().dateCreated());
+        assertEquals("", record.sheets().key());
+    }
+
+    @Test
+    void decode_empty() {
+        XMPMeta meta = XMPMetaFactory.create();
+        BookRecord record = BookRecordDecoder.decode(meta);
+        assertEquals(BookRecord.of(new BookXMPSchema(XMPMetaFactory.create())), record);
+        assertTrue(record.works().isEmpty());
+    }
+}
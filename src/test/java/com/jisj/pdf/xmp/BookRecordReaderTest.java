@@ -0,0 +1,115 @@
+package com.jisj.pdf.xmp;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.adobe.internal.xmp.options.SerializeOptions;
+import com.jisj.pdf.PDFException;
+import com.jisj.pdf.PDFFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookRecordReaderTest {
+
+    static void assertConforms(byte[] xmp) throws XMPException {
+        assertEquals(BookRecordDecoder.decode(XMPMetaFactory.parseFromBuffer(xmp)), BookRecordReader.read(xmp));
+    }
+
+    @Test
+    void read_resources() throws IOException, XMPException, PDFException {
+        // the draft schema packet is rejected by XMPMetaFactory: mismatched top level rdf:about values
+        BookRecord draft = BookRecordReader.read(Files.readAllBytes(Path.of("src/test/resources/book-scheme.xmp")));
+        assertEquals(1, draft.works().size());
+        assertEquals(List.of("sf", "sf_history"), draft.works().getFirst().genres());
+        // the draft author namespace differs from AuthorStruct.NS
+        assertTrue(draft.works().getFirst().authors().isEmpty());
+
+        byte[] xmp = PDFFactory.readMetadataOnly(Path.of("src/test/resources/pdf-test.pdf")).xmp();
+        if (xmp != null)
+            assertConforms(xmp);
+    }
+
+    @Test
+    void read_serialized() throws XMPException {
+        BookXMPSchema book = BookRecordDecoderTest.newSchema(20);
+        for (SerializeOptions options : List.of(new SerializeOptions(),
+                new SerializeOptions().setUseCompactFormat(true),
+                new SerializeOptions().setUseCanonicalFormat(true),
+                new SerializeOptions().setOmitPacketWrapper(true).setEncodeUTF16BE(true))) {
+            byte[] xmp = XMPMetaFactory.serializeToBuffer(book.getMetadata(), options);
+            assertConforms(xmp);
+            assertEquals(BookRecord.of(book), BookRecordReader.read(xmp));
+        }
+    }
+
+    @Test
+    void read_rdfForms() throws XMPException {
+        String xmp = """
+                <x:xmpmeta xmlns:x="adobe:ns:meta/">
+                 <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#">
+                  <rdf:Description rdf:about="" xmlns:dc="http://purl.org/dc/elements/1.1/">
+                   <dc:title><rdf:Alt><rdf:li xml:lang="x-default">Skipped</rdf:li></rdf:Alt></dc:title>
+                  </rdf:Description>
+                  <rdf:Description rdf:about=""
+                    xmlns:book="http://www.jisj.com/ns/book/"
+                    xmlns:work="http://www.jisj.com/ns/book/work"
+                    xmlns:author="http://www.jisj.com/ns/book/author"
+                    xmlns:sheets="http://www.jisj.com/ns/book/musicsheets"
+                    xmlns:text="http://www.jisj.com/ns/book/localizedtext"
+                    book:GUID="b47665da-6c75-4632-952d-a2ef2619600c"
+                    book:PreferredShelf="Shelf">
+                   <book:Title text:content="Партиты" text:lang="ru"/>
+                   <book:DateCreated><rdf:Description><rdf:value>2025-11-01</rdf:value></rdf:Description></book:DateCreated>
+                   <book:Genres><rdf:Bag><rdf:li>a</rdf:li><rdf:li>b &amp; c</rdf:li></rdf:Bag></book:Genres>
+                   <book:Unknown rdf:parseType="Resource"><book:Title>skipped</book:Title></book:Unknown>
+                   <book:MusicSheets>
+                    <rdf:Description sheets:Key="C-moll">
+                     <sheets:Instruments>piano</sheets:Instruments>
+                    </rdf:Description>
+                   </book:MusicSheets>
+                   <book:Works>
+                    <rdf:Seq>
+                     <rdf:li rdf:parseType="Resource">
+                      <work:Title rdf:parseType="Resource"><text:content>Work #1</text:content></work:Title>
+                      <work:Authors>
+                       <rdf:Seq>
+                        <rdf:li author:Name="J.S. Bach" author:GUID="b47665da-6c75-4632-952d-a2ef26196000"/>
+                       </rdf:Seq>
+                      </work:Authors>
+                     </rdf:li>
+                     <rdf:li><rdf:Description work:GUID="b47665da-6c75-4632-952d-a2ef2600600c"/></rdf:li>
+                    </rdf:Seq>
+                   </book:Works>
+                  </rdf:Description>
+                 </rdf:RDF>
+                </x:xmpmeta>
+                """;
+        byte[] bytes = xmp.getBytes(StandardCharsets.UTF_8);
+        assertConforms(bytes);
+        BookRecord record = BookRecordReader.read(bytes);
+        assertEquals(new BookRecord.Title("Партиты", "ru"), record.title());
+        assertEquals(UUID.fromString("b47665da-6c75-4632-952d-a2ef2619600c"), record.guid());
+        assertEquals(LocalDate.of(2025, 11, 1), record.dateCreated());
+        assertEquals(List.of("a", "b & c"), record.genres());
+        assertEquals("C-moll", record.sheets().key());
+        assertEquals("piano", record.sheets().instruments());
+        assertEquals(2, record.works().size());
+        assertEquals("Work #1", record.works().getFirst().title().content());
+        assertEquals("J.S. Bach", record.works().getFirst().authors().getFirst().name());
+        assertEquals(UUID.fromString("b47665da-6c75-4632-952d-a2ef2600600c"), record.works().getLast().guid());
+        assertEquals("Shelf", record.preferredShelf());
+    }
+
+    @Test
+    void read_badXML() {
+        assertThrows(XMPException.class, () -> BookRecordReader.read("<x:xmpmeta".getBytes(StandardCharsets.UTF_8)));
+    }
+}
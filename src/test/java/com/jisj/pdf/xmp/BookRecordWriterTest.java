@@ -0,0 +1,95 @@
+package com.jisj.pdf.xmp;
+
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPIterator;
+import com.adobe.internal.xmp.XMPMeta;
+import com.adobe.internal.xmp.XMPMetaFactory;
+import com.adobe.internal.xmp.properties.XMPPropertyInfo;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookRecordWriterTest {
+
+    /**
+     * Gives the book schema tree nodes: path, value and options
+     */
+    static Set<String> bookTree(XMPMeta meta) throws XMPException {
+        Set<String> nodes = new TreeSet<>();
+        XMPIterator i = meta.iterator(BookXMPSchema.NS, null, null);
+        while (i.hasNext()) {
+            XMPPropertyInfo info = (XMPPropertyInfo) i.next();
+            nodes.add(info.getPath() + "=" + info.getValue() + "#" + info.getOptions().getOptions());
+        }
+        return nodes;
+    }
+
+    @Test
+    void write_sameTree() throws XMPException {
+        BookXMPSchema book = BookRecordDecoderTest.newSchema(30);
+        BookRecord record = BookRecord.of(book);
+        XMPMeta expected = XMPMetaFactory.parseFromBuffer(XMPMetaFactory.serializeToBuffer(book.getMetadata(), null));
+        XMPMeta parsed = XMPMetaFactory.parseFromBuffer(new BookRecordWriter().write(record).toByteArray());
+        assertEquals(bookTree(expected), bookTree(parsed));
+        assertEquals(record, BookRecordDecoder.decode(parsed));
+    }
+
+    @Test
+    void write_escaped() throws XMPException {
+        String title = "<Партиты> & \"сюиты\" 🎹\r\n\ttabs";
+        BookRecord record = new BookRecord(new BookRecord.Title(title, "ru"), null, null, List.of("a&b", "<c>"),
+                List.of(new BookRecord.Author("Бах", "", UUID.randomUUID())),
+                new BookRecord.Sheets("", "", "", ""), List.of(), "");
+        byte[] packet = new BookRecordWriter().write(record).toByteArray();
+        assertEquals(record, BookRecordDecoder.decode(XMPMetaFactory.parseFromBuffer(packet)));
+        assertEquals(record, BookRecordReader.read(packet));
+    }
+
+    @Test
+    void write_controlChars() throws XMPException {
+        BookRecord record = new BookRecord(new BookRecord.Title("a\u0000b\u0008c\u000Bd\u007Fe\tf", "en"), null, null,
+                List.of("g\u001Fh"), List.of(), new BookRecord.Sheets("", "", "", ""), List.of(), "");
+        byte[] packet = new BookRecordWriter().write(record).toByteArray();
+        BookRecord read = BookRecordReader.read(packet);
+        assertEquals("a b c d e\tf", read.title().content());
+        assertEquals(List.of("g h"), read.genres());
+        assertEquals(read, BookRecordDecoder.decode(XMPMetaFactory.parseFromBuffer(packet)));
+    }
+
+    @Test
+    void write_empty() throws XMPException {
+        BookRecord record = BookRecordDecoder.decode(XMPMetaFactory.create());
+        XMPMeta parsed = XMPMetaFactory.parseFromBuffer(new BookRecordWriter().write(record).toByteArray());
+        assertEquals(record, BookRecordDecoder.decode(parsed));
+        assertTrue(bookTree(parsed).isEmpty());
+    }
+
+    @Test
+    void write_otherSchemas() throws XMPException {
+        String dc = "<rdf:Description rdf:about=\"\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\">" +
+                "<dc:format>application/pdf</dc:format></rdf:Description>\n";
+        BookRecord record = BookRecord.of(BookRecordDecoderTest.newSchema(1));
+        XMPMeta parsed = XMPMetaFactory.parseFromBuffer(new BookRecordWriter()
+                .write(record, dc.getBytes(StandardCharsets.UTF_8)).toByteArray());
+        assertEquals("application/pdf", parsed.getPropertyString("http://purl.org/dc/elements/1.1/", "format"));
+        assertEquals(record, BookRecordDecoder.decode(parsed));
+    }
+
+    @Test
+    void write_reused() throws XMPException {
+        BookRecordWriter writer = new BookRecordWriter(256);
+        BookRecord large = BookRecord.of(BookRecordDecoderTest.newSchema(200));
+        BookRecord small = BookRecord.of(BookRecordDecoderTest.newSchema(1));
+        int largeSize = writer.write(large).size();
+        byte[] smallPacket = writer.write(small).toByteArray();
+        assertTrue(smallPacket.length < largeSize);
+        assertEquals(small, BookRecordDecoder.decode(XMPMetaFactory.parseFromBuffer(smallPacket)));
+        assertArrayEquals(smallPacket, new BookRecordWriter().write(small).toByteArray());
+    }
+}
@@ -1,12 +1,16 @@
 package com.jisj.pdf.xmp;
 
+import com.adobe.internal.xmp.XMPException;
+import com.adobe.internal.xmp.XMPMeta;
 import com.adobe.internal.xmp.XMPMetaFactory;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -96,4 +100,110 @@ class BookXMPSchemaTest {
         System.out.println(b.getMetadata().dumpObject());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void worksCursorAndView() {
+        BookXMPSchema b = BookRecordDecoderTest.newSchema(50);
+        List<String> titles = new ArrayList<>();
+        List<WorkStruct> accessors = new ArrayList<>();
+        b.forEachWork(w -> {
+            titles.add(w.getTitle().getContent());
+            accessors.add(w);
+        });
+        assertEquals(b.getWorks().stream().map(w -> w.getTitle().getContent()).toList(), titles);
+        assertEquals(1, accessors.stream().distinct().count());
+
+        List<String> authors = new ArrayList<>();
+        b.forEachWork(w -> w.forEachAuthor(a -> authors.add(a.getName())));
+        assertEquals(50, authors.size());
+        b.forEachAuthor(a -> authors.add(a.getName()));
+        assertEquals(List.of("J.S. Bach", "F. Busoni"), authors.subList(50, 52));
+
+        List<WorkStruct> view = b.getWorksView();
+        assertEquals(50, view.size());
+        assertEquals("Work #37", view.get(36).getTitle().getContent());
+        assertEquals("F. Busoni", b.getAuthorsView().get(1).getName());
+        assertEquals("J.S. Bach", view.getLast().getAuthorsView().getFirst().getName());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(50));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(view.getFirst()));
+        b.addWork().setTitle("Work #51", "en");
+        assertEquals(51, view.size());
+    }
+
+    @Test
+    void bulkSetters() throws XMPException {
+        BookRecord record = BookRecord.of(BookRecordDecoderTest.newSchema(40));
+        BookXMPSchema b = new BookXMPSchema(XMPMetaFactory.create());
+        b.setTitle(record.title().content(), record.title().lang());
+        b.setGUID(record.guid());
+        b.setDateCreated(record.dateCreated());
+        b.setGenres(record.genres());
+        b.setAuthors(record.authors());
+        b.setSheets("C-moll", "piano", "BWV 826", "Busoni");
+        b.setWorks(record.works());
+        b.setPreferredShelf(record.preferredShelf());
+        assertEquals(record, BookRecord.of(b));
+        XMPMeta expected = XMPMetaFactory.parseFromBuffer(new BookRecordWriter().write(record).toByteArray());
+        XMPMeta actual = XMPMetaFactory.parseFromBuffer(XMPMetaFactory.serializeToBuffer(b.getMetadata(), null));
+        assertEquals(BookRecordWriterTest.bookTree(expected), BookRecordWriterTest.bookTree(actual));
+
+        // the bulk setters replace the arrays
+        b.setWorks(record.works().subList(0, 3));
+        b.setGenres(Set.of("sf"));
+        assertEquals(record.works().subList(0, 3), BookRecord.of(b).works());
+        assertEquals(List.of("sf"), b.getGenres());
+        b.setAuthors(List.of());
+        b.getWorksView().getFirst().setGenres(List.of());
+        assertTrue(b.getAuthors().isEmpty());
+        assertTrue(b.getWorksView().getFirst().getGenres().isEmpty());
+        assertFalse(b.getMetadata().doesPropertyExist(BookXMPSchema.NS, BookXMPSchema.AUTHORS));
+    }
+
+    @Test
+    void arrayItemEdits() {
+        BookXMPSchema b = BookRecordDecoderTest.newSchema(6);
+        List<BookRecord.Work> works = new ArrayList<>(BookRecord.of(b).works());
+        BookRecord.Work replacement = new BookRecord.Work(new BookRecord.Title("Replaced", "de"), null, null,
+                List.of("a"), List.of(new BookRecord.Author("Busoni", "de", null)),
+                new BookRecord.Sheets("", "", "", ""));
+
+        b.moveWork(0, 4);
+        works.add(4, works.removeFirst());
+        b.moveWork(5, 1);
+        works.add(1, works.removeLast());
+        assertEquals(works, BookRecord.of(b).works());
+        b.replaceWork(2, replacement);
+        works.set(2, replacement);
+        b.removeWork(0);
+        works.removeFirst();
+        assertEquals(works, BookRecord.of(b).works());
+        assertThrows(IndexOutOfBoundsException.class, () -> b.removeWork(5));
+
+        b.moveGenre(1, 0);
+        assertEquals(List.of("music_barocca", "music_sheets"), b.getGenres());
+        b.replaceGenre(1, "sf");
+        b.removeGenre(0);
+        assertEquals(List.of("sf"), b.getGenres());
+
+        BookRecord.Author bach = BookRecord.Author.of(b.getAuthors().getFirst());
+        b.moveAuthor(0, 1);
+        assertEquals(bach, BookRecord.Author.of(b.getAuthors().getLast()));
+        b.replaceAuthor(0, bach);
+        b.removeAuthor(1);
+        assertEquals(List.of(bach), b.getAuthors().stream().map(BookRecord.Author::of).toList());
+
+        WorkStruct work = b.getWorksView().getFirst();
+        work.setAuthors(List.of(bach, replacement.authors().getFirst()));
+        work.moveAuthor(1, 0);
+        assertEquals("Busoni", work.getAuthors().getFirst().getName());
+        work.replaceAuthor(1, new BookRecord.Author("Bach", "", null));
+        work.removeAuthor(0);
+        assertEquals(List.of("Bach"), work.getAuthors().stream().map(AuthorStruct::getName).toList());
+        work.moveGenre(0, 1);
+        work.replaceGenre(0, "x");
+        work.removeGenre(1);
+        assertEquals(List.of("x"), work.getGenres());
+        work.removeGenre(0);
+        assertFalse(b.getMetadata().doesPropertyExist(BookXMPSchema.NS, work.getStructFieldPath(WorkStruct.NS, WorkStruct.GENRES)));
+    }
+}